@@ -2,6 +2,7 @@ package com.example.pizzeria;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
@@ -16,6 +17,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.rupizzaria.R;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -84,7 +86,9 @@ public class AllOrdersActivity extends AppCompatActivity {
         int selectedOrderNumber = (int) orderNumberSpinner.getSelectedItem();
         Order selectedOrder = orderManager.getOrderFromNumber(selectedOrderNumber);
         if (selectedOrder != null) {
-            ArrayAdapter<Pizza> adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, selectedOrder.getPizzas());
+            // Take the lines once so scrolling rebinds the same line objects and cached text
+            List<OrderLine> lines = new ArrayList<>(selectedOrder.getLines());
+            ArrayAdapter<OrderLine> adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, lines);
             currentOrderList.setAdapter(adapter);
             updateTotalAmount(selectedOrder);
         }
@@ -107,6 +111,7 @@ public class AllOrdersActivity extends AppCompatActivity {
             // Add the "Yes" button, which cancels the order if clicked
             builder.setPositiveButton("Yes", (dialog, which) -> {
                 orderManager.cancelOrder(selectedOrderNumber);
+                GlobalDataManager.getInstance().saveChangesAsync(status -> Log.d("AllOrdersActivity", status));
                 // Refresh the order number spinner and clear the current order list
                 populateOrderNumbers();
                 currentOrderList.setAdapter(null);
@@ -127,17 +132,23 @@ public class AllOrdersActivity extends AppCompatActivity {
 
     /**
      * Get all order numbers from all the orders placed and held in the all orders list within the orderManager object.
+     * The numbers are only boxed as the spinner shows them, and no order is loaded until it is selected.
      *
      * @return List of integers contain all of the order numbers.
      */
     private List<Integer> getAllOrderNumbers() {
-        List<Integer> orderNumbers = new ArrayList<>();
-        List<Order> allOrders = orderManager.getAllOrders();
-        for (Order order : allOrders) {
-            orderNumbers.add(order.getOrderNumber());
-        }
-        return orderNumbers;
+        int[] allOrderNumbers = orderManager.getAllOrderNumbers();
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return allOrderNumbers[index];
+            }
 
+            @Override
+            public int size() {
+                return allOrderNumbers.length;
+            }
+        };
     }
 
     /**
@@ -156,10 +167,10 @@ public class AllOrdersActivity extends AppCompatActivity {
      */
     private void updateTotalAmount(Order selectedOrder) {
         if (selectedOrder != null) {
-            double subtotal = OrderManager.calculateSubtotal(selectedOrder);
-            double salesTax = OrderManager.calculateSalesTax(subtotal);
-            double totalAmount = OrderManager.calculateTotalAmount(subtotal, salesTax);
-            totalAmountEditText.setText(getString(R.string.total_amount_format, totalAmount));
+            long subtotal = OrderManager.calculateSubtotal(selectedOrder);
+            long salesTax = OrderManager.calculateSalesTax(subtotal);
+            long totalAmount = OrderManager.calculateTotalAmount(subtotal, salesTax);
+            totalAmountEditText.setText(getString(R.string.total_amount_format, Money.format(totalAmount)));
         } else {
             totalAmountEditText.setText(""); // Clear the field if no order is selected
         }
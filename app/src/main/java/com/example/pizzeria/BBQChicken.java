@@ -1,14 +1,12 @@
 package com.example.pizzeria;
 
-import java.util.Arrays;
-
 /**
  * Represents a BBQ Chicken pizza with predefined toppings and prices based on size.
  * This pizza includes toppings specific to BBQ Chicken, such as BBQ chicken, green pepper,
  * provolone, and cheddar, and it uses a specific crust and size.
  * @author Jorgeluis Done
  */
-public class BBQChicken extends Pizza {
+public class BBQChicken extends SpecialtyPizza {
 
     /**
      * Constructs a BBQChicken pizza with the specified crust and size.
@@ -17,28 +15,20 @@ public class BBQChicken extends Pizza {
      * @param crust The crust type for the BBQ Chicken pizza.
      * @param size  The size of the BBQ Chicken pizza.
      */
-    public BBQChicken(Crust crust, Size size) {
+    BBQChicken(Crust crust, Size size) {
         // Initialize with specific toppings for BBQ Chicken
-        super(Arrays.asList(Topping.BBQCHICKEN, Topping.GREENPEPPER, Topping.PROVOLONE, Topping.CHEDDAR), crust, size);
+        super(PizzaType.BBQ_CHICKEN, crust, size);
     }
 
     /**
-     * Calculates the price of the BBQ Chicken pizza based on its size.
+     * Returns the shared BBQ Chicken pizza with the specified crust type and size.
+     * The same instance is returned every time, since it cannot be changed.
      *
-     * @return The price of the pizza.
+     * @param crust The type of crust for the BBQ Chicken pizza.
+     * @param size The size of the pizza (Small, Medium, or Large).
+     * @return The BBQ Chicken pizza.
      */
-    @Override
-    public double price() {
-        // Determine price based on the pizza size
-        switch (getSize()) {
-            case SMALL:
-                return 14.99;
-            case MEDIUM:
-                return 16.99;
-            case LARGE:
-                return 19.99;
-            default:
-                return 14.99; // Default to small if size is not defined
-        }
+    public static BBQChicken of(Crust crust, Size size) {
+        return (BBQChicken) PizzaRegistry.specialty(PizzaType.BBQ_CHICKEN, crust, size);
     }
 }
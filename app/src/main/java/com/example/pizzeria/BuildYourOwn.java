@@ -1,14 +1,30 @@
 package com.example.pizzeria;
 
-import java.util.ArrayList;
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents a customizable pizza where users can add their own toppings up to a limit.
  * This pizza allows customers to build their own with a choice of crust, size, and selected toppings.
  * Additional cost is applied based on the number of toppings added.
+ * Unlike the specialty pizzas, a Build Your Own pizza can be changed after it is created.
+ * It lists its toppings in the order they were picked. That order is only for display and is
+ * not part of the pizza's code, so pizzas with the same toppings are equal, share an order
+ * line, and are stored alike; order lines list their toppings in menu order.
  * @author Jorgeluis Done
  */
 public class BuildYourOwn extends Pizza {
+    private static final int PICK_BITS = 4;
+    private static final Topping[] TOPPINGS = Topping.values();
+
+    /**
+     * The order the toppings were picked in, 4 bits per topping holding its ordinal plus one,
+     * first pick lowest.
+     */
+    private int picks;
 
     /**
      * Constructs a BuildYourOwn pizza with a specified crust and size but no initial toppings.
@@ -17,20 +33,56 @@ public class BuildYourOwn extends Pizza {
      * @param size  The size of the Build Your Own pizza.
      */
     public BuildYourOwn(Crust crust, Size size) {
-        super(new ArrayList<>(), crust, size);
+        super(PizzaCode.of(PizzaType.BUILD_YOUR_OWN, crust, size, 0));
 //        System.out.println("Created BuildYourOwn pizza with size: " + size);
     }
 
+    /**
+     * Constructs a BuildYourOwn pizza with a specified crust, size and toppings.
+     *
+     * @param crust The crust type for the Build Your Own pizza.
+     * @param size  The size of the Build Your Own pizza.
+     * @param toppingMask Bitmask of the toppings, holding at most the topping limit.
+     * @throws IllegalArgumentException if there are more toppings than the topping limit.
+     */
+    public BuildYourOwn(Crust crust, Size size, int toppingMask) {
+        super(PizzaCode.of(PizzaType.BUILD_YOUR_OWN, crust, size, toppingMask));
+        picks = menuOrder(toppingMask);
+    }
+
+    /**
+     * Constructs a copy of a BuildYourOwn pizza with the same crust, size and toppings, picked
+     * in the same order. Later changes to either pizza do not affect the other.
+     *
+     * @param original The pizza to copy.
+     */
+    public BuildYourOwn(BuildYourOwn original) {
+        this(original.getCode(), original.picks);
+    }
+
+    /**
+     * Constructs a BuildYourOwn pizza from its code and the order its toppings were picked in.
+     *
+     * @param code The PizzaCode of a Build Your Own pizza, which must be valid.
+     * @param picks The order the code's toppings were picked in.
+     */
+    private BuildYourOwn(long code, int picks) {
+        super(code);
+        this.picks = picks;
+    }
+
     /**
      * Adds a topping to the pizza, if it doesn't exceed the topping limit or duplicate existing toppings.
+     * The topping is listed after the ones already picked.
      *
      * @param topping The topping to add to the pizza.
      */
     public void addTopping(Topping topping) {
-        if (getToppings().size() < 7 && !getToppings().contains(topping)) {
-            getToppings().add(topping);
+        if (getToppingCount() < PriceTable.MAX_TOPPINGS && !hasTopping(topping)) {
+            picks |= topping.ordinal() + 1 << PICK_BITS * getToppingCount();
+            setToppingMask(getToppingMask() | topping.mask());
             // System.out.println("Added topping: " + topping + " | New price: $" + String.format("%.2f", price()));
-        } else if (getToppings().contains(topping)) {
+        } else if (hasTopping(topping)) {
             // System.out.println("Topping already added: " + topping);
         } else {
             // System.out.println("Cannot add more than 7 toppings.");
@@ -38,19 +90,127 @@ public class BuildYourOwn extends Pizza {
     }
 
     /**
-     * Removes a topping from the pizza if it is currently added.
+     * Removes a topping from the pizza if it is currently added, keeping the order of the others.
      *
      * @param topping The topping to remove from the pizza.
      */
     public void removeTopping(Topping topping) {
-        if (getToppings().contains(topping)) {
-            getToppings().remove(topping);
+        if (hasTopping(topping)) {
+            int kept = 0;
+            int keptCount = 0;
+            for (int shift = 0; picks >>> shift != 0; shift += PICK_BITS) {
+                int pick = picks >>> shift & (1 << PICK_BITS) - 1;
+                if (pick != topping.ordinal() + 1) {
+                    kept |= pick << PICK_BITS * keptCount++;
+                }
+            }
+            picks = kept;
+            setToppingMask(getToppingMask() & ~topping.mask());
             // System.out.println("Removed topping: " + topping + " | New price: $" + String.format("%.2f", price()));
         } else {
             // System.out.println("Topping not found: " + topping);
         }
     }
 
+    /**
+     * Sets the crust type for the pizza.
+     *
+     * @param crust The crust type to be set.
+     */
+    @Override
+    public void setCrust(Crust crust) {
+        super.setCrust(crust);
+    }
+
+    /**
+     * Sets the size of the pizza.
+     *
+     * @param size The size to be set.
+     */
+    @Override
+    public void setSize(Size size) {
+        super.setSize(size);
+    }
+
+    /**
+     * Returns a new Build Your Own pizza with this pizza's size and toppings and the
+     * specified crust.
+     *
+     * @param crust The crust type of the new pizza.
+     * @return The new Build Your Own pizza.
+     */
+    @Override
+    public Pizza withCrust(Crust crust) {
+        return new BuildYourOwn(PizzaCode.withCrust(getCode(), crust), picks);
+    }
+
+    /**
+     * Returns a new Build Your Own pizza with this pizza's crust and toppings in the
+     * specified size.
+     *
+     * @param size The size of the new pizza.
+     * @return The new Build Your Own pizza.
+     */
+    @Override
+    public Pizza withSize(Size size) {
+        return new BuildYourOwn(PizzaCode.withSize(getCode(), size), picks);
+    }
+
+    /**
+     * Returns a new Build Your Own pizza with the same crust, size and toppings.
+     *
+     * @return The copy of the pizza.
+     */
+    @Override
+    public Pizza copy() {
+        return new BuildYourOwn(this);
+    }
+
+    /**
+     * Returns the toppings on the pizza in the order they were picked.
+     *
+     * @return Read-only list of toppings.
+     */
+    @Override
+    public List<Topping> getToppings() {
+        if (picks == menuOrder(getToppingMask())) {
+            return super.getToppings();
+        }
+        Topping[] toppings = new Topping[getToppingCount()];
+        for (int i = 0; i < toppings.length; i++) {
+            toppings[i] = TOPPINGS[(picks >>> PICK_BITS * i & (1 << PICK_BITS) - 1) - 1];
+        }
+        return Collections.unmodifiableList(Arrays.asList(toppings));
+    }
+
+    /**
+     * Returns a string representation of the pizza, listing its toppings in the order they were
+     * picked. Pizzas whose toppings were picked in menu order share the cached label; others
+     * build their text each time, since it is not shared with any order line.
+     *
+     * @return a formatted string with the pizza's size, crust, and toppings.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        if (picks == menuOrder(getToppingMask())) {
+            return super.toString();
+        }
+        return PizzaCode.toString(getCode(), getToppings());
+    }
+
+    /**
+     * Returns the picks of a topping bitmask whose toppings were picked in menu order.
+     */
+    private static int menuOrder(int toppingMask) {
+        int picks = 0;
+        int count = 0;
+        for (Topping topping : Topping.listOf(toppingMask)) {
+            picks |= topping.ordinal() + 1 << PICK_BITS * count++;
+        }
+        return picks;
+    }
+
     /**
      * Adds a topping to the pizza by the topping's name.
      * Attempts to convert the string name into a Topping enum using Topping.fromString.
@@ -80,16 +240,4 @@ public class BuildYourOwn extends Pizza {
             // System.out.println("Invalid topping: " + toppingName);
         }
     }
-
-    /**
-     * Calculates the total price of the Build Your Own pizza, including the base price
-     * and an additional charge for each topping added.
-     *
-     * @return The total price of the pizza.
-     */
-    @Override
-    public double price() {
-//        System.out.println("Calculating price with base price: " + basePrice() + " and toppings count: " + getToppings().size());
-        return basePrice() + 1.69 * getToppings().size();
-    }
 }
@@ -1,16 +1,32 @@
 package com.example.pizzeria;
 
+import java.util.Arrays;
+
 /**
  * A factory class that produces different types of Chicago-style pizzas.
  * Each pizza created by this factory uses a specified default size and
- * specific crusts depending on the pizza type.
+ * specific crusts depending on the pizza type, looked up by the pizza type's id.
  * @author Jorgeluis Done
  */
 public class ChicagoPizza implements PizzaFactory {
+
+    /**
+     * The crust of each pizza type in this style, indexed by pizza type id. Types without a
+     * crust of their own use the Build Your Own crust.
+     */
+    private static final Crust[] CRUSTS = new Crust[MenuCatalog.typeCount()];
+
+    static {
+        Arrays.fill(CRUSTS, Crust.PAN);
+        CRUSTS[PizzaType.DELUXE.ordinal()] = Crust.DEEP_DISH;
+        CRUSTS[PizzaType.MEATZZA.ordinal()] = Crust.STUFFED;
+        CRUSTS[PizzaType.BBQ_CHICKEN.ordinal()] = Crust.PAN;
+    }
+
     /**
      * The default size for pizzas created by this factory.
      */
-    private Size defaultSize;
+    private final Size defaultSize;
 
     /**
      * Constructs a ChicagoPizza factory with a specified default size for pizzas.
@@ -21,34 +37,45 @@ public class ChicagoPizza implements PizzaFactory {
         this.defaultSize = size;
     }
 
+    /**
+     * Returns the crust this style uses for a pizza type.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @return The crust type.
+     */
+    @Override
+    public Crust getCrust(int typeId) {
+        return CRUSTS[typeId];
+    }
+
     /**
      * Creates a Deluxe pizza with a deep dish crust.
      *
-     * @return A new instance of a Deluxe pizza with Chicago-style crust and default size.
+     * @return The shared Deluxe pizza with Chicago-style crust and default size.
      */
     @Override
     public Pizza createDeluxe() {
-        return new Deluxe(Crust.DEEP_DISH, defaultSize);
+        return create(PizzaType.DELUXE.ordinal(), defaultSize);
     }
 
     /**
-     * Creates a Meatzza pizza with a hand-tossed crust.
+     * Creates a Meatzza pizza with a stuffed crust.
      *
-     * @return A new instance of a Meatzza pizza with Chicago-style crust and default size.
+     * @return The shared Meatzza pizza with Chicago-style crust and default size.
      */
     @Override
     public Pizza createMeatzza() {
-        return new Meatzza(Crust.HAND_TOSSED, defaultSize);
+        return create(PizzaType.MEATZZA.ordinal(), defaultSize);
     }
 
     /**
      * Creates a BBQ Chicken pizza with a pan crust.
      *
-     * @return A new instance of a BBQ Chicken pizza with Chicago-style crust and default size.
+     * @return The shared BBQ Chicken pizza with Chicago-style crust and default size.
      */
     @Override
     public Pizza createBBQChicken() {
-        return new BBQChicken(Crust.PAN, defaultSize);
+        return create(PizzaType.BBQ_CHICKEN.ordinal(), defaultSize);
     }
 
     /**
@@ -58,6 +85,6 @@ public class ChicagoPizza implements PizzaFactory {
      */
     @Override
     public Pizza createBuildYourOwn() {
-        return new BuildYourOwn(Crust.PAN, defaultSize);
+        return create(PizzaType.BUILD_YOUR_OWN.ordinal(), defaultSize);
     }
 }
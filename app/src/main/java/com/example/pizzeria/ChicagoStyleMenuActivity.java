@@ -18,9 +18,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.rupizzaria.R;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 
 /**
  * Activity for configuring and ordering Chicago-style pizzas.
@@ -30,6 +28,12 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
         implements ToppingsAdapter.onToppingsInteractionsListener {
     private ArrayList<ToppingItem> toppings = new ArrayList<>();
     ToppingsAdapter toppingsAdapter;
+    /**
+     * The MenuCatalog ids of the pizza types, in the order the type spinner lists them.
+     */
+    private static final int[] PIZZA_TYPE_IDS = {PizzaType.DELUXE.ordinal(),
+            PizzaType.BUILD_YOUR_OWN.ordinal(), PizzaType.BBQ_CHICKEN.ordinal(),
+            PizzaType.MEATZZA.ordinal()};
     private int[] toppingImages = {R.drawable.sausage, R.drawable.pepperoni, R.drawable.greenpepper,
             R.drawable.onion, R.drawable.mushroom, R.drawable.cheddar, R.drawable.bbqchicken,
             R.drawable.provolone, R.drawable.beef, R.drawable.ham};
@@ -39,6 +43,7 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
     private RecyclerView rcview;
     private Pizza currentPizza;
     private OrderManager orderManager;
+    private final PizzaFactory pizzaFactory = new ChicagoPizza(Size.SMALL);
 
     private HashMap<Topping, CheckBox> toppingToCheckboxMap;
 
@@ -57,9 +62,9 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
         setupSizeSpinner();
         setupButtonHandlers();
 
-        pizzaTypeSpinner.setSelection(((ArrayAdapter<String>) pizzaTypeSpinner.getAdapter()).getPosition("Build Your Own"));
-        sizeSpinner.setSelection(((ArrayAdapter<String>) sizeSpinner.getAdapter()).getPosition("Small"));
-        selectPizza("Build Your Own", "Pan");
+        pizzaTypeSpinner.setSelection(positionOf(PizzaType.BUILD_YOUR_OWN.ordinal()));
+        sizeSpinner.setSelection(Size.SMALL.ordinal());
+        selectPizza(PizzaType.BUILD_YOUR_OWN.ordinal());
         orderManager = GlobalDataManager.getInstance().getOrderManager();
     }
 
@@ -70,6 +75,10 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
         pizzaTypeSpinner = findViewById(R.id.ChicagoPizzaTypeSpinner);
         sizeSpinner = findViewById(R.id.ChicagoSizeSpinner);
         crustValEditText = findViewById(R.id.ChicagoCrustValEditText);
+        GlobalDataManager.getInstance().getImageLoader(this).load(
+                findViewById(R.id.ChicagoPizzaImageView), R.drawable.chicago_style_pizza2,
+                getResources().getDimensionPixelSize(R.dimen.style_image_width),
+                getResources().getDimensionPixelSize(R.dimen.style_image_height));
         quantityEditTextNumber = findViewById(R.id.ChicagoQuantityEditTextNumber);
         pizzaSubTotal = findViewById(R.id.ChicagoPizzaSubTotal);
 
@@ -89,13 +98,19 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
     }
 
     /**
-     * Initializes and populates the RecyclerView with the topping items.
+     * Initializes and populates the RecyclerView with the topping items, looking up the menu
+     * id of each topping name once so that later selections work on ids.
      */
     private void setUpToppingItems() {
         String[] toppingNames = getResources().getStringArray(R.array.toppingNames);
 
         for (int i = 0; i < toppingNames.length; i++) {
-            toppings.add(new ToppingItem(toppingNames[i], toppingImages[i],
+            int toppingId = MenuCatalog.findTopping(toppingNames[i]);
+            if (toppingId < 0) {
+                Log.e("DEBUG", "Unknown topping: " + toppingNames[i]);
+                continue;
+            }
+            toppings.add(new ToppingItem(toppingNames[i], toppingId, toppingImages[i],
                     "Unselected"));
         }
     }
@@ -104,8 +119,7 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
      * Sets up the spinner for selecting pizza types.
      */
     private void setupPizzaTypeSpinner() {
-        List<String> pizzaTypes = Arrays.asList("Deluxe", "Build Your Own", "BBQ Chicken",
-                "Meatzza");
+        String[] pizzaTypes = MenuCatalog.names(PizzaType.values(), PIZZA_TYPE_IDS);
         ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
                 android.R.layout.simple_spinner_item, pizzaTypes);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
@@ -113,9 +127,9 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
         pizzaTypeSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                String selectedPizzaType = pizzaTypes.get(position);
-                Log.d("DEBUG", "Selected pizza type: " + selectedPizzaType);
-                updatePizzaSelection(selectedPizzaType);
+                int selectedTypeId = PIZZA_TYPE_IDS[position];
+                Log.d("DEBUG", "Selected pizza type: " + MenuCatalog.type(selectedTypeId));
+                updatePizzaSelection(selectedTypeId);
             }
 
             @Override
@@ -126,10 +140,14 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
     }
 
     /**
-     * Sets up the spinner for selecting pizza sizes.
+     * Sets up the spinner for selecting pizza sizes. The sizes are listed in id order, so a
+     * position in the spinner is the size's id.
      */
     private void setupSizeSpinner() {
-        List<String> sizes = Arrays.asList("Small", "Medium", "Large");
+        String[] sizes = new String[MenuCatalog.sizeCount()];
+        for (int id = 0; id < sizes.length; id++) {
+            sizes[id] = MenuCatalog.size(id).toString();
+        }
         ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
                 android.R.layout.simple_spinner_item, sizes);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
@@ -137,10 +155,10 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
         sizeSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                Size selectedSize = Size.valueOf(sizes.get(position).toUpperCase());
+                Size selectedSize = MenuCatalog.size(position);
                 Log.d("DEBUG", "Selected size: " + selectedSize);
                 if (currentPizza != null) {
-                    currentPizza.setSize(selectedSize);
+                    currentPizza = currentPizza.withSize(selectedSize);
                     updateTotalPrice();
                 }
             }
@@ -155,81 +173,61 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
     /**
      * Updates the selection buttons in the RecyclerView to correspond with the selected
      * pizza type.
+     *
+     * @param typeId The MenuCatalog id of the selected pizza type.
      */
-    private void updateToppingsAccessibility(String pizzaType) {
-        if (!pizzaType.equals("Build Your Own")) {
-            List<String> stringOfToppings = new ArrayList<>();
-            for (Topping topping : currentPizza.getToppings())
-                stringOfToppings.add(topping.toString());
-            toppingsAdapter.updateSelections(stringOfToppings);
+    private void updateToppingsAccessibility(int typeId) {
+        if (MenuCatalog.type(typeId) != PizzaType.BUILD_YOUR_OWN && currentPizza != null) {
+            toppingsAdapter.updateSelections(currentPizza.getToppingMask());
         }
     }
 
     /**
      * Updates the selection of pizza based on the selected type and updates UI accordingly.
      *
-     * @param pizzaType The type of pizza selected.
+     * @param typeId The MenuCatalog id of the pizza type selected.
      */
-    private void updatePizzaSelection(String pizzaType) {
-        String crustType = getCrustType(pizzaType);
-        crustValEditText.setText(crustType);
-        selectPizza(pizzaType, crustType);
-        updateToppingsAccessibility(pizzaType);
+    private void updatePizzaSelection(int typeId) {
+        crustValEditText.setText(pizzaFactory.getCrust(typeId).toString());
+        selectPizza(typeId);
+        updateToppingsAccessibility(typeId);
     }
 
     /**
-     * Retrieves the crust type based on the pizza type.
+     * Returns the position of a pizza type in the type spinner.
      *
-     * @param pizzaType The type of pizza.
-     * @return The corresponding crust type as a string.
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @return The position of the pizza type in the spinner.
      */
-    private String getCrustType(String pizzaType) {
-        switch (pizzaType) {
-            case "Deluxe": return "Deep Dish";
-            case "BBQ Chicken": return "Pan";
-            case "Meatzza": return "Stuffed";
-            case "Build Your Own": return "Pan";
-            default: return null;
+    private static int positionOf(int typeId) {
+        for (int position = 0; position < PIZZA_TYPE_IDS.length; position++) {
+            if (PIZZA_TYPE_IDS[position] == typeId) {
+                return position;
+            }
         }
+        return 0;
     }
 
     /**
-     * Selects a pizza based on type and crust, clearing old toppings and setting new ones.
+     * Selects a pizza based on type through this style's pizza factory, which picks the crust,
+     * clearing old toppings and setting new ones.
      *
-     * @param pizzaType The type of pizza.
-     * @param crustType The crust type.
+     * @param typeId The MenuCatalog id of the pizza type.
      */
-    private void selectPizza(String pizzaType, String crustType) {
-        Crust crust = Crust.valueOf(crustType.replace(" ", "_").toUpperCase());
-        Size selectedSize = getSelectedSize();
-        updateToppingsAccessibility(pizzaType);
-        switch (pizzaType) {
-            case "Deluxe":
-                currentPizza = new Deluxe(crust, selectedSize);
-                break;
-            case "BBQ Chicken":
-                currentPizza = new BBQChicken(crust, selectedSize);
-                break;
-            case "Meatzza":
-                currentPizza = new Meatzza(crust, selectedSize);
-                break;
-            case "Build Your Own":
-                currentPizza = new BuildYourOwn(crust, selectedSize);
-                toppingsAdapter.resetSelections();
-                toppingsAdapter.enableSelectButtons();
-                break;
-            default:
-                Log.e("DEBUG", "Unknown pizza type: " + pizzaType);
-                currentPizza = null;
-                return;
+    private void selectPizza(int typeId) {
+        PizzaType pizzaType = MenuCatalog.type(typeId);
+        updateToppingsAccessibility(typeId);
+        currentPizza = pizzaFactory.create(typeId, getSelectedSize());
+        if (pizzaType == PizzaType.BUILD_YOUR_OWN) {
+            toppingsAdapter.resetSelections();
+            toppingsAdapter.enableSelectButtons();
         }
 
         if (currentPizza != null) {
-            currentPizza.setCrust(crust);
             updateTotalPrice();
         }
 
-        if (!pizzaType.equals("Build Your Own")) toppingsAdapter.disableSelectButtons();
+        if (pizzaType != PizzaType.BUILD_YOUR_OWN) toppingsAdapter.disableSelectButtons();
     }
 
     /**
@@ -237,9 +235,9 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
      */
     private void updateTotalPrice() {
         if (currentPizza != null) {
-            double totalPrice = currentPizza.price() * Integer.valueOf(
-                    quantityEditTextNumber.getText().toString());
-            pizzaSubTotal.setText(String.format("%.2f", totalPrice));
+            long totalPrice = Money.times(currentPizza.price(), Integer.parseInt(
+                    quantityEditTextNumber.getText().toString()));
+            pizzaSubTotal.setText(Money.format(totalPrice));
         }
     }
 
@@ -273,7 +271,8 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
     }
 
     /**
-     * Adds the current configured pizza to the order, handling multiple quantities.
+     * Adds the current configured pizza to the order as a single line with the chosen
+     * quantity. The order keeps its own copy of the pizza.
      */
     private void addToOrder() {
         if (currentPizza == null) {
@@ -285,15 +284,8 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
 
         try {
             int orderQuantity = Integer.parseInt(quantityEditTextNumber.getText().toString());
-            for (int i = 0; i < orderQuantity; i++) {
-                Pizza pizzaToAdd = clonePizza(currentPizza);
-                if (pizzaToAdd == null) {
-                    Log.e("DEBUG", "Failed to clone pizza");
-                    continue;  // Skip adding if clone fails
-                }
-                orderManager.getCurrentOrder().addPizza(pizzaToAdd);
-                Log.d("DEBUG", "Added pizza to order, quantity: " + orderQuantity);
-            }
+            orderManager.addToCurrentOrder(currentPizza, orderQuantity);
+            Log.d("DEBUG", "Added pizza to order, quantity: " + orderQuantity);
             Toast.makeText(this, "Pizza successfully added to order.",
                     Toast.LENGTH_LONG).show();
             resetOrder();
@@ -303,49 +295,6 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
         }
     }
 
-    /**
-     * Clones the current pizza, creating a new instance with the same properties.
-     *
-     * @param original The original pizza to clone.
-     * @return A new pizza instance with the same properties as the original.
-     */
-    private Pizza clonePizza(Pizza original) {
-        if (original == null) {
-            Log.e("DEBUG", "Original pizza is null, cannot clone.");
-            return null;
-        }
-
-        Pizza cloned = null;
-        // Clone based on the type of the original pizza
-        try {
-            switch (original.getClass().getSimpleName()) {
-                case "BuildYourOwn":
-                    cloned = new BuildYourOwn(original.getCrust(), original.getSize());
-                    for (Topping topping : original.getToppings()) {
-                        cloned.addTopping(topping); // Ensure toppings are not null
-                    }
-                    break;
-                case "Deluxe":
-                    cloned = new Deluxe(original.getCrust(), original.getSize());
-                    break;
-                case "BBQChicken":
-                    cloned = new BBQChicken(original.getCrust(), original.getSize());
-                    break;
-                case "Meatzza":
-                    cloned = new Meatzza(original.getCrust(), original.getSize());
-                    break;
-                default:
-                    Log.e("DEBUG", "Unknown pizza type: " +
-                            original.getClass().getSimpleName());
-                    return null;
-            }
-        } catch (Exception e) {
-            Log.e("DEBUG", "Error in cloning pizza: " + e.getMessage());
-            return null;
-        }
-        return cloned;
-    }
-
     /**
      * Resets the order after a pizza is added to the order, clearing selections
      * and resetting the UI.
@@ -358,12 +307,12 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
             Log.d("DEBUG", "No current pizza to reset.");
         }
         quantityEditTextNumber.setText("1");
-        if ("Build Your Own".equals(pizzaTypeSpinner.getSelectedItem().toString())) {
+        int typeId = PIZZA_TYPE_IDS[pizzaTypeSpinner.getSelectedItemPosition()];
+        if (MenuCatalog.type(typeId) == PizzaType.BUILD_YOUR_OWN) {
             clearToppings();
         }
         Log.d("DEBUG", "Order reset successfully.");
-        selectPizza(pizzaTypeSpinner.getSelectedItem().toString(),
-                crustValEditText.getText().toString());
+        selectPizza(typeId);
     }
 
     /**
@@ -380,13 +329,7 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
      * @return The selected pizza size.
      */
     private Size getSelectedSize() {
-        String selectedSize = sizeSpinner.getSelectedItem().toString();
-        switch (selectedSize) {
-            case "Large": return Size.LARGE;
-            case "Medium": return Size.MEDIUM;
-            case "Small": return Size.SMALL;
-            default: return Size.SMALL;
-        }
+        return MenuCatalog.size(sizeSpinner.getSelectedItemPosition());
     }
 
     /**
@@ -395,8 +338,10 @@ public class ChicagoStyleMenuActivity extends AppCompatActivity
      */
     @Override
     public void selectTopping(Topping topping) {
-        currentPizza.addTopping(topping);
-        updateTotalPrice();
+        if (currentPizza instanceof BuildYourOwn) {
+            currentPizza.addTopping(topping);
+            updateTotalPrice();
+        }
     }
 
     /**
@@ -5,6 +5,7 @@ import static androidx.core.content.ContextCompat.startActivity;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
@@ -26,12 +27,12 @@ import java.util.ArrayList;
 public class CurrentOrderActivity extends AppCompatActivity implements AdapterView.OnItemClickListener {
 
     private OrderManager orderManager;
-    private ArrayList<Pizza> currentOrderItems;
+    private ArrayList<OrderLine> currentOrderItems;
     private ListView currentOrderList;
     private EditText subTotalTextField;
     private EditText salesTaxTextField;
     private EditText totalAmountTextField;
-    private ArrayAdapter<Pizza> adapter;
+    private ArrayAdapter<OrderLine> adapter;
 
     /**
      * Called when the activity is starting. This is where most initialization should go.
@@ -82,24 +83,25 @@ public class CurrentOrderActivity extends AppCompatActivity implements AdapterVi
      */
     private void updateObservableList() {
         currentOrderItems.clear();
-        currentOrderItems.addAll(orderManager.getCurrentOrder().getPizzas());
+        currentOrderItems.addAll(orderManager.getCurrentOrder().getLines());
     }
 
     /**
      * Updates the subtotal, sales tax, and total amount displayed in the UI.
      */
     private void updateTotals() {
-        double subtotal = OrderManager.calculateSubtotal(orderManager.getCurrentOrder());
-        double salesTax = OrderManager.calculateSalesTax(subtotal);
-        double totalAmount = OrderManager.calculateTotalAmount(subtotal, salesTax);
+        long subtotal = OrderManager.calculateSubtotal(orderManager.getCurrentOrder());
+        long salesTax = OrderManager.calculateSalesTax(subtotal);
+        long totalAmount = OrderManager.calculateTotalAmount(subtotal, salesTax);
 
-        subTotalTextField.setText(String.format(getString(R.string.sub_total_format), subtotal));
-        salesTaxTextField.setText(String.format(getString(R.string.sales_tax_format), salesTax));
-        totalAmountTextField.setText(String.format(getString(R.string.total_amount_format), totalAmount));
+        subTotalTextField.setText(getString(R.string.sub_total_format, Money.format(subtotal)));
+        salesTaxTextField.setText(getString(R.string.sales_tax_format, Money.format(salesTax)));
+        totalAmountTextField.setText(getString(R.string.total_amount_format, Money.format(totalAmount)));
     }
 
     /**
-     * Handles item clicks in the order list. Prompts the user to confirm removal of a selected item.
+     * Handles item clicks in the order list. Prompts the user to confirm removal of one pizza
+     * from the selected line; the line goes away with its last pizza.
      */
     @Override
     public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
@@ -107,8 +109,8 @@ public class CurrentOrderActivity extends AppCompatActivity implements AdapterVi
         builder.setTitle("Remove Pizza");
         builder.setMessage("Are you sure you want to remove this pizza?");
         builder.setPositiveButton("Yes", (dialog, which) -> {
-            Pizza selectedPizza = currentOrderItems.get(position);
-            orderManager.getCurrentOrder().removePizza(selectedPizza);
+            OrderLine selectedLine = currentOrderItems.get(position);
+            orderManager.removeFromCurrentOrder(selectedLine.getPizza(), 1);
             updateView();
             Toast.makeText(this, "Pizza removed from order.", Toast.LENGTH_SHORT).show();
         });
@@ -133,6 +135,7 @@ public class CurrentOrderActivity extends AppCompatActivity implements AdapterVi
         builder.setPositiveButton("Yes", (DialogInterface.OnClickListener) (dialog, which)
         -> {
             orderManager.placeCurrentOrder();
+            GlobalDataManager.getInstance().saveChangesAsync(status -> Log.d("CurrentOrderActivity", status));
             Toast.makeText(this, "Order placed successfully!", Toast.LENGTH_SHORT).show();
             updateView();
         });
@@ -1,14 +1,12 @@
 package com.example.pizzeria;
 
-import java.util.Arrays;
-
 /**
  * Represents a Deluxe pizza with a specific set of toppings and Chicago-style crust.
  * The Deluxe pizza comes with a fixed set of toppings: sausage, pepperoni, green pepper, onion, and mushroom.
  * The price of the pizza is based on the selected size.
  * @author Jorgeluis Done
  */
-public class Deluxe extends Pizza {
+public class Deluxe extends SpecialtyPizza {
 
     /**
      * Constructs a Deluxe pizza with the specified crust type and size.
@@ -17,29 +15,20 @@ public class Deluxe extends Pizza {
      * @param crust The type of crust for the Deluxe pizza.
      * @param size The size of the pizza (Small, Medium, or Large).
      */
-    public Deluxe(Crust crust, Size size) {
+    Deluxe(Crust crust, Size size) {
         // Initialize with fixed toppings for Deluxe pizza
-        super(Arrays.asList(Topping.SAUSAGE, Topping.PEPPERONI, Topping.GREENPEPPER,
-                Topping.ONION, Topping.MUSHROOM), crust, size);
+        super(PizzaType.DELUXE, crust, size);
     }
 
     /**
-     * Calculates the price of the Deluxe pizza based on its size.
+     * Returns the shared Deluxe pizza with the specified crust type and size.
+     * The same instance is returned every time, since it cannot be changed.
      *
-     * @return The price of the pizza as a double.
+     * @param crust The type of crust for the Deluxe pizza.
+     * @param size The size of the pizza (Small, Medium, or Large).
+     * @return The Deluxe pizza.
      */
-    @Override
-    public double price() {
-        // Set price based on size
-        switch (getSize()) {
-            case SMALL:
-                return 16.99;
-            case MEDIUM:
-                return 18.99;
-            case LARGE:
-                return 20.99;
-            default:
-                return 16.99; // Default to small price if size is undefined
-        }
+    public static Deluxe of(Crust crust, Size size) {
+        return (Deluxe) PizzaRegistry.specialty(PizzaType.DELUXE, crust, size);
     }
 }
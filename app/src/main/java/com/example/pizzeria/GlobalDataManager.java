@@ -1,11 +1,40 @@
 package com.example.pizzeria;
 
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * Singleton class for managing global data throughout the pizzeria application.
  */
 public class GlobalDataManager {
-    private static GlobalDataManager instance;
-    private OrderManager orderManager;
+    /**
+     * The name of the archive of older orders in the app's internal storage.
+     */
+    public static final String ARCHIVE_FILE = OrderRecovery.ARCHIVE_FILE;
+
+    /**
+     * The name of the readable orders file in the app's internal storage.
+     */
+    public static final String ORDERS_FILE = "orders.txt";
+
+    /**
+     * How often to check whether the order journal should be saved as a segment.
+     */
+    private static final long COMPACTION_PERIOD_MILLIS = 60_000;
+
+    /**
+     * The number of journal records that triggers a save, which bounds startup replay.
+     */
+    private static final long COMPACTION_MIN_RECORDS = 1_000;
+
+    private final OrderManager orderManager;
+    private OrderPersistenceService persistenceService;
+    private OrderRecovery recovery;
+    private ImageLoader imageLoader;
 
     /**
      * Private constructor to prevent instantiation from outside the class.
@@ -15,16 +44,48 @@ public class GlobalDataManager {
         orderManager = new OrderManager();
     }
 
+    /**
+     * Holds the singleton instance. The class is only initialized on the first call to
+     * getInstance, and class initialization is thread-safe, so no lock is taken afterwards.
+     */
+    private static final class InstanceHolder {
+        static final GlobalDataManager INSTANCE = new GlobalDataManager();
+    }
+
     /**
      * Get the singleton instance of GlobalDataManager.
      *
      * @return The GlobalDataManager instance.
      */
-    public static synchronized GlobalDataManager getInstance() {
-        if (instance == null) {
-            instance = new GlobalDataManager();
+    public static GlobalDataManager getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Prepares the global data for use by the app. Restores the orders from the archive,
+     * snapshot, segments and journal in the app's internal storage, and keeps journaling placed
+     * and cancelled orders. Archived orders are only indexed here and decoded when they are
+     * first looked up, so startup does not slow down as the order history grows. Calling this
+     * again after recovery has run has no effect.
+     *
+     * @param context The context used to locate the app's internal storage.
+     */
+    public synchronized void initialize(Context context) {
+        if (recovery != null) {
+            return;
+        }
+        recovery = new OrderRecovery(context.getFilesDir(), orderManager);
+        try {
+            OrderRecovery.Result result = recovery.recover();
+            Log.i("GlobalDataManager", "Indexed " + result.getArchivedOrders()
+                    + " archived orders and recovered " + result.getSnapshotOrders()
+                    + " orders, " + result.getSegmentRecords() + " saved changes and "
+                    + result.getJournalRecords() + " journal records in "
+                    + result.getElapsedMillis() + " ms");
+            recovery.startPeriodicCompaction(COMPACTION_PERIOD_MILLIS, COMPACTION_MIN_RECORDS);
+        } catch (IOException e) {
+            Log.e("GlobalDataManager", "Could not recover orders", e);
         }
-        return instance;
     }
 
     /**
@@ -35,4 +96,46 @@ public class GlobalDataManager {
     public OrderManager getOrderManager() {
         return orderManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the service that saves orders in the background, creating it on first use.
+     *
+     * @return The OrderPersistenceService instance.
+     */
+    public synchronized OrderPersistenceService getPersistenceService() {
+        if (persistenceService == null) {
+            persistenceService = new OrderPersistenceService(orderManager);
+        }
+        return persistenceService;
+    }
+
+    /**
+     * Get the image loader shared by every screen, creating it on first use, so an image
+     * decoded for one screen is reused by the others.
+     *
+     * @param context Any context of the app, used to reach the app's resources.
+     * @return The ImageLoader instance.
+     */
+    public synchronized ImageLoader getImageLoader(Context context) {
+        if (imageLoader == null) {
+            imageLoader = new ImageLoader(context.getApplicationContext().getResources());
+        }
+        return imageLoader;
+    }
+
+    /**
+     * Saves the orders placed and cancelled since the last save in the background. Only the
+     * changes are written, so the cost does not grow with the order history.
+     *
+     * @param statusListener Receives the status message on the main thread.
+     * @return A future completed with the status message of the save operation.
+     */
+    public synchronized CompletableFuture<String> saveChangesAsync(Consumer<String> statusListener) {
+        if (recovery == null) {
+            String status = "Orders are not being saved until the app is initialized.\n";
+            statusListener.accept(status);
+            return CompletableFuture.completedFuture(status);
+        }
+        return getPersistenceService().saveChangesAsync(recovery, statusListener);
+    }
+}
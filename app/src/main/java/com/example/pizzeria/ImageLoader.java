@@ -0,0 +1,203 @@
+package com.example.pizzeria;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads drawable images into views, decoding them on background threads at the size they are
+ * shown at and keeping the results in a memory cache bounded by size, so the full-resolution
+ * topping photos and menu pictures are decoded once per size instead of on every bind.
+ *
+ * Images are decoded at the largest power-of-two reduction that still covers the target size,
+ * without the density scaling the framework applies to drawables, since the target size
+ * already accounts for it. The least recently used images are evicted once the cache holds
+ * an eighth of the app's heap. Requests for an image that is already being decoded wait for
+ * that decode instead of starting another. A view that has been given a different image by
+ * the time a decode finishes, such as a recycled list row, is left alone.
+ * @author Jorgeluis Done
+ */
+public class ImageLoader {
+    private static final int DECODE_THREADS = 2;
+
+    private final Resources resources;
+    private final Executor mainThread;
+    private final ExecutorService decoder;
+    private final LruCache<Long, Bitmap> cache;
+
+    /**
+     * The decode in progress for each image and size.
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<Bitmap>> pendingDecodes =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong decodeCount = new AtomicLong();
+
+    /**
+     * Constructs an image loader for the app's resources, delivering images on the main thread.
+     * @param resources The resources the drawables are decoded from.
+     */
+    public ImageLoader(Resources resources) {
+        this(resources, new Handler(Looper.getMainLooper())::post,
+                (int) (Runtime.getRuntime().maxMemory() / 1024 / 8));
+    }
+
+    /**
+     * Constructs an image loader.
+     * @param resources The resources the drawables are decoded from.
+     * @param deliveryExecutor The executor that decoded images are set on views from.
+     * @param maxCacheKilobytes The most memory the cached images may take, in kilobytes.
+     */
+    public ImageLoader(Resources resources, Executor deliveryExecutor, int maxCacheKilobytes) {
+        this.resources = resources;
+        this.mainThread = deliveryExecutor;
+        this.cache = new LruCache<Long, Bitmap>(maxCacheKilobytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap bitmap) {
+                return Math.max(1, bitmap.getAllocationByteCount() / 1024);
+            }
+        };
+        this.decoder = Executors.newFixedThreadPool(DECODE_THREADS, task -> {
+            Thread thread = new Thread(task, "image-decode");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Shows a drawable in a view. A cached image is set right away; otherwise the view is
+     * cleared and the image is set once it has been decoded in the background.
+     * Must be called on the main thread.
+     * @param view The view to show the image in.
+     * @param resId The id of the drawable.
+     * @param width The width the image is shown at, in pixels.
+     * @param height The height the image is shown at, in pixels.
+     */
+    public void load(ImageView view, int resId, int width, int height) {
+        Long key = key(resId, width, height);
+        view.setTag(key);
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null) {
+            view.setImageBitmap(bitmap);
+            return;
+        }
+        view.setImageDrawable(null);
+        CompletableFuture<Bitmap> created = new CompletableFuture<>();
+        CompletableFuture<Bitmap> pending = pendingDecodes.putIfAbsent(key, created);
+        if (pending == null) {
+            // Only the request that registered the decode starts it and clears it afterwards,
+            // and the removal is conditional so it can never drop a later decode of the key
+            pending = created;
+            decoder.execute(() -> {
+                try {
+                    Bitmap decoded = decode(resId, width, height);
+                    cache.put(key, decoded);
+                    created.complete(decoded);
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    pendingDecodes.remove(key, created);
+                }
+            });
+        }
+        pending.whenCompleteAsync((decoded, error) -> {
+            if (error != null) {
+                Log.e("ImageLoader", "Could not decode image " + resId, error);
+            } else if (key.equals(view.getTag())) {
+                view.setImageBitmap(decoded);
+            }
+        }, mainThread);
+    }
+
+    /**
+     * Returns the number of images decoded, which counts each image once per size unless it
+     * has been evicted from the cache and decoded again.
+     * @return The number of decodes.
+     */
+    public long getDecodeCount() {
+        return decodeCount.get();
+    }
+
+    /**
+     * Returns the number of decodes that are still in progress.
+     * @return The number of pending decodes.
+     */
+    public int getPendingDecodeCount() {
+        return pendingDecodes.size();
+    }
+
+    /**
+     * Returns the number of loads that found their image in the cache.
+     * @return The number of cache hits.
+     */
+    public int getHitCount() {
+        return cache.hitCount();
+    }
+
+    /**
+     * Returns the number of loads that had to wait for their image to be decoded.
+     * @return The number of cache misses.
+     */
+    public int getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * Returns the fraction of loads that found their image in the cache.
+     * @return The hit rate, from 0 to 1, or 0 if nothing has been loaded.
+     */
+    public double getHitRate() {
+        int hits = cache.hitCount();
+        int total = hits + cache.missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the memory taken by the cached images.
+     * @return The size of the cache in kilobytes.
+     */
+    public int getCacheKilobytes() {
+        return cache.size();
+    }
+
+    private static Long key(int resId, int width, int height) {
+        return (long) resId << 32 | (long) (width & 0xFFFF) << 16 | (height & 0xFFFF);
+    }
+
+    /**
+     * Decodes a drawable at the largest power-of-two reduction that still covers the
+     * target size.
+     */
+    private Bitmap decode(int resId, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, options);
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width
+                && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        if (bitmap == null) {
+            throw new IllegalArgumentException("Not a bitmap drawable: " + resId);
+        }
+        decodeCount.incrementAndGet();
+        return bitmap;
+    }
+}
@@ -32,6 +32,7 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
         // Initialize the global OrderManager
+        GlobalDataManager.getInstance().initialize(getApplicationContext());
         orderManager = GlobalDataManager.getInstance().getOrderManager();
 
         // Initialize buttons and set click listeners for different sections
@@ -45,6 +46,17 @@ public class MainActivity extends AppCompatActivity {
         currentOrdersButton.setOnClickListener(this::openCurrentOrders);
         placedOrdersButton.setOnClickListener(this::openPlacedOrders);
 
+        // Decode the menu pictures at the size they are shown at, off the main thread
+        ImageLoader imageLoader = GlobalDataManager.getInstance().getImageLoader(this);
+        int buttonSize = getResources().getDimensionPixelSize(R.dimen.main_button_size);
+        imageLoader.load(findViewById(R.id.RUPizzaImage), R.drawable.ru_pizza_main_menu,
+                getResources().getDisplayMetrics().widthPixels,
+                getResources().getDimensionPixelSize(R.dimen.main_banner_height));
+        imageLoader.load(chicagoStyleButton, R.drawable.chicago_style_pizza, buttonSize, buttonSize);
+        imageLoader.load(nyStyleButton, R.drawable.ny_pizza, buttonSize, buttonSize);
+        imageLoader.load(currentOrdersButton, R.drawable.current_order, buttonSize, buttonSize);
+        imageLoader.load(placedOrdersButton, R.drawable.orders_placed, buttonSize, buttonSize);
+
         // Set TextViews for visual clarity
         TextView chicagoText = findViewById(R.id.ChicagoStylePizzaTextView);
         TextView nyText = findViewById(R.id.NYStylePizzaTextView);
@@ -0,0 +1,343 @@
+package com.example.pizzeria;
+
+import java.util.Arrays;
+
+/**
+ * The menu's toppings, crusts, sizes and pizza types, each numbered with dense integer IDs
+ * from 0, together with name lookup that runs in constant time and does not allocate.
+ *
+ * An item's ID is its enum ordinal, which is also the number topping bitmasks and PizzaCode
+ * use for it, so an ID can be stored, compared and sent between screens as a plain int.
+ * Names are matched ignoring case, spaces and punctuation, so "Hand-tossed", "Hand Tossed"
+ * and "HAND_TOSSED" all name the same crust. Each kind of item has a perfect hash table of
+ * its names, built once when the class is loaded, so a lookup hashes the name, checks the
+ * single slot it lands in, and never compares against more than one candidate.
+ * @author Jorgeluis Done
+ */
+public final class MenuCatalog {
+    private static final Topping[] TOPPINGS = Topping.values();
+    private static final Crust[] CRUSTS = Crust.values();
+    private static final Size[] SIZES = Size.values();
+    private static final PizzaType[] TYPES = PizzaType.values();
+
+    private static final NameTable TOPPING_NAMES = new NameTable(TOPPINGS);
+    private static final NameTable CRUST_NAMES = new NameTable(CRUSTS);
+    private static final NameTable SIZE_NAMES = new NameTable(SIZES);
+    private static final NameTable TYPE_NAMES = new NameTable(TYPES);
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private MenuCatalog() {
+    }
+
+    /**
+     * Returns the number of toppings on the menu, which is one more than the largest ID.
+     *
+     * @return The number of toppings.
+     */
+    public static int toppingCount() {
+        return TOPPINGS.length;
+    }
+
+    /**
+     * Returns the number of crusts on the menu, which is one more than the largest ID.
+     *
+     * @return The number of crusts.
+     */
+    public static int crustCount() {
+        return CRUSTS.length;
+    }
+
+    /**
+     * Returns the number of sizes on the menu, which is one more than the largest ID.
+     *
+     * @return The number of sizes.
+     */
+    public static int sizeCount() {
+        return SIZES.length;
+    }
+
+    /**
+     * Returns the number of pizza types on the menu, which is one more than the largest ID.
+     *
+     * @return The number of pizza types.
+     */
+    public static int typeCount() {
+        return TYPES.length;
+    }
+
+    /**
+     * Returns the topping with the given ID.
+     *
+     * @param id The topping ID.
+     * @return The topping.
+     */
+    public static Topping topping(int id) {
+        return TOPPINGS[id];
+    }
+
+    /**
+     * Returns the crust with the given ID.
+     *
+     * @param id The crust ID.
+     * @return The crust.
+     */
+    public static Crust crust(int id) {
+        return CRUSTS[id];
+    }
+
+    /**
+     * Returns the size with the given ID.
+     *
+     * @param id The size ID.
+     * @return The size.
+     */
+    public static Size size(int id) {
+        return SIZES[id];
+    }
+
+    /**
+     * Returns the pizza type with the given ID.
+     *
+     * @param id The pizza type ID.
+     * @return The pizza type.
+     */
+    public static PizzaType type(int id) {
+        return TYPES[id];
+    }
+
+    /**
+     * Looks up the ID of a topping by name.
+     *
+     * @param name The topping's display name or constant name.
+     * @return The topping ID, or -1 if no topping has that name.
+     */
+    public static int findTopping(CharSequence name) {
+        return TOPPING_NAMES.find(name);
+    }
+
+    /**
+     * Looks up the ID of a crust by name.
+     *
+     * @param name The crust's display name or constant name.
+     * @return The crust ID, or -1 if no crust has that name.
+     */
+    public static int findCrust(CharSequence name) {
+        return CRUST_NAMES.find(name);
+    }
+
+    /**
+     * Looks up the ID of a size by name.
+     *
+     * @param name The size's display name or constant name.
+     * @return The size ID, or -1 if no size has that name.
+     */
+    public static int findSize(CharSequence name) {
+        return SIZE_NAMES.find(name);
+    }
+
+    /**
+     * Looks up the ID of a pizza type by name.
+     *
+     * @param name The pizza type's display name or constant name.
+     * @return The pizza type ID, or -1 if no pizza type has that name.
+     */
+    public static int findType(CharSequence name) {
+        return TYPE_NAMES.find(name);
+    }
+
+    /**
+     * Returns the display names of items by ID, for filling spinners and lists.
+     *
+     * @param items The items, such as Size.values().
+     * @param ids The IDs of the items to list, in display order.
+     * @return The display names, in the order of the IDs.
+     */
+    public static String[] names(Enum<?>[] items, int... ids) {
+        String[] names = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = items[ids[i]].toString();
+        }
+        return names;
+    }
+
+    /**
+     * Perfect hash tables from names to IDs for one kind of item. The exact table holds the
+     * display and constant names as written and is probed with the string's cached hash code,
+     * which is how the app's own strings are found. Anything else is normalized and looked up
+     * in the second table. The table sizes and hash seeds are searched for when the tables are
+     * built so that every name lands in its own slot.
+     */
+    private static final class NameTable {
+        private static final int MAX_SEEDS_PER_SIZE = 1024;
+
+        /**
+         * The normalized form of each ASCII character: lower case for letters and digits,
+         * and 0 for characters that names ignore.
+         */
+        private static final char[] ASCII_KEYS = new char[128];
+
+        static {
+            for (char c = 0; c < ASCII_KEYS.length; c++) {
+                ASCII_KEYS[c] = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+            }
+        }
+
+        private final String[] exactKeys;
+        private final int[] exactIds;
+        private final int exactSeed;
+        private final String[] keys;
+        private final int[] ids;
+        private final int seed;
+
+        /**
+         * Builds the tables for the display names and constant names of a set of enum items.
+         */
+        NameTable(Enum<?>[] items) {
+            String[] names = new String[items.length * 2];
+            String[] normalized = new String[names.length];
+            int[] nameIds = new int[names.length];
+            for (Enum<?> item : items) {
+                names[item.ordinal() * 2] = item.toString();
+                names[item.ordinal() * 2 + 1] = item.name();
+                nameIds[item.ordinal() * 2] = item.ordinal();
+                nameIds[item.ordinal() * 2 + 1] = item.ordinal();
+            }
+            for (int i = 0; i < names.length; i++) {
+                normalized[i] = normalize(names[i]);
+                for (int j = 0; j < i; j++) {
+                    if (normalized[j].equals(normalized[i]) && nameIds[j] != nameIds[i]) {
+                        throw new IllegalStateException("Menu name " + names[i] + " is used twice");
+                    }
+                }
+            }
+
+            exactKeys = tableSize(names.length);
+            exactIds = new int[exactKeys.length];
+            exactSeed = fill(exactKeys, exactIds, names, nameIds, true);
+            keys = tableSize(names.length);
+            ids = new int[keys.length];
+            seed = fill(keys, ids, normalized, nameIds, false);
+        }
+
+        /**
+         * Returns the ID stored for a name, or -1 if it is not in the tables.
+         */
+        int find(CharSequence name) {
+            if (name == null) {
+                return -1;
+            }
+            if (name instanceof String) {
+                int slot = slot(exactHash((String) name, exactSeed), exactKeys.length);
+                if (name.equals(exactKeys[slot])) {
+                    return exactIds[slot];
+                }
+            }
+            int slot = slot(normalizedHash(name, seed), keys.length);
+            String key = keys[slot];
+            return key != null && matches(name, key) ? ids[slot] : -1;
+        }
+
+        private static String[] tableSize(int count) {
+            return new String[Integer.highestOneBit(Math.max(1, count * 2 - 1)) << 1];
+        }
+
+        /**
+         * Searches for a seed that puts every name in its own slot, growing the table if
+         * needed, and fills the table with that seed. Equal names share a slot.
+         *
+         * @return The seed.
+         */
+        private static int fill(String[] table, int[] tableIds, String[] names, int[] nameIds,
+                                boolean exact) {
+            String[] slots = table;
+            int[] slotIds = tableIds;
+            int candidate = 0;
+            while (true) {
+                Arrays.fill(slots, null);
+                boolean collision = false;
+                for (int i = 0; i < names.length && !collision; i++) {
+                    int hash = exact ? exactHash(names[i], candidate)
+                            : normalizedHash(names[i], candidate);
+                    int slot = slot(hash, slots.length);
+                    collision = slots[slot] != null && !slots[slot].equals(names[i]);
+                    slots[slot] = names[i];
+                    slotIds[slot] = nameIds[i];
+                }
+                if (!collision) {
+                    break;
+                }
+                if (++candidate == MAX_SEEDS_PER_SIZE) {
+                    throw new IllegalStateException("No perfect hash found for menu names");
+                }
+            }
+            return candidate;
+        }
+
+        private static int slot(int hash, int tableSize) {
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            return (hash ^ hash >>> 13) & (tableSize - 1);
+        }
+
+        /**
+         * Hashes a name as written, reusing the hash code the string caches.
+         */
+        private static int exactHash(String name, int seed) {
+            return name.hashCode() + seed * 0x9E3779B9;
+        }
+
+        /**
+         * Hashes the letters and digits of a name, lower-cased, without building a new string.
+         */
+        private static int normalizedHash(CharSequence name, int seed) {
+            int h = seed * 0x9E3779B9;
+            for (int i = 0; i < name.length(); i++) {
+                char c = key(name.charAt(i));
+                if (c != 0) {
+                    h = h * 31 + c;
+                }
+            }
+            return h;
+        }
+
+        /**
+         * Returns whether a name normalizes to the given key, without building a new string.
+         */
+        private static boolean matches(CharSequence name, String key) {
+            int k = 0;
+            for (int i = 0; i < name.length(); i++) {
+                char c = key(name.charAt(i));
+                if (c != 0) {
+                    if (k == key.length() || c != key.charAt(k)) {
+                        return false;
+                    }
+                    k++;
+                }
+            }
+            return k == key.length();
+        }
+
+        private static String normalize(String name) {
+            StringBuilder key = new StringBuilder(name.length());
+            for (int i = 0; i < name.length(); i++) {
+                char c = key(name.charAt(i));
+                if (c != 0) {
+                    key.append(c);
+                }
+            }
+            return key.toString();
+        }
+
+        /**
+         * Returns the normalized form of a character, or 0 if names ignore it.
+         */
+        private static char key(char c) {
+            if (c < ASCII_KEYS.length) {
+                return ASCII_KEYS[c];
+            }
+            return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+        }
+    }
+}
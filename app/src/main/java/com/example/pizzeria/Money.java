@@ -0,0 +1,125 @@
+package com.example.pizzeria;
+
+/**
+ * Utility class for working with money amounts stored as a whole number of cents in a long.
+ * All arithmetic stays in primitive integers so totals never pick up floating-point drift,
+ * and amounts are only turned into text when they are displayed or saved.
+ *
+ * @author Jorgeluis Done
+ */
+public final class Money {
+    /**
+     * The number of cents in a dollar.
+     */
+    public static final long CENTS_PER_DOLLAR = 100;
+
+    /**
+     * The denominator used for rates, which are expressed in parts per million.
+     */
+    public static final long RATE_SCALE = 1_000_000;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private Money() {
+    }
+
+    /**
+     * Creates an amount in cents from a whole dollar and cent part.
+     *
+     * @param dollars The whole dollars.
+     * @param cents The remaining cents, between 0 and 99.
+     * @return The amount in cents.
+     */
+    public static long of(long dollars, int cents) {
+        return Math.addExact(Math.multiplyExact(dollars, CENTS_PER_DOLLAR), cents);
+    }
+
+    /**
+     * Adds two amounts in cents.
+     *
+     * @param a The first amount in cents.
+     * @param b The second amount in cents.
+     * @return The sum in cents.
+     * @throws ArithmeticException if the sum overflows a long.
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Subtracts one amount in cents from another.
+     *
+     * @param a The amount in cents to subtract from.
+     * @param b The amount in cents to subtract.
+     * @return The difference in cents.
+     * @throws ArithmeticException if the difference overflows a long.
+     */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Multiplies an amount in cents by a quantity.
+     *
+     * @param cents The unit amount in cents.
+     * @param quantity The quantity.
+     * @return The total in cents.
+     * @throws ArithmeticException if the product overflows a long.
+     */
+    public static long times(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Applies a rate to an amount, rounding half away from zero to the nearest cent.
+     *
+     * @param cents The amount in cents.
+     * @param ratePerMillion The rate in parts per million (6.625% is 66250).
+     * @return The rate applied to the amount, in cents.
+     */
+    public static long applyRate(long cents, long ratePerMillion) {
+        long scaled = Math.multiplyExact(cents, ratePerMillion);
+        long half = RATE_SCALE / 2;
+        return scaled >= 0 ? (scaled + half) / RATE_SCALE : -((-scaled + half) / RATE_SCALE);
+    }
+
+    /**
+     * Converts an amount in cents to dollars. Only meant for interoperating with APIs that
+     * need a double, never for further arithmetic.
+     *
+     * @param cents The amount in cents.
+     * @return The amount in dollars.
+     */
+    public static double toDollars(long cents) {
+        return cents / (double) CENTS_PER_DOLLAR;
+    }
+
+    /**
+     * Appends an amount to a builder with two decimal places, such as "12.34" or "-0.05",
+     * without allocating intermediate strings.
+     *
+     * @param builder The builder to append to.
+     * @param cents The amount in cents.
+     * @return The same builder, for chaining.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long cents) {
+        long dollars = cents / CENTS_PER_DOLLAR;
+        long fraction = Math.abs(cents % CENTS_PER_DOLLAR);
+        if (cents < 0 && dollars == 0) {
+            builder.append('-'); // append(long) only writes the sign for non-zero dollars
+        }
+        return builder.append(dollars).append('.')
+                .append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Formats an amount with two decimal places, such as "12.34".
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.pizzeria;
 
+import java.util.Arrays;
+
 /**
  * A factory class that produces different types of New York-style pizzas.
  * Each pizza created by this factory uses a specified default size and
- * specific crusts depending on the pizza type.
+ * specific crusts depending on the pizza type, looked up by the pizza type's id.
  * @author Jorgeluis Done
  */
 public class NYPizza implements PizzaFactory {
 
+    /**
+     * The crust of each pizza type in this style, indexed by pizza type id. Types without a
+     * crust of their own use the Build Your Own crust.
+     */
+    private static final Crust[] CRUSTS = new Crust[MenuCatalog.typeCount()];
+
+    static {
+        Arrays.fill(CRUSTS, Crust.HAND_TOSSED);
+        CRUSTS[PizzaType.DELUXE.ordinal()] = Crust.BROOKLYN;
+        CRUSTS[PizzaType.MEATZZA.ordinal()] = Crust.HAND_TOSSED;
+        CRUSTS[PizzaType.BBQ_CHICKEN.ordinal()] = Crust.THIN;
+    }
+
     /**
      * The default size for pizzas created by this factory.
      */
-    private Size defaultSize;
+    private final Size defaultSize;
 
     /**
      * Constructs a NYPizza factory with a specified default size for pizzas.
@@ -22,34 +37,45 @@ public class NYPizza implements PizzaFactory {
         this.defaultSize = size;
     }
 
+    /**
+     * Returns the crust this style uses for a pizza type.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @return The crust type.
+     */
+    @Override
+    public Crust getCrust(int typeId) {
+        return CRUSTS[typeId];
+    }
+
     /**
      * Creates a Deluxe pizza with a Brooklyn crust.
      *
-     * @return A new instance of a Deluxe pizza with New York-style crust and default size.
+     * @return The shared Deluxe pizza with New York-style crust and default size.
      */
     @Override
     public Pizza createDeluxe() {
-        return new Deluxe(Crust.BROOKLYN, defaultSize);
+        return create(PizzaType.DELUXE.ordinal(), defaultSize);
     }
 
     /**
      * Creates a Meatzza pizza with a hand-tossed crust.
      *
-     * @return A new instance of a Meatzza pizza with New York-style crust and default size.
+     * @return The shared Meatzza pizza with New York-style crust and default size.
      */
     @Override
     public Pizza createMeatzza() {
-        return new Meatzza(Crust.HAND_TOSSED, defaultSize);
+        return create(PizzaType.MEATZZA.ordinal(), defaultSize);
     }
 
     /**
      * Creates a BBQ Chicken pizza with a thin crust.
      *
-     * @return A new instance of a BBQ Chicken pizza with New York-style crust and default size.
+     * @return The shared BBQ Chicken pizza with New York-style crust and default size.
      */
     @Override
     public Pizza createBBQChicken() {
-        return new BBQChicken(Crust.THIN, defaultSize);
+        return create(PizzaType.BBQ_CHICKEN.ordinal(), defaultSize);
     }
 
     /**
@@ -59,6 +85,6 @@ public class NYPizza implements PizzaFactory {
      */
     @Override
     public Pizza createBuildYourOwn() {
-        return new BuildYourOwn(Crust.HAND_TOSSED, defaultSize);
+        return create(PizzaType.BUILD_YOUR_OWN.ordinal(), defaultSize);
     }
 }
@@ -1,11 +1,16 @@
 package com.example.pizzeria;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Tracks all instances of Pizza and generates a serial number for the order where a unique integer
  * is assigned as their identifier.
+ *
+ * Pizzas are kept as order lines holding a pizza's PizzaCode and its quantity. Adding a pizza
+ * that is equal to one already in the order raises that line's quantity instead of adding a
+ * line, so adding any number of units costs the same, and no pizza objects are kept.
  * @author Jorgeluis Done
  */
 public class Order {
@@ -15,12 +20,24 @@ public class Order {
     private int orderNumber;
 
     /**
-     * The list of pizzas included in this order.
+     * The lines of this order, one per distinct pizza, in the order they were first added.
+     * Every change goes through addPizza and removePizza to keep the running subtotal in sync.
      */
-    private List<Pizza> pizzas;
+    private final OrderLines lines = new OrderLines();
 
     /**
-     * Constructs an Order with a specified order number and list of pizzas.
+     * The total number of pizzas in the order, counting every unit of every line.
+     */
+    private int pizzaCount;
+
+    /**
+     * The running subtotal of the order in cents, updated as pizzas are added and removed.
+     */
+    private long subtotal;
+
+    /**
+     * Constructs an Order with a specified order number and list of pizzas, one unit each.
+     * Equal pizzas in the list are merged into one line.
      *
      * @param orderNumber The unique order number.
      * @param pizzas      The list of pizzas in the order.
@@ -30,25 +47,88 @@ public class Order {
      */
     public Order(int orderNumber, List<Pizza> pizzas) {
         this.orderNumber = orderNumber;
-        this.pizzas = new ArrayList<>(pizzas); // Initialize with the provided pizzas or an empty list
+        for (Pizza pizza : pizzas) {
+            addPizza(pizza, 1);
+        }
+    }
+
+    /**
+     * Returns a copy of the order with the same number and lines. Later changes to either
+     * order do not affect the other.
+     *
+     * @return The copy of the order.
+     */
+    public Order copy() {
+        Order copy = new Order(orderNumber, Collections.emptyList());
+        for (int i = 0; i < lines.size(); i++) {
+            copy.addPizzaCode(lines.code(i), lines.quantity(i));
+        }
+        return copy;
     }
 
     /**
-     * Adds a pizza to the order.
+     * Adds one unit of a pizza to the order and adds its price to the running subtotal.
      *
      * @param pizza The pizza to add.
      */
     public void addPizza(Pizza pizza) {
-        pizzas.add(pizza);
+        addPizza(pizza, 1);
     }
 
     /**
-     * Removes a pizza from the order.
+     * Adds units of a pizza to the order and adds their price to the running subtotal. The
+     * order keeps the pizza's code rather than the pizza, so later changes to it do not affect
+     * the order.
+     *
+     * @param pizza The pizza to add.
+     * @param quantity The number of units to add, at least one.
+     */
+    public void addPizza(Pizza pizza, int quantity) {
+        addPizzaCode(pizza.getCode(), quantity);
+    }
+
+    /**
+     * Adds units of the pizza described by a PizzaCode to the order and adds their price to
+     * the running subtotal.
+     *
+     * @param code The PizzaCode of the pizza to add.
+     * @param quantity The number of units to add, at least one.
+     * @throws IllegalArgumentException if the code is not valid or the quantity is not positive.
+     */
+    public void addPizzaCode(long code, int quantity) {
+        if (!PizzaCode.isValid(code)) {
+            throw new IllegalArgumentException("Not a valid pizza code: 0x" + Long.toHexString(code));
+        }
+        int newCount = Math.addExact(pizzaCount, quantity);
+        long newSubtotal = Money.add(subtotal, Money.times(PizzaCode.price(code), quantity));
+        lines.add(code, quantity);
+        pizzaCount = newCount;
+        subtotal = newSubtotal;
+    }
+
+    /**
+     * Removes one unit of a pizza from the order and subtracts its price from the running
+     * subtotal.
      *
      * @param pizza The pizza to remove.
      */
     public void removePizza(Pizza pizza) {
-        pizzas.remove(pizza);
+        removePizza(pizza, 1);
+    }
+
+    /**
+     * Removes units of a pizza from the order and subtracts their price from the running
+     * subtotal. The pizza's line is removed once none of it is left.
+     *
+     * @param pizza The pizza to remove.
+     * @param quantity The number of units to remove. Removing more units than the order has
+     *                 removes the whole line.
+     */
+    public void removePizza(Pizza pizza, int quantity) {
+        long code = pizza.getCode();
+        int removed = lines.remove(code, quantity);
+        pizzaCount -= removed;
+        subtotal = Money.subtract(subtotal, Money.times(PizzaCode.price(code), removed));
     }
 
     /**
@@ -61,12 +141,89 @@ public class Order {
     }
 
     /**
-     * Retrieves the list of pizzas in the order.
+     * Retrieves the lines of the order, one per distinct pizza. The OrderLine objects are
+     * created as they are read, so callers that only need the codes and quantities should use
+     * getLineCode and getLineQuantity instead.
      *
-     * @return The list of pizzas.
+     * @return A read-only view of the list of lines.
      */
-    public List<Pizza> getPizzas() {
-        return pizzas;
+    public List<OrderLine> getLines() {
+        return new AbstractList<OrderLine>() {
+            @Override
+            public OrderLine get(int index) {
+                return new OrderLine(PizzaCode.toPizza(lines.code(index)), lines.quantity(index));
+            }
+
+            @Override
+            public int size() {
+                return lines.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of lines in the order, one per distinct pizza.
+     *
+     * @return The number of lines.
+     */
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * Returns the PizzaCode of a line.
+     *
+     * @param index The position of the line.
+     * @return The code of the line's pizza.
+     */
+    public long getLineCode(int index) {
+        return lines.code(index);
+    }
+
+    /**
+     * Returns the quantity of a line.
+     *
+     * @param index The position of the line.
+     * @return The number of units on the line.
+     */
+    public int getLineQuantity(int index) {
+        return lines.quantity(index);
+    }
+
+    /**
+     * Returns the total number of pizzas in the order, counting every unit of every line.
+     *
+     * @return The number of pizzas.
+     */
+    public int getPizzaCount() {
+        return pizzaCount;
+    }
+
+    /**
+     * Gets the subtotal of the order, kept up to date as pizzas are added and removed.
+     *
+     * @return The subtotal in cents.
+     */
+    public long getSubtotal() {
+        return subtotal;
+    }
+
+    /**
+     * Gets the sales tax owed on the current subtotal.
+     *
+     * @return The sales tax in cents.
+     */
+    public long getSalesTax() {
+        return OrderManager.calculateSalesTax(subtotal);
+    }
+
+    /**
+     * Gets the total amount of the order including sales tax.
+     *
+     * @return The total amount in cents.
+     */
+    public long getTotalAmount() {
+        return OrderManager.calculateTotalAmount(subtotal, getSalesTax());
     }
 
     /**
@@ -77,18 +234,19 @@ public class Order {
 
     /**
      * Returns a string representation of the current order, including the order number and details
-     * of each pizza in the order.
+     * of each line in the order.
      *
-     * @return a formatted string with the order number and each pizza's details listed line by line.
+     * @return a formatted string with the order number and each line's details listed line by line.
      */
     @Override
     public String toString() {
-        String currOrderString = "";
-        currOrderString += "Order number: " + orderNumber + "\n";
-        for (Pizza pizza : pizzas) {
-            currOrderString += pizza.toString() + "\n";
+        StringBuilder currOrderString = new StringBuilder(32 + lines.size() * 80);
+        currOrderString.append("Order number: ").append(orderNumber).append('\n');
+        for (int i = 0; i < lines.size(); i++) {
+            currOrderString.append(PizzaLabels.line(lines.code(i), lines.quantity(i)))
+                    .append('\n');
         }
 
-        return currOrderString;
+        return currOrderString.toString();
     }
 }
@@ -0,0 +1,62 @@
+package com.example.pizzeria;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The orders placed and cancelled since the changes were last taken from an OrderManager,
+ * which is what an incremental save needs to write. Orders that were placed and cancelled
+ * within the same set of changes are left out of both.
+ * @author Jorgeluis Done
+ */
+public final class OrderChanges {
+    private final List<Order> placedOrders;
+    private final int[] cancelledOrderNumbers;
+
+    /**
+     * Constructs a set of changes.
+     *
+     * @param placedOrders The orders placed, in placement order.
+     * @param cancelledOrderNumbers The numbers of the orders cancelled, in cancellation order.
+     */
+    public OrderChanges(List<Order> placedOrders, int[] cancelledOrderNumbers) {
+        this.placedOrders = Collections.unmodifiableList(placedOrders);
+        this.cancelledOrderNumbers = cancelledOrderNumbers;
+    }
+
+    /**
+     * Returns the orders placed.
+     *
+     * @return A read-only list of the orders, in placement order.
+     */
+    public List<Order> getPlacedOrders() {
+        return placedOrders;
+    }
+
+    /**
+     * Returns the numbers of the orders cancelled.
+     *
+     * @return The array of order numbers, in cancellation order.
+     */
+    public int[] getCancelledOrderNumbers() {
+        return cancelledOrderNumbers;
+    }
+
+    /**
+     * Returns the number of orders placed or cancelled.
+     *
+     * @return The number of changes.
+     */
+    public int size() {
+        return placedOrders.size() + cancelledOrderNumbers.length;
+    }
+
+    /**
+     * Returns whether there are no changes.
+     *
+     * @return True if nothing was placed or cancelled, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.pizzeria;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, versioned binary encoding of orders used by the journal and the order archives.
+ *
+ * A record is laid out as:
+ * <pre>
+ *   version      1 byte
+ *   body length  varint
+ *   body         order number (varint), subtotal in cents (varint), line count (varint),
+ *                then per line one byte holding type, crust and size, a varint bitmask
+ *                of its toppings and the quantity (varint)
+ *   checksum     4 byte CRC32 of the body
+ * </pre>
+ * Varints store 7 bits per byte with the high bit set on every byte but the last, so small
+ * order numbers and amounts take one or two bytes.
+ * @author Jorgeluis Done
+ */
+public final class OrderCodec {
+    /**
+     * The version written at the start of every record.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final int CRC_BYTES = 4;
+    private static final int TYPE_SHIFT = 5;
+    private static final int CRUST_SHIFT = 2;
+    private static final int CRUST_MASK = 0x7;
+    private static final int SIZE_MASK = 0x3;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private OrderCodec() {
+    }
+
+    /**
+     * Encodes an order into a new byte array.
+     *
+     * @param order The order to encode.
+     * @return The encoded record.
+     */
+    public static byte[] encode(Order order) {
+        ByteBuffer buffer = ByteBuffer.allocate(maxEncodedSize(order));
+        encode(order, buffer);
+        byte[] record = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, record, 0, record.length);
+        return record;
+    }
+
+    /**
+     * Encodes an order at the buffer's position and advances the position past the record.
+     *
+     * @param order The order to encode.
+     * @param buffer The buffer to write to, with at least maxEncodedSize(order) bytes remaining.
+     */
+    public static void encode(Order order, ByteBuffer buffer) {
+        int lineCount = order.getLineCount();
+        int bodyLength = varintSize(order.getOrderNumber()) + varintSize(order.getSubtotal())
+                + varintSize(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            bodyLength += 1 + varintSize(PizzaCode.toppingMask(order.getLineCode(i)))
+                    + varintSize(order.getLineQuantity(i));
+        }
+
+        buffer.put((byte) VERSION);
+        putVarint(buffer, bodyLength);
+        int bodyStart = buffer.position();
+        putVarint(buffer, order.getOrderNumber());
+        putVarint(buffer, order.getSubtotal());
+        putVarint(buffer, lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            long code = order.getLineCode(i);
+            buffer.put((byte) (PizzaCode.type(code).ordinal() << TYPE_SHIFT
+                    | PizzaCode.crust(code).ordinal() << CRUST_SHIFT
+                    | PizzaCode.size(code).ordinal()));
+            putVarint(buffer, PizzaCode.toppingMask(code));
+            putVarint(buffer, order.getLineQuantity(i));
+        }
+        buffer.putInt(crc(buffer, bodyStart, bodyLength));
+    }
+
+    /**
+     * Decodes the record at the buffer's position and advances the position past it.
+     *
+     * @param buffer The buffer to read from.
+     * @return The decoded order.
+     * @throws EOFException if the buffer ends in the middle of the record.
+     * @throws StreamCorruptedException if the record has an unknown version, a bad checksum,
+     *                                  or values outside the menu.
+     */
+    public static Order decode(ByteBuffer buffer) throws IOException {
+        try {
+            readVersion(buffer);
+            int bodyLength = (int) getVarint(buffer);
+            int bodyStart = buffer.position();
+            if (bodyLength < 0 || bodyLength > buffer.remaining() - CRC_BYTES) {
+                throw new EOFException("Order record truncated");
+            }
+            if (crc(buffer, bodyStart, bodyLength) != buffer.getInt(bodyStart + bodyLength)) {
+                throw new StreamCorruptedException("Order record checksum mismatch");
+            }
+
+            int orderNumber = (int) getVarint(buffer);
+            getVarint(buffer); // subtotal at the time the order was placed
+            int lineCount = (int) getVarint(buffer);
+            Order order = new Order(orderNumber, Collections.emptyList());
+            for (int i = 0; i < lineCount; i++) {
+                int header = buffer.get() & 0xFF;
+                int mask = (int) getVarint(buffer);
+                long quantity = getVarint(buffer);
+                if (quantity < 1 || quantity > Integer.MAX_VALUE) {
+                    throw new StreamCorruptedException("Bad quantity in order record: " + quantity);
+                }
+                order.addPizzaCode(pizzaCode(header >>> TYPE_SHIFT, header >>> CRUST_SHIFT & CRUST_MASK,
+                        header & SIZE_MASK, mask), (int) quantity);
+            }
+            if (buffer.position() != bodyStart + bodyLength) {
+                throw new StreamCorruptedException("Order record length mismatch");
+            }
+            buffer.position(bodyStart + bodyLength + CRC_BYTES);
+            return order;
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Order record truncated");
+        }
+    }
+
+    /**
+     * Reads the order number of the record at the buffer's position without decoding the
+     * rest of it or moving the position.
+     *
+     * @param buffer The buffer to read from.
+     * @return The order number stored in the record.
+     * @throws IOException if the record is truncated or has an unknown version.
+     */
+    public static int peekOrderNumber(ByteBuffer buffer) throws IOException {
+        ByteBuffer record = buffer.duplicate();
+        try {
+            readVersion(record);
+            getVarint(record);
+            return (int) getVarint(record);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Order record truncated");
+        }
+    }
+
+    /**
+     * Moves the buffer's position past the record at its position without decoding it.
+     *
+     * @param buffer The buffer to read from.
+     * @throws IOException if the record is truncated or has an unknown version.
+     */
+    public static void skip(ByteBuffer buffer) throws IOException {
+        try {
+            readVersion(buffer);
+            int bodyLength = (int) getVarint(buffer);
+            if (bodyLength < 0 || bodyLength > buffer.remaining() - CRC_BYTES) {
+                throw new EOFException("Order record truncated");
+            }
+            buffer.position(buffer.position() + bodyLength + CRC_BYTES);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Order record truncated");
+        }
+    }
+
+    /**
+     * Returns an upper bound on the encoded size of an order.
+     *
+     * @param order The order to be encoded.
+     * @return The maximum number of bytes the record can take.
+     */
+    public static int maxEncodedSize(Order order) {
+        return 1 + MAX_VARINT_BYTES * 4 + order.getLineCount() * 12 + CRC_BYTES;
+    }
+
+    /**
+     * Reads the version byte of a record and checks that it is the one this codec writes.
+     */
+    private static void readVersion(ByteBuffer buffer) throws StreamCorruptedException {
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported order record version " + version);
+        }
+    }
+
+    /**
+     * Writes a non-negative value as a varint.
+     *
+     * @param buffer The buffer to write to.
+     * @param value The value to write.
+     */
+    public static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a varint.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value read.
+     * @throws StreamCorruptedException if the varint is longer than ten bytes.
+     */
+    public static long getVarint(ByteBuffer buffer) throws StreamCorruptedException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    /**
+     * Returns the number of bytes a non-negative value takes as a varint.
+     *
+     * @param value The value.
+     * @return The encoded size in bytes.
+     */
+    public static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Computes the CRC32 of a region of the buffer without moving its position.
+     */
+    private static int crc(ByteBuffer buffer, int start, int length) {
+        CRC32 crc = new CRC32();
+        if (buffer.hasArray()) {
+            crc.update(buffer.array(), buffer.arrayOffset() + start, length);
+        } else {
+            // CRC32.update(ByteBuffer) needs API 26, so copy direct and mapped buffers out first
+            byte[] copy = new byte[length];
+            ByteBuffer region = buffer.duplicate();
+            region.position(start);
+            region.get(copy);
+            crc.update(copy, 0, length);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Packs the ordinals of a pizza's type, crust and size and its topping bitmask into its
+     * PizzaCode.
+     *
+     * @throws StreamCorruptedException if the values do not describe a pizza on the menu.
+     */
+    static long pizzaCode(int type, int crust, int size, int mask) throws StreamCorruptedException {
+        try {
+            return PizzaCode.of(type, crust, size, mask);
+        } catch (IllegalArgumentException e) {
+            throw new StreamCorruptedException("Unknown pizza in order record: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.pizzeria;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams order history to CSV or JSON Lines with the full detail of every pizza.
+ * Orders are written one at a time through a single reusable line buffer, so memory use
+ * does not grow with the number of orders exported.
+ * @author Jorgeluis Done
+ */
+public final class OrderExporter {
+    /**
+     * The export formats supported.
+     */
+    public enum Format {
+        /**
+         * One row per order line, with the order totals repeated on each row.
+         */
+        CSV,
+
+        /**
+         * One JSON object per order, with its lines nested in an array.
+         */
+        JSON_LINES
+    }
+
+    /**
+     * The header row written at the start of a CSV export.
+     */
+    public static final String CSV_HEADER = "order_number,line_number,type,crust,size,toppings,"
+            + "quantity,unit_price,price,order_subtotal,order_sales_tax,order_total\n";
+
+    /**
+     * Line length above which the buffer is written out early instead of growing further.
+     */
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final Writer out;
+    private final Format format;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Reused copy of the buffered text handed to the writer, grown to the longest line seen.
+     */
+    private char[] chars = new char[256];
+    private long ordersWritten;
+
+    /**
+     * Constructs an exporter writing to the given writer. The writer should be buffered.
+     *
+     * @param out The writer to export to.
+     * @param format The format to export in.
+     * @throws IOException if the CSV header cannot be written.
+     */
+    public OrderExporter(Writer out, Format format) throws IOException {
+        this.out = out;
+        this.format = format;
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+        }
+    }
+
+    /**
+     * Writes every order to the writer.
+     *
+     * @param orders The orders to export.
+     * @return The number of orders written so far.
+     * @throws IOException if the orders cannot be written.
+     */
+    public long writeAll(Iterable<Order> orders) throws IOException {
+        for (Order order : orders) {
+            write(order);
+        }
+        return ordersWritten;
+    }
+
+    /**
+     * Writes one order to the writer.
+     *
+     * @param order The order to export.
+     * @throws IOException if the order cannot be written.
+     */
+    public void write(Order order) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(order);
+        } else {
+            writeJson(order);
+        }
+        drain();
+        ordersWritten++;
+    }
+
+    /**
+     * Returns the number of orders written so far.
+     *
+     * @return The number of orders.
+     */
+    public long getOrdersWritten() {
+        return ordersWritten;
+    }
+
+    private void writeCsv(Order order) throws IOException {
+        for (int i = 0; i < order.getLineCount(); i++) {
+            long code = order.getLineCode(i);
+            int quantity = order.getLineQuantity(i);
+            line.append(order.getOrderNumber()).append(',').append(i + 1).append(',');
+            appendCsv(PizzaCode.type(code).toString()).append(',');
+            appendCsv(PizzaCode.crust(code).toString()).append(',');
+            appendCsv(PizzaCode.size(code).toString()).append(',');
+            int start = line.length();
+            for (Topping topping : PizzaCode.toppings(code)) {
+                line.append(topping).append(';');
+            }
+            if (line.length() > start) {
+                line.setLength(line.length() - 1);
+            }
+            quoteCsv(start);
+            line.append(',').append(quantity).append(',');
+            Money.appendTo(line, PizzaCode.price(code)).append(',');
+            Money.appendTo(line, Money.times(PizzaCode.price(code), quantity)).append(',');
+            Money.appendTo(line, order.getSubtotal()).append(',');
+            Money.appendTo(line, order.getSalesTax()).append(',');
+            Money.appendTo(line, order.getTotalAmount()).append('\n');
+            if (line.length() > FLUSH_THRESHOLD) {
+                drain();
+            }
+        }
+    }
+
+    private void writeJson(Order order) throws IOException {
+        line.append("{\"orderNumber\":").append(order.getOrderNumber()).append(",\"subtotal\":");
+        Money.appendTo(line, order.getSubtotal()).append(",\"salesTax\":");
+        Money.appendTo(line, order.getSalesTax()).append(",\"total\":");
+        Money.appendTo(line, order.getTotalAmount()).append(",\"lines\":[");
+        for (int i = 0; i < order.getLineCount(); i++) {
+            long code = order.getLineCode(i);
+            int quantity = order.getLineQuantity(i);
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append("{\"type\":");
+            appendJson(PizzaCode.type(code).toString()).append(",\"crust\":");
+            appendJson(PizzaCode.crust(code).toString()).append(",\"size\":");
+            appendJson(PizzaCode.size(code).toString()).append(",\"toppings\":[");
+            boolean first = true;
+            for (Topping topping : PizzaCode.toppings(code)) {
+                if (!first) {
+                    line.append(',');
+                }
+                appendJson(topping.toString());
+                first = false;
+            }
+            line.append("],\"quantity\":").append(quantity).append(",\"unitPrice\":");
+            Money.appendTo(line, PizzaCode.price(code)).append(",\"price\":");
+            Money.appendTo(line, Money.times(PizzaCode.price(code), quantity)).append('}');
+            if (line.length() > FLUSH_THRESHOLD) {
+                drain();
+            }
+        }
+        line.append("]}\n");
+    }
+
+    /**
+     * Appends a CSV field, quoting it if it contains a separator, quote, or line break.
+     */
+    private StringBuilder appendCsv(String value) {
+        int start = line.length();
+        line.append(value);
+        quoteCsv(start);
+        return line;
+    }
+
+    /**
+     * Quotes the field that starts at the given position of the line if it needs quoting.
+     */
+    private void quoteCsv(int start) {
+        boolean needsQuotes = false;
+        for (int i = start; i < line.length() && !needsQuotes; i++) {
+            char c = line.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            return;
+        }
+        for (int i = line.length() - 1; i >= start; i--) {
+            if (line.charAt(i) == '"') {
+                line.insert(i, '"');
+            }
+        }
+        line.insert(start, '"').append('"');
+    }
+
+    /**
+     * Appends a JSON string literal with the required characters escaped.
+     */
+    private StringBuilder appendJson(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        return line.append('"');
+    }
+
+    /**
+     * Writes out the buffered text and empties the buffer for reuse.
+     */
+    private void drain() throws IOException {
+        int length = line.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        line.setLength(0);
+    }
+}
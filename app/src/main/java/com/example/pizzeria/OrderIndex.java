@@ -0,0 +1,285 @@
+package com.example.pizzeria;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds placed orders in the order they were placed, together with an open-addressing hash
+ * index keyed by the primitive order number. Looking up and removing an order by number takes
+ * constant time, and iterating returns the orders in placement order.
+ *
+ * Removed orders leave a gap in the ordered array, which is compacted once the gaps outnumber
+ * the remaining orders, so removal stays constant time on average.
+ * @author Jorgeluis Done
+ */
+public final class OrderIndex {
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The order number stored in each hash slot.
+     */
+    private int[] keys;
+
+    /**
+     * The position in the ordered array for each hash slot, or EMPTY if the slot is free.
+     */
+    private int[] positions;
+
+    /**
+     * The orders in placement order, with null gaps where orders were removed.
+     */
+    private Order[] entries;
+
+    /**
+     * The number of used positions in the ordered array, including gaps.
+     */
+    private int count;
+
+    /**
+     * The number of orders currently stored.
+     */
+    private int size;
+
+    /**
+     * Read-only list view of the stored orders.
+     */
+    private final List<Order> view = new OrderListView();
+
+    /**
+     * Constructs an empty index.
+     */
+    public OrderIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty index sized to hold the expected number of orders without resizing.
+     * @param expectedSize The number of orders expected to be stored.
+     */
+    public OrderIndex(int expectedSize) {
+        entries = new Order[Math.max(expectedSize, MIN_CAPACITY)];
+        allocateTable(tableSizeFor(entries.length));
+    }
+
+    /**
+     * Adds an order to the end of the placement order, or replaces the stored order
+     * with the same number in place.
+     * @param order The order to store.
+     */
+    public void put(Order order) {
+        int key = order.getOrderNumber();
+        int slot = findSlot(key);
+        if (positions[slot] != EMPTY) {
+            entries[positions[slot]] = order;
+            return;
+        }
+        if (count == entries.length) {
+            if (count - size > size) {
+                compact();
+            } else {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            slot = findSlot(key);
+        }
+        entries[count] = order;
+        keys[slot] = key;
+        positions[slot] = count++;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Retrieves an order by its order number.
+     * @param orderNumber The order number to look up.
+     * @return The order with the specified number, or null if not found.
+     */
+    public Order get(int orderNumber) {
+        int position = positions[findSlot(orderNumber)];
+        return position == EMPTY ? null : entries[position];
+    }
+
+    /**
+     * Returns whether an order with the given number is stored.
+     * @param orderNumber The order number to look up.
+     * @return True if the order is stored, false otherwise.
+     */
+    public boolean contains(int orderNumber) {
+        return positions[findSlot(orderNumber)] != EMPTY;
+    }
+
+    /**
+     * Removes an order by its order number.
+     * @param orderNumber The order number of the order to remove.
+     * @return The removed order, or null if no order had that number.
+     */
+    public Order remove(int orderNumber) {
+        int slot = findSlot(orderNumber);
+        int position = positions[slot];
+        if (position == EMPTY) {
+            return null;
+        }
+        Order removed = entries[position];
+        entries[position] = null;
+        deleteSlot(slot);
+        size--;
+        if (count - size > size && count > MIN_CAPACITY) {
+            compact();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of orders stored.
+     * @return The number of orders.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a read-only list view of the stored orders in placement order.
+     * The view reflects later changes to the index.
+     * @return The list of stored orders.
+     */
+    public List<Order> values() {
+        return view;
+    }
+
+    /**
+     * Returns the order numbers of the stored orders in placement order.
+     * @return The array of order numbers.
+     */
+    public int[] orderNumbers() {
+        int[] numbers = new int[size];
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (entries[i] != null) {
+                numbers[next++] = entries[i].getOrderNumber();
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Removes every order from the index.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0, count, null);
+        Arrays.fill(positions, EMPTY);
+        count = 0;
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (positions[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Frees a slot using backward-shift deletion, moving later entries of the same probe run
+     * back so lookups never need tombstones in the hash table.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (positions[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry back if its home slot is not between the hole and its current slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                positions[hole] = positions[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        positions[hole] = EMPTY;
+    }
+
+    /**
+     * Closes the gaps left by removed orders and rebuilds the hash table.
+     */
+    private void compact() {
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (entries[i] != null) {
+                entries[next++] = entries[i];
+            }
+        }
+        Arrays.fill(entries, next, count, null);
+        count = next;
+        rehash(keys.length);
+    }
+
+    /**
+     * Rebuilds the hash table with the given number of slots from the ordered array.
+     */
+    private void rehash(int tableSize) {
+        allocateTable(tableSize);
+        int mask = tableSize - 1;
+        for (int i = 0; i < count; i++) {
+            if (entries[i] != null) {
+                int key = entries[i].getOrderNumber();
+                int slot = hash(key) & mask;
+                while (positions[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                positions[slot] = i;
+            }
+        }
+    }
+
+    private void allocateTable(int tableSize) {
+        keys = new int[tableSize];
+        positions = new int[tableSize];
+        Arrays.fill(positions, EMPTY);
+    }
+
+    /**
+     * Returns the smallest power of two table size that keeps the load factor at or below half.
+     */
+    private static int tableSizeFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(expectedSize, MIN_CAPACITY) - 1) << 2;
+    }
+
+    /**
+     * Spreads sequential order numbers across the table.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Read-only list view over the ordered array. Gaps are compacted before positional access.
+     */
+    private final class OrderListView extends AbstractList<Order> {
+        @Override
+        public Order get(int index) {
+            if (count != size) {
+                compact();
+            }
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return entries[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
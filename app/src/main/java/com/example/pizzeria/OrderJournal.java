@@ -0,0 +1,358 @@
+package com.example.pizzeria;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal recording every order placed and cancelled, so orders are not lost
+ * between full saves. Records are handed to a single writer thread which batches them with
+ * group commit: every record that arrives while a batch is open is written and synced to disk
+ * together, so a burst of orders costs one sync instead of one per order.
+ *
+ * Each record is framed as its payload length followed by the payload, whose first byte is
+ * the record type. Placed orders are stored in the OrderCodec binary format.
+ * @author Jorgeluis Done
+ */
+public final class OrderJournal implements Closeable {
+    /**
+     * Record type for an order that was placed.
+     */
+    public static final byte RECORD_PLACED = 1;
+
+    /**
+     * Record type for an order that was cancelled.
+     */
+    public static final byte RECORD_CANCELLED = 2;
+
+    /**
+     * Marker queued by close to stop the writer thread. It carries no record and is taken
+     * out of its batch before the batch is written, so it is never counted.
+     */
+    private static final PendingRecord STOP = new PendingRecord(null, null);
+
+    /**
+     * The file being appended to. Only replaced by the writer thread.
+     */
+    private FileChannel channel;
+    private final long maxCommitDelayNanos;
+    private final LinkedBlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final AtomicLong recordCount = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal that appends to the given file, creating it if needed.
+     *
+     * @param file The journal file.
+     * @param maxCommitDelayMillis How long the writer may wait for more records before
+     *                             syncing a batch. Zero syncs as soon as the queue is drained.
+     * @throws IOException if the file cannot be opened.
+     */
+    public OrderJournal(File file, long maxCommitDelayMillis) throws IOException {
+        this.channel = new FileOutputStream(file, true).getChannel();
+        this.maxCommitDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxCommitDelayMillis);
+        this.writer = new Thread(this::writeLoop, "order-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends a record for a placed order.
+     *
+     * @param order The order that was placed. It must not be modified afterwards.
+     * @return A future completed once the record is durable on disk.
+     */
+    public CompletableFuture<Void> appendPlaced(Order order) {
+        return append(encode(RECORD_PLACED, order.getOrderNumber(), order));
+    }
+
+    /**
+     * Appends a record for a cancelled order.
+     *
+     * @param orderNumber The number of the order that was cancelled.
+     * @return A future completed once the record is durable on disk.
+     */
+    public CompletableFuture<Void> appendCancelled(int orderNumber) {
+        return append(encode(RECORD_CANCELLED, orderNumber, null));
+    }
+
+    /**
+     * Returns a future completed once every record appended so far is durable on disk.
+     *
+     * @return The future for the records appended so far.
+     */
+    public CompletableFuture<Void> sync() {
+        return append(null);
+    }
+
+    /**
+     * Switches the journal to a new file. Records appended before this call are written to
+     * the current file, and records appended after it go to the new file.
+     *
+     * @param file The file to append to from now on.
+     * @return A future completed once the current file is synced and the new one is open.
+     */
+    public CompletableFuture<Void> rotate(File file) {
+        PendingRecord pending = new PendingRecord(null, file);
+        if (closed) {
+            pending.future.completeExceptionally(new IOException("Order journal is closed"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Returns the number of records written to the current file since the journal was opened
+     * or last rotated. Records still waiting for the writer thread are not counted yet.
+     *
+     * @return The number of records.
+     */
+    public long getRecordCount() {
+        return recordCount.get();
+    }
+
+    /**
+     * Reads a journal file from the start and passes every complete record to the visitor.
+     * Reading stops at the first record cut short or damaged by a crash during a write, and
+     * everything from that record on is discarded: the file is truncated after the last good
+     * record. Nothing there was acknowledged as durable, since a batch is only acknowledged
+     * once all of it is synced, and truncating keeps records appended after the crash from
+     * landing behind the damaged bytes where no later replay could reach them.
+     *
+     * @param file The journal file to read.
+     * @param visitor The visitor receiving the records.
+     * @return The number of records read.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int replay(File file, Visitor visitor) throws IOException {
+        try (FileChannel in = new RandomAccessFile(file, "rw").getChannel()) {
+            if (in.size() > Integer.MAX_VALUE) {
+                throw new IOException("Order journal too large to replay: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) in.size());
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+                // keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+            int records = 0;
+            int end = 0; // just past the last good record
+            while (buffer.remaining() >= Integer.BYTES + 1) {
+                int length = buffer.getInt();
+                if (length < 1 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+                buffer.position(buffer.position() + length);
+                try {
+                    byte type = record.get();
+                    if (type == RECORD_PLACED) {
+                        visitor.placed(OrderCodec.decode(record));
+                    } else if (type == RECORD_CANCELLED) {
+                        visitor.cancelled((int) OrderCodec.getVarint(record));
+                    } else {
+                        break;
+                    }
+                } catch (IOException | BufferUnderflowException e) {
+                    break;
+                }
+                records++;
+                end = buffer.position();
+            }
+            if (end < buffer.limit()) {
+                in.truncate(end);
+                in.force(false);
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Writes and syncs the records still queued, then closes the journal file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the order journal");
+        } finally {
+            channel.close();
+        }
+    }
+
+    private CompletableFuture<Void> append(byte[] record) {
+        PendingRecord pending = new PendingRecord(record, null);
+        if (closed) {
+            pending.future.completeExceptionally(new IOException("Order journal is closed"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Frames a record as its length followed by its type and payload. Placed orders carry
+     * their OrderCodec record and cancellations carry the order number as a varint.
+     */
+    private static byte[] encode(byte type, int orderNumber, Order order) {
+        int payloadLength = order != null ? OrderCodec.maxEncodedSize(order)
+                : OrderCodec.varintSize(orderNumber);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 1 + payloadLength);
+        buffer.position(Integer.BYTES); // length is filled in below
+        buffer.put(type);
+        if (order != null) {
+            OrderCodec.encode(order, buffer);
+        } else {
+            OrderCodec.putVarint(buffer, orderNumber);
+        }
+        int length = buffer.position();
+        buffer.putInt(0, length - Integer.BYTES);
+        return length == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), length);
+    }
+
+    /**
+     * Runs on the writer thread: takes the first waiting record, collects every record that
+     * arrives within the commit delay, writes them in one go, and syncs once for the batch.
+     */
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxCommitDelayNanos;
+                queue.drainTo(batch);
+                long remaining;
+                while (!batch.contains(STOP) && (remaining = deadline - System.nanoTime()) > 0) {
+                    PendingRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            running &= !batch.remove(STOP);
+            commit(batch);
+            batch.clear();
+        }
+        // Records that raced with close are failed rather than left pending forever
+        queue.drainTo(batch);
+        for (PendingRecord pending : batch) {
+            pending.future.completeExceptionally(new IOException("Order journal is closed"));
+        }
+    }
+
+    /**
+     * Writes a batch to the journal, switching files at any rotation in the batch.
+     */
+    private void commit(List<PendingRecord> batch) {
+        int start = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRecord rotation = batch.get(i);
+            if (rotation.rotateTo == null) {
+                continue;
+            }
+            writeAndSync(batch.subList(start, i));
+            try {
+                FileChannel next = new FileOutputStream(rotation.rotateTo, true).getChannel();
+                channel.close();
+                channel = next;
+                // Counted here, on the writer thread, so records queued before the rotation
+                // can never be counted against the new file
+                recordCount.set(0);
+                rotation.future.complete(null);
+            } catch (IOException e) {
+                rotation.future.completeExceptionally(e);
+            }
+            start = i + 1;
+        }
+        writeAndSync(batch.subList(start, batch.size()));
+    }
+
+    /**
+     * Writes records to the journal file and syncs it, then completes the records' futures.
+     */
+    private void writeAndSync(List<PendingRecord> batch) {
+        try {
+            int length = 0;
+            int records = 0;
+            for (PendingRecord pending : batch) {
+                if (pending.record != null) {
+                    length += pending.record.length;
+                    records++;
+                }
+            }
+            if (length > 0) {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                for (PendingRecord pending : batch) {
+                    if (pending.record != null) {
+                        buffer.put(pending.record);
+                    }
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                recordCount.addAndGet(records);
+            }
+            for (PendingRecord pending : batch) {
+                pending.future.complete(null);
+            }
+        } catch (IOException e) {
+            for (PendingRecord pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Receives the records read back from a journal file.
+     */
+    public interface Visitor {
+        void placed(Order order);
+        void cancelled(int orderNumber);
+    }
+
+    /**
+     * A record waiting to be written, or a request to switch files, with the future
+     * completed once it is done.
+     */
+    private static final class PendingRecord {
+        final byte[] record;
+        final File rotateTo;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingRecord(byte[] record, File rotateTo) {
+            this.record = record;
+            this.rotateTo = rotateTo;
+        }
+    }
+}
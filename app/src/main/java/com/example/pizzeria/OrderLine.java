@@ -0,0 +1,83 @@
+package com.example.pizzeria;
+
+import androidx.annotation.NonNull;
+
+/**
+ * One line of an order: a pizza and how many of it were ordered. Identical pizzas ordered
+ * more than once share a single line, so an order holds one object per distinct pizza no
+ * matter how many units are ordered.
+ * @author Jorgeluis Done
+ */
+public final class OrderLine {
+    /**
+     * The pizza ordered. It is never changed after the line is created.
+     */
+    private final Pizza pizza;
+
+    /**
+     * The number of units of the pizza ordered.
+     */
+    private final int quantity;
+
+    /**
+     * Constructs an order line. The pizza must not be changed afterwards.
+     *
+     * @param pizza The pizza ordered.
+     * @param quantity The number of units ordered, at least one.
+     */
+    public OrderLine(Pizza pizza, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        this.pizza = pizza;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Returns the pizza ordered.
+     *
+     * @return The pizza.
+     */
+    public Pizza getPizza() {
+        return pizza;
+    }
+
+    /**
+     * Returns the number of units ordered.
+     *
+     * @return The quantity.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the price of one unit of the pizza.
+     *
+     * @return The unit price in cents.
+     */
+    public long getUnitPrice() {
+        return pizza.price();
+    }
+
+    /**
+     * Returns the price of every unit on the line.
+     *
+     * @return The quantity times the unit price, in cents.
+     */
+    public long getPrice() {
+        return Money.times(pizza.price(), quantity);
+    }
+
+    /**
+     * Returns a string representation of the line: the pizza's details followed by the
+     * quantity ordered. The text is shared by every line with the same pizza and quantity.
+     *
+     * @return a formatted string with the pizza's details and quantity.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return PizzaLabels.line(pizza.getCode(), quantity);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pizzeria;
+
+import java.util.Arrays;
+
+/**
+ * The lines of an order held in primitive arrays: the PizzaCode of each distinct pizza and how
+ * many of it were ordered, in the order the lines were first added. No object is created per
+ * line or per pizza, and finding a line compares plain longs.
+ *
+ * Orders hold only a handful of distinct pizzas, so lines are found by a linear search.
+ * Not thread-safe; the owning Order is responsible for that.
+ * @author Jorgeluis Done
+ */
+public final class OrderLines {
+    private static final long[] NO_CODES = new long[0];
+    private static final int[] NO_QUANTITIES = new int[0];
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] codes = NO_CODES;
+    private int[] quantities = NO_QUANTITIES;
+    private int size;
+
+    /**
+     * Adds units of a pizza, raising the quantity of its line if it already has one.
+     *
+     * @param code The PizzaCode of the pizza.
+     * @param quantity The number of units to add, at least one.
+     * @return The position of the pizza's line.
+     * @throws ArithmeticException if the line's quantity would overflow an int.
+     */
+    public int add(long code, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        int index = indexOf(code);
+        if (index >= 0) {
+            quantities[index] = Math.addExact(quantities[index], quantity);
+            return index;
+        }
+        if (size == codes.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            codes = Arrays.copyOf(codes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+        codes[size] = code;
+        quantities[size] = quantity;
+        return size++;
+    }
+
+    /**
+     * Removes units of a pizza, removing its line once none of it is left.
+     *
+     * @param code The PizzaCode of the pizza.
+     * @param quantity The number of units to remove.
+     * @return The number of units actually removed, which is 0 if the pizza has no line.
+     */
+    public int remove(long code, int quantity) {
+        int index = indexOf(code);
+        if (index < 0 || quantity < 1) {
+            return 0;
+        }
+        int removed = Math.min(quantity, quantities[index]);
+        quantities[index] -= removed;
+        if (quantities[index] == 0) {
+            System.arraycopy(codes, index + 1, codes, index, size - index - 1);
+            System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the position of the line holding a pizza.
+     *
+     * @param code The PizzaCode of the pizza.
+     * @return The position of its line, or -1 if it has none.
+     */
+    public int indexOf(long code) {
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return The number of distinct pizzas.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the PizzaCode of a line.
+     *
+     * @param index The position of the line.
+     * @return The code of the line's pizza.
+     */
+    public long code(int index) {
+        checkIndex(index);
+        return codes[index];
+    }
+
+    /**
+     * Returns the quantity of a line.
+     *
+     * @param index The position of the line.
+     * @return The number of units on the line.
+     */
+    public int quantity(int index) {
+        checkIndex(index);
+        return quantities[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Line " + index + " of " + size);
+        }
+    }
+}
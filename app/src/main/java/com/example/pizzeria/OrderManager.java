@@ -1,10 +1,23 @@
 package com.example.pizzeria;
 
 import android.content.Context;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -14,17 +27,143 @@ import java.util.List;
  * @author jorgeluis
  */
 public class OrderManager {
-    private int orderNumber = 1;
-    private Order currentOrder = new Order(orderNumber, new ArrayList<>());
-    private List<Order> allOrders = new ArrayList<>();
-    private static final double SALES_TAX_RATE = 0.06625;
+    /**
+     * The number that will be given to the next order placed. Numbers are only taken when an
+     * order is placed, so placed orders are numbered without gaps even when several threads
+     * place orders at once.
+     */
+    private final AtomicInteger nextOrderNumber = new AtomicInteger(1);
+
+    /**
+     * The session used by the methods that do not take a session ID.
+     */
+    public static final String DEFAULT_SESSION = "default";
+
+    /**
+     * The in-progress order of each terminal or session, keyed by session ID.
+     */
+    private final ConcurrentHashMap<String, Order> sessions = new ConcurrentHashMap<>();
+    private final OrderStore allOrders;
+
+    /**
+     * Lock guarding the archive and the set of cancelled archived orders.
+     */
+    private final Object archiveLock = new Object();
+
+    /**
+     * Lock held while the archive is written, so only one write runs at a time.
+     */
+    private final Object archiveWriteLock = new Object();
+
+    /**
+     * Memory-mapped archive of older orders that are no longer kept on the heap, or null.
+     */
+    private OrderArchive archive;
+
+    /**
+     * Archived orders that were cancelled, indexed by order number minus the archive's first
+     * order number. The archive file itself is read-only.
+     */
+    private final BitSet cancelledArchivedOrders = new BitSet();
+
+    /**
+     * The journal recording placed and cancelled orders, or null if orders are not journaled.
+     */
+    private volatile OrderJournal journal;
+
+    /**
+     * Lock guarding the orders placed and cancelled since the changes were last taken.
+     */
+    private final Object changesLock = new Object();
+
+    /**
+     * The orders placed since the changes were last taken, in placement order.
+     */
+    private OrderIndex placedSinceSave = new OrderIndex();
+
+    /**
+     * The numbers of the orders cancelled since the changes were last taken, other than the
+     * ones also placed since then.
+     */
+    private int[] cancelledSinceSave = new int[16];
+    private int cancelledSinceSaveCount;
+    /**
+     * The sales tax rate of 6.625%, in parts per million.
+     */
+    private static final long SALES_TAX_RATE = 66_250;
+
+    /**
+     * Size of the character buffer used when exporting orders to a file.
+     */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Constructs an OrderManager for a single terminal.
+     */
+    public OrderManager() {
+        this(1);
+    }
+
+    /**
+     * Constructs an OrderManager whose placed orders can be accessed by several terminals
+     * at once. The placed orders are split into lock stripes sized for the given number of
+     * concurrent threads.
+     * @param concurrencyLevel The number of threads expected to place or look up orders at once.
+     */
+    public OrderManager(int concurrencyLevel) {
+        this(new StripedOrderStore(concurrencyLevel));
+    }
+
+    /**
+     * Constructs an OrderManager keeping its placed orders in the given store, such as a
+     * SQLiteOrderStore to keep them in a database instead of in memory.
+     * @param store The store holding the placed orders that are not archived.
+     */
+    public OrderManager(OrderStore store) {
+        allOrders = store;
+    }
 
     /**
      * Adds a pizza to the current order.
      * @param pizza The pizza to be added.
      */
     public void addToCurrentOrder(Pizza pizza) {
-        currentOrder.addPizza(pizza);
+        addToCurrentOrder(DEFAULT_SESSION, pizza);
+    }
+
+    /**
+     * Adds a pizza to the current order of a session, starting a new order if the session
+     * has none.
+     * @param sessionId The ID of the terminal or session.
+     * @param pizza The pizza to be added.
+     */
+    public void addToCurrentOrder(String sessionId, Pizza pizza) {
+        addToCurrentOrder(sessionId, pizza, 1);
+    }
+
+    /**
+     * Adds units of a pizza to the current order. Adding any quantity costs the same as
+     * adding one pizza.
+     * @param pizza The pizza to be added.
+     * @param quantity The number of units to add, at least one.
+     */
+    public void addToCurrentOrder(Pizza pizza, int quantity) {
+        addToCurrentOrder(DEFAULT_SESSION, pizza, quantity);
+    }
+
+    /**
+     * Adds units of a pizza to the current order of a session, starting a new order if the
+     * session has none.
+     * @param sessionId The ID of the terminal or session.
+     * @param pizza The pizza to be added.
+     * @param quantity The number of units to add, at least one.
+     */
+    public void addToCurrentOrder(String sessionId, Pizza pizza, int quantity) {
+        sessions.compute(sessionId, (id, order) -> {
+            Order current = order != null ? order : newSessionOrder();
+            current.addPizza(pizza, quantity);
+            return current;
+        });
     }
 
     /**
@@ -32,26 +171,115 @@ public class OrderManager {
      * @param pizza The pizza to be removed.
      */
     public void removeFromCurrentOrder(Pizza pizza) {
-        currentOrder.removePizza(pizza);
+        removeFromCurrentOrder(DEFAULT_SESSION, pizza);
+    }
+
+    /**
+     * Removes a pizza from the current order of a session.
+     * @param sessionId The ID of the terminal or session.
+     * @param pizza The pizza to be removed.
+     */
+    public void removeFromCurrentOrder(String sessionId, Pizza pizza) {
+        removeFromCurrentOrder(sessionId, pizza, 1);
+    }
+
+    /**
+     * Removes units of a pizza from the current order.
+     * @param pizza The pizza to be removed.
+     * @param quantity The number of units to remove.
+     */
+    public void removeFromCurrentOrder(Pizza pizza, int quantity) {
+        removeFromCurrentOrder(DEFAULT_SESSION, pizza, quantity);
+    }
+
+    /**
+     * Removes units of a pizza from the current order of a session.
+     * @param sessionId The ID of the terminal or session.
+     * @param pizza The pizza to be removed.
+     * @param quantity The number of units to remove.
+     */
+    public void removeFromCurrentOrder(String sessionId, Pizza pizza, int quantity) {
+        sessions.computeIfPresent(sessionId, (id, order) -> {
+            order.removePizza(pizza, quantity);
+            return order;
+        });
     }
 
     public void clearCurrentOrder() {
-        if (currentOrder != null) {
-            // Directly reset the current order with a new instance
-            currentOrder = new Order(orderNumber, new ArrayList<>());  // Create a new order, effectively clearing the previous contents
+        clearCurrentOrder(DEFAULT_SESSION);
+    }
 
-            // Optionally, log this action for debug purposes:
-            // Log.d("OrderManager", "Current order cleared and reset.");
-        }
+    /**
+     * Discards the current order of a session. A new empty order is started the next time
+     * the session adds a pizza or asks for its current order.
+     * @param sessionId The ID of the terminal or session.
+     */
+    public void clearCurrentOrder(String sessionId) {
+        sessions.remove(sessionId);
     }
 
     /**
      * Places the current order, adding it to the list of all orders.
      */
     public void placeCurrentOrder() {
-        allOrders.add(currentOrder);
-        orderNumber++;
-        currentOrder = new Order(orderNumber, new ArrayList<>());
+        placeCurrentOrder(DEFAULT_SESSION);
+    }
+
+    /**
+     * Places the current order of a session, adding it to the list of all orders.
+     * The order is detached from the session first, so other sessions are never blocked
+     * and the session starts a new order afterwards.
+     * @param sessionId The ID of the terminal or session.
+     * @return The order number given to the order, or -1 if the session had no current order.
+     */
+    public int placeCurrentOrder(String sessionId) {
+        Order order = sessions.remove(sessionId);
+        return order == null ? -1 : placeOrder(order);
+    }
+
+    /**
+     * Returns the number of sessions that currently have an order in progress.
+     * @return The number of sessions.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Places an order that was built outside of the current order, such as by an intake
+     * terminal. The order is given the next order number and added to the list of all orders.
+     * The order must not be modified after it has been placed.
+     * @param order The order to place.
+     * @return The order number given to the order.
+     */
+    public int placeOrder(Order order) {
+        int number = nextOrderNumber.getAndIncrement();
+        order.setOrderNumber(number);
+        // Journal and record the order before it can be found, so a cancel is always journaled
+        // after it and always finds it among the changes, or in changes already taken
+        OrderJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.appendPlaced(order);
+        }
+        recordPlaced(order);
+        allOrders.put(order);
+        return number;
+    }
+
+    /**
+     * Sets the journal that every placed and cancelled order is appended to.
+     * @param journal The journal to append to, or null to stop journaling.
+     */
+    public void setJournal(OrderJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the journal that placed and cancelled orders are appended to.
+     * @return The journal, or null if orders are not journaled.
+     */
+    public OrderJournal getJournal() {
+        return journal;
     }
 
     /**
@@ -60,28 +288,192 @@ public class OrderManager {
      * @return The order with the specified order number, or null if not found.
      */
     public Order getOrderFromNumber(int orderNumber) {
-        for (Order order : allOrders) {
-            if (order.getOrderNumber() == orderNumber) {
-                return order;
+        Order order = allOrders.get(orderNumber);
+        if (order != null) {
+            return order;
+        }
+        OrderArchive currentArchive;
+        synchronized (archiveLock) {
+            currentArchive = archive;
+            if (currentArchive == null || !currentArchive.contains(orderNumber)
+                    || isCancelledInArchive(orderNumber)) {
+                return null;
             }
         }
-        return null;
+        // Decoding happens outside the lock; a replaced archive's mapping stays readable
+        return currentArchive.get(orderNumber);
     }
 
     /**
-     * Retrieves a list of all orders placed.
-     * @return The list of all orders.
+     * Retrieves all orders placed, sorted by order number. Archived orders are decoded
+     * from the archive, so prefer getAllOrderNumbers and getOrderFromNumber when only
+     * some of the orders are needed.
+     * @return A read-only list of all orders.
      */
     public List<Order> getAllOrders() {
-        return allOrders;
+        List<Order> orders = new ArrayList<>();
+        for (Order order : placedOrders()) {
+            orders.add(order);
+        }
+        return Collections.unmodifiableList(orders);
     }
 
     /**
-     * Retrieves the current order.
-     * @return The current order.
+     * Retrieves the order numbers of all orders placed, sorted by order number.
+     * Archived order numbers are read from the archive's index.
+     * @return The array of order numbers.
+     */
+    public int[] getAllOrderNumbers() {
+        int[] archived = new int[0];
+        synchronized (archiveLock) {
+            if (archive != null) {
+                archived = archive.orderNumbers();
+                int kept = 0;
+                for (int number : archived) {
+                    if (!isCancelledInArchive(number)) {
+                        archived[kept++] = number;
+                    }
+                }
+                archived = Arrays.copyOf(archived, kept);
+            }
+        }
+        int[] live = allOrders.orderNumbers();
+        int[] numbers = Arrays.copyOf(archived, archived.length + live.length);
+        System.arraycopy(live, 0, numbers, archived.length, live.length);
+        Arrays.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Uses an archive for the orders that are no longer kept on the heap. Later orders are
+     * numbered after the archive's last order.
+     * @param orderArchive The archive to look up older orders in.
+     */
+    public void attachArchive(OrderArchive orderArchive) {
+        synchronized (archiveLock) {
+            archive = orderArchive;
+            cancelledArchivedOrders.clear();
+        }
+        int next = orderArchive.getLastOrderNumber() + 1;
+        nextOrderNumber.accumulateAndGet(next, Math::max);
+    }
+
+    /**
+     * Moves every placed order into the memory-mapped archive, so they no longer take up heap
+     * space. The orders are appended to the current archive, from which the archived orders
+     * cancelled so far are dropped, or written to a new archive if there is none yet. The
+     * archive is written without holding archiveLock, so lookups and cancellations carry on
+     * meanwhile and only wait for the new archive to be swapped in.
+     * @param file The archive file to write.
+     * @throws IOException if the archive cannot be written.
+     */
+    public void archivePlacedOrders(File file) throws IOException {
+        synchronized (archiveWriteLock) {
+            List<Order> live = allOrders.snapshot();
+            OrderArchive previous;
+            int[] dropped;
+            synchronized (archiveLock) {
+                previous = archive;
+                dropped = previous != null ? getCancelledArchivedOrderNumbers() : new int[0];
+            }
+            OrderArchive next;
+            if (previous != null) {
+                next = previous.append(live, dropped);
+            } else {
+                OrderArchive.write(file, live);
+                next = new OrderArchive(file);
+            }
+
+            synchronized (archiveLock) {
+                // Cancels made while writing are carried over; the dropped ones are gone
+                BitSet cancelled = new BitSet();
+                if (previous != null) {
+                    for (int number : getCancelledArchivedOrderNumbers()) {
+                        if (Arrays.binarySearch(dropped, number) < 0) {
+                            cancelled.set(number - next.getFirstOrderNumber());
+                        }
+                    }
+                }
+                for (Order order : live) {
+                    if (allOrders.remove(order.getOrderNumber()) == null) {
+                        cancelled.set(order.getOrderNumber() - next.getFirstOrderNumber());
+                    }
+                }
+                archive = next;
+                cancelledArchivedOrders.clear();
+                cancelledArchivedOrders.or(cancelled);
+            }
+            nextOrderNumber.accumulateAndGet(next.getLastOrderNumber() + 1, Math::max);
+            if (previous != null) {
+                previous.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the placed orders in ascending order number order, decoding archived orders
+     * one at a time as they are iterated.
+     */
+    private Iterable<Order> placedOrders() {
+        return placedOrders(allOrders.snapshot());
+    }
+
+    private Iterable<Order> placedOrders(List<Order> live) {
+        OrderArchive currentArchive;
+        BitSet cancelled;
+        synchronized (archiveLock) {
+            currentArchive = archive;
+            cancelled = (BitSet) cancelledArchivedOrders.clone();
+        }
+        if (currentArchive == null) {
+            return live;
+        }
+        int first = currentArchive.getFirstOrderNumber();
+        Stream<Order> archived = StreamSupport.stream(currentArchive.spliterator(), false)
+                .filter(order -> !cancelled.get(order.getOrderNumber() - first));
+        return Stream.concat(archived, live.stream())::iterator;
+    }
+
+    /**
+     * Returns whether an archived order was cancelled. Must be called holding archiveLock,
+     * with an order number the archive contains.
+     */
+    private boolean isCancelledInArchive(int orderNumber) {
+        return cancelledArchivedOrders.get(orderNumber - archive.getFirstOrderNumber());
+    }
+
+    /**
+     * Retrieves a copy of the current order.
+     * @return A copy of the current order.
      */
     public Order getCurrentOrder() {
-        return currentOrder;
+        return getCurrentOrder(DEFAULT_SESSION);
+    }
+
+    /**
+     * Retrieves a copy of the current order of a session, starting a new empty order if the
+     * session has none. The session's own order is only changed through this class, so the
+     * copy is taken while no other thread is changing it, and later changes to the session's
+     * order do not show up in the copy.
+     * @param sessionId The ID of the terminal or session.
+     * @return A copy of the current order of the session.
+     */
+    public Order getCurrentOrder(String sessionId) {
+        Order[] copy = new Order[1];
+        sessions.compute(sessionId, (id, order) -> {
+            Order current = order != null ? order : newSessionOrder();
+            copy[0] = current.copy();
+            return current;
+        });
+        return copy[0];
+    }
+
+    /**
+     * Creates an empty order for a session. Its number is only provisional, the final number
+     * is given when the order is placed.
+     */
+    private Order newSessionOrder() {
+        return new Order(nextOrderNumber.get(), new ArrayList<>());
     }
 
     /**
@@ -89,57 +481,294 @@ public class OrderManager {
      * @param orderId The order number of the order to cancel.
      */
     public void cancelOrder(int orderId) {
-        allOrders.removeIf(order -> order.getOrderNumber() == orderId);
+        if (!removePlacedOrder(orderId)) {
+            return;
+        }
+        recordCancelled(orderId);
+        OrderJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.appendCancelled(orderId);
+        }
     }
 
     /**
-     * Calculates the subtotal for an order.
-     * @param order The order for which to calculate the subtotal.
-     * @return The subtotal of the order.
+     * Takes the orders placed and cancelled since the changes were last taken, so that only
+     * those need to be saved. The next call returns only what changes after this one.
+     * @return The changes since the last call.
      */
-    public static double calculateSubtotal(Order order) {
-        return order.getPizzas().stream().mapToDouble(Pizza::price).sum();
+    public OrderChanges takeChanges() {
+        synchronized (changesLock) {
+            OrderChanges changes = new OrderChanges(new ArrayList<>(placedSinceSave.values()),
+                    Arrays.copyOf(cancelledSinceSave, cancelledSinceSaveCount));
+            placedSinceSave = new OrderIndex();
+            cancelledSinceSaveCount = 0;
+            return changes;
+        }
     }
 
     /**
-     * Calculates the sales tax for a given subtotal.
-     * @param subtotal The subtotal for which to calculate the sales tax.
-     * @return The sales tax amount.
+     * Puts back changes that were taken but could not be saved, so the next save includes
+     * them again. Changes made since they were taken stay in place and are applied after them.
+     * @param changes The changes that were not saved.
      */
-    public static double calculateSalesTax(double subtotal) {
-        return subtotal * SALES_TAX_RATE;
+    public void restoreChanges(OrderChanges changes) {
+        synchronized (changesLock) {
+            OrderIndex placed = new OrderIndex(changes.getPlacedOrders().size() + placedSinceSave.size());
+            for (Order order : changes.getPlacedOrders()) {
+                placed.put(order);
+            }
+            for (Order order : placedSinceSave.values()) {
+                placed.put(order);
+            }
+            placedSinceSave = placed;
+            int[] cancelled = changes.getCancelledOrderNumbers();
+            int[] merged = new int[cancelled.length + cancelledSinceSaveCount];
+            System.arraycopy(cancelled, 0, merged, 0, cancelled.length);
+            System.arraycopy(cancelledSinceSave, 0, merged, cancelled.length, cancelledSinceSaveCount);
+            cancelledSinceSave = merged.length > 0 ? merged : new int[16];
+            cancelledSinceSaveCount = merged.length;
+        }
+    }
+
+    /**
+     * Returns the number of orders placed or cancelled since the changes were last taken.
+     * @return The number of changes.
+     */
+    public int getChangeCount() {
+        synchronized (changesLock) {
+            return placedSinceSave.size() + cancelledSinceSaveCount;
+        }
+    }
+
+    private void recordPlaced(Order order) {
+        synchronized (changesLock) {
+            placedSinceSave.put(order);
+        }
+    }
+
+    /**
+     * Records a cancellation. An order placed since the last save is simply dropped from the
+     * changes, since the saved history never had it.
+     */
+    private void recordCancelled(int orderNumber) {
+        synchronized (changesLock) {
+            if (placedSinceSave.remove(orderNumber) != null) {
+                return;
+            }
+            if (cancelledSinceSaveCount == cancelledSinceSave.length) {
+                cancelledSinceSave = Arrays.copyOf(cancelledSinceSave, cancelledSinceSaveCount * 2);
+            }
+            cancelledSinceSave[cancelledSinceSaveCount++] = orderNumber;
+        }
+    }
+
+    /**
+     * Removes a placed order from the heap, or marks it cancelled if it is archived.
+     * Holds archiveLock throughout, so it never sees an order both in the archive and on the
+     * heap. An order removed from the heap while it is being archived is marked cancelled in
+     * the new archive when it is swapped in.
+     * @return True if an order was removed, false if there was no such order.
+     */
+    private boolean removePlacedOrder(int orderId) {
+        synchronized (archiveLock) {
+            if (allOrders.remove(orderId) != null) {
+                return true;
+            }
+            if (archive != null && archive.contains(orderId) && !isCancelledInArchive(orderId)) {
+                cancelledArchivedOrders.set(orderId - archive.getFirstOrderNumber());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number the next placed order will be given.
+     * @return The next order number.
+     */
+    public int getNextOrderNumber() {
+        return nextOrderNumber.get();
+    }
+
+    /**
+     * Returns the placed orders kept on the heap, which are the ones not yet archived.
+     * @return A read-only list of the orders, sorted by order number.
+     */
+    List<Order> getLiveOrders() {
+        return allOrders.snapshot();
+    }
+
+    /**
+     * Returns the numbers of the archived orders that were cancelled.
+     * @return The array of order numbers.
+     */
+    int[] getCancelledArchivedOrderNumbers() {
+        synchronized (archiveLock) {
+            int[] numbers = new int[cancelledArchivedOrders.cardinality()];
+            int next = 0;
+            for (int bit = cancelledArchivedOrders.nextSetBit(0); bit >= 0;
+                 bit = cancelledArchivedOrders.nextSetBit(bit + 1)) {
+                numbers[next++] = archive.getFirstOrderNumber() + bit;
+            }
+            return numbers;
+        }
+    }
+
+    /**
+     * Returns a copy of the in-progress order of every session. Each order is copied while
+     * no other thread is changing it.
+     * @return The current orders keyed by session ID.
+     */
+    Map<String, Order> getSessionOrders() {
+        Map<String, Order> copies = new HashMap<>();
+        for (String sessionId : sessions.keySet()) {
+            sessions.computeIfPresent(sessionId, (id, order) -> {
+                copies.put(id, order.copy());
+                return order;
+            });
+        }
+        return copies;
+    }
+
+    /**
+     * Puts back an order that was placed before a restart, keeping its order number and
+     * without journaling it again. Orders already in the archive are skipped. The order is
+     * counted as a change until the changes are next taken.
+     * @param order The recovered order.
+     */
+    void restorePlacedOrder(Order order) {
+        synchronized (archiveLock) {
+            if (archive != null && archive.contains(order.getOrderNumber())) {
+                return;
+            }
+        }
+        allOrders.put(order);
+        recordPlaced(order);
+        nextOrderNumber.accumulateAndGet(order.getOrderNumber() + 1, Math::max);
+    }
+
+    /**
+     * Applies a cancellation made before a restart without journaling it again. The
+     * cancellation is counted as a change until the changes are next taken.
+     * @param orderNumber The number of the cancelled order.
+     */
+    void restoreCancelledOrder(int orderNumber) {
+        if (removePlacedOrder(orderNumber)) {
+            recordCancelled(orderNumber);
+        }
+        nextOrderNumber.accumulateAndGet(orderNumber + 1, Math::max);
+    }
+
+    /**
+     * Makes sure later orders are numbered from at least the given number.
+     * @param orderNumber The lowest number the next order may be given.
+     */
+    void restoreNextOrderNumber(int orderNumber) {
+        nextOrderNumber.accumulateAndGet(orderNumber, Math::max);
+    }
+
+    /**
+     * Puts back the in-progress order of a session after a restart.
+     * @param sessionId The ID of the terminal or session.
+     * @param order The recovered in-progress order.
+     */
+    void restoreCurrentOrder(String sessionId, Order order) {
+        sessions.put(sessionId, order);
+    }
+
+    /**
+     * Returns the subtotal for an order, which the order keeps up to date as pizzas
+     * are added and removed.
+     * @param order The order for which to get the subtotal.
+     * @return The subtotal of the order in cents.
+     */
+    public static long calculateSubtotal(Order order) {
+        return order.getSubtotal();
+    }
+
+    /**
+     * Calculates the sales tax for a given subtotal, rounded to the nearest cent.
+     * @param subtotal The subtotal in cents for which to calculate the sales tax.
+     * @return The sales tax amount in cents.
+     */
+    public static long calculateSalesTax(long subtotal) {
+        return Money.applyRate(subtotal, SALES_TAX_RATE);
     }
 
     /**
      * Calculates the total amount for an order including sales tax.
-     * @param subtotal The subtotal of the order.
-     * @param salesTax The sales tax amount.
-     * @return The total amount of the order including sales tax.
+     * @param subtotal The subtotal of the order in cents.
+     * @param salesTax The sales tax amount in cents.
+     * @return The total amount of the order including sales tax, in cents.
+     */
+    public static long calculateTotalAmount(long subtotal, long salesTax) {
+        return Money.add(subtotal, salesTax);
+    }
+
+    /**
+     * Calculates the combined total amount, including sales tax, of all orders placed.
+     * Tax is rounded per order, matching what each customer was charged. Archived orders are
+     * counted from the archive's summary total, so only cancelled archived orders are decoded.
+     * @return The total sales in cents.
      */
-    public static double calculateTotalAmount(double subtotal, double salesTax) {
-        return subtotal + salesTax;
+    public long calculateTotalSales() {
+        long total = 0;
+        OrderArchive currentArchive;
+        int[] cancelled;
+        synchronized (archiveLock) {
+            currentArchive = archive;
+            cancelled = currentArchive != null ? getCancelledArchivedOrderNumbers() : new int[0];
+        }
+        if (currentArchive != null) {
+            total = currentArchive.getTotalAmount();
+            for (int orderNumber : cancelled) {
+                total = Money.subtract(total, currentArchive.get(orderNumber).getTotalAmount());
+            }
+        }
+        long[] liveTotal = {total};
+        allOrders.forEach(order -> liveTotal[0] = Money.add(liveTotal[0], order.getTotalAmount()));
+        return liveTotal[0];
     }
 
     /**
-     * Saves orders to a file in the device's internal storage.
+     * Returns the number of orders placed that have not been cancelled, without decoding
+     * any archived orders.
+     * @return The number of orders.
+     */
+    public int getOrderCount() {
+        int count = allOrders.size();
+        synchronized (archiveLock) {
+            if (archive != null) {
+                count += archive.size() - cancelledArchivedOrders.cardinality();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Saves orders to a file in the device's internal storage. Each line of an order is
+     * written as the class name of its pizza followed by the quantity, such as
+     * "- BuildYourOwn x2".
      * @param context The context used to open the file output stream.
      * @param filename The name of the file to save the orders to.
      * @return A string indicating the status of the save operation.
      */
     public String saveOrdersToFile(Context context, String filename) {
         StringBuilder stringBuilder = new StringBuilder();
+        StringBuilder amount = new StringBuilder(24);
         try (FileOutputStream fos = context.openFileOutput(filename, Context.MODE_PRIVATE);
              OutputStreamWriter writer = new OutputStreamWriter(fos)) {
-            for (Order order : allOrders) {
+            for (Order order : placedOrders()) {
                 writer.write("Order Number: " + order.getOrderNumber() + "\n");
                 writer.write("Pizzas:\n");
-                for (Pizza pizza : order.getPizzas()) {
-                    writer.write("- " + pizza.getClass().getSimpleName() + "\n");
+                for (int i = 0; i < order.getLineCount(); i++) {
+                    int typeId = PizzaCode.type(order.getLineCode(i)).ordinal();
+                    writer.write("- " + PizzaRegistry.className(typeId)
+                            + " x" + order.getLineQuantity(i) + "\n");
                 }
-                double subtotal = calculateSubtotal(order);
-                double salesTax = calculateSalesTax(subtotal);
-                double totalAmount = calculateTotalAmount(subtotal, salesTax);
-                writer.write("Total Amount: $" + String.format("%.2f", totalAmount) + "\n\n");
+                amount.setLength(0);
+                writer.write("Total Amount: $");
+                writer.append(Money.appendTo(amount, order.getTotalAmount())).write("\n\n");
             }
             stringBuilder.append("Orders saved to the file.\n");
         } catch (Exception e) {
@@ -147,4 +776,33 @@ public class OrderManager {
         }
         return stringBuilder.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes every placed order with the full detail of its pizzas. Archived orders are decoded
+     * one at a time as they are written, so memory use does not grow with the order history.
+     * @param writer The writer to export to. It should be buffered and is not closed.
+     * @param format The format to export in.
+     * @return The number of orders exported.
+     * @throws IOException if the orders cannot be written.
+     */
+    public long exportOrders(Writer writer, OrderExporter.Format format) throws IOException {
+        return new OrderExporter(writer, format).writeAll(placedOrders());
+    }
+
+    /**
+     * Exports every placed order to a file in the device's internal storage.
+     * @param context The context used to open the file output stream.
+     * @param filename The name of the file to export the orders to.
+     * @param format The format to export in.
+     * @return A string indicating the status of the export operation.
+     */
+    public String exportOrdersToFile(Context context, String filename, OrderExporter.Format format) {
+        try (FileOutputStream fos = context.openFileOutput(filename, Context.MODE_PRIVATE);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(fos), EXPORT_BUFFER_SIZE)) {
+            long count = exportOrders(writer, format);
+            return "Exported " + count + " orders to the file.\n";
+        } catch (Exception e) {
+            return "Error exporting orders to file: " + e.getMessage() + "\n";
+        }
+    }
+}
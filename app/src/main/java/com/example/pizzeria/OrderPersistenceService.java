@@ -0,0 +1,148 @@
+package com.example.pizzeria;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Saves orders to internal storage on a single background writer thread, so the UI thread
+ * never builds or writes the save file itself.
+ *
+ * Save requests for the same file that arrive while an earlier request is still waiting to
+ * run are coalesced into that request: they share its future and result in one write, which
+ * captures every order placed before the write starts.
+ * @author Jorgeluis Done
+ */
+public class OrderPersistenceService {
+    private final OrderManager orderManager;
+    private final ExecutorService writer;
+    private final Executor mainThread;
+
+    /**
+     * The future of the save waiting to run for each file name.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<String>> pendingSaves =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a service saving the orders of the given OrderManager, reporting status on
+     * the main thread.
+     * @param orderManager The OrderManager whose orders are saved.
+     */
+    public OrderPersistenceService(OrderManager orderManager) {
+        this(orderManager, new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * Constructs a service saving the orders of the given OrderManager.
+     * @param orderManager The OrderManager whose orders are saved.
+     * @param statusExecutor The executor that status listeners are run on.
+     */
+    public OrderPersistenceService(OrderManager orderManager, Executor statusExecutor) {
+        this.orderManager = orderManager;
+        this.mainThread = statusExecutor;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "order-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests that the orders be saved to a file in the app's internal storage.
+     * The call returns immediately; the file is written on the writer thread.
+     * @param context The context used to open the file output stream.
+     * @param filename The name of the file to save the orders to.
+     * @return A future completed with the status message of the save operation.
+     */
+    public CompletableFuture<String> saveOrdersAsync(Context context, String filename) {
+        Context appContext = context.getApplicationContext();
+        return submit(filename, () -> orderManager.saveOrdersToFile(appContext, filename));
+    }
+
+    /**
+     * Requests that only the orders placed and cancelled since the last save be saved, as a
+     * new segment on top of the snapshot kept by the given recovery manager.
+     * The call returns immediately; the segment is written on the writer thread.
+     * @param recovery The recovery manager whose snapshot and segments are written.
+     * @param statusListener Receives the status message on the main thread.
+     * @return A future completed with the status message of the save operation.
+     */
+    public CompletableFuture<String> saveChangesAsync(OrderRecovery recovery,
+                                                      Consumer<String> statusListener) {
+        CompletableFuture<String> save = submit(OrderSegments.MANIFEST_FILE, () -> {
+            try {
+                int saved = recovery.saveChanges();
+                return saved < 0 ? "Orders saved to a new snapshot.\n"
+                        : "Saved " + saved + " order changes.\n";
+            } catch (IOException e) {
+                return "Error saving order changes: " + e.getMessage() + "\n";
+            }
+        });
+        save.whenCompleteAsync((status, error) -> statusListener.accept(error == null ? status
+                : "Error saving order changes: " + error.getMessage() + "\n"), mainThread);
+        return save;
+    }
+
+    /**
+     * Requests that the orders be saved, and passes the status message of the save to the
+     * listener on the main thread once the write is done.
+     * @param context The context used to open the file output stream.
+     * @param filename The name of the file to save the orders to.
+     * @param statusListener Receives the status message on the main thread.
+     * @return A future completed with the status message of the save operation.
+     */
+    public CompletableFuture<String> saveOrdersAsync(Context context, String filename,
+                                                     Consumer<String> statusListener) {
+        CompletableFuture<String> save = saveOrdersAsync(context, filename);
+        save.whenCompleteAsync((status, error) -> statusListener.accept(error == null ? status
+                : "Error saving orders to file: " + error.getMessage() + "\n"), mainThread);
+        return save;
+    }
+
+    /**
+     * Runs a save on the writer thread, or joins the save for the same key that is still
+     * waiting to run. Once the service is shut down the returned future fails with a
+     * RejectedExecutionException.
+     */
+    private CompletableFuture<String> submit(String key, Supplier<String> save) {
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> pending = pendingSaves.putIfAbsent(key, created);
+        if (pending != null) {
+            return pending;
+        }
+        try {
+            writer.execute(() -> {
+                // Requests made from here on need a new write to include later orders
+                pendingSaves.remove(key, created);
+                try {
+                    created.complete(save.get());
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Never queued, so it must not be left for later requests to join
+            pendingSaves.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Stops accepting saves once the saves already requested have been written.
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,485 @@
+package com.example.pizzeria;
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Rebuilds the OrderManager state at startup from the order archive, a compact snapshot, the
+ * delta segments saved on top of it, and the order journal, and keeps the journal short by
+ * periodically saving the changes it holds.
+ *
+ * The journal is split into numbered generations. A save first switches the journal to the
+ * next generation, then writes only the orders placed and cancelled since the previous save
+ * as a new segment, and finally deletes the older generations. Once enough segments have
+ * built up they are merged: the placed orders are moved into the memory-mapped order archive,
+ * in which cancelled orders are simply absent, and a snapshot of the next order number, the
+ * in-progress orders and any orders placed during the merge is written. Recovery opens the
+ * archive, which only reads its header, loads the snapshot, applies its segments, and replays
+ * every generation from the one the newest segment names. Startup time therefore depends on
+ * the activity since the last merge rather than on the size of the order history; archived
+ * orders are only decoded when they are looked up. Replaying a record whose effect is already
+ * saved changes nothing, so records racing with a save are safe.
+ * @author Jorgeluis Done
+ */
+public final class OrderRecovery implements Closeable {
+    /**
+     * The name of the snapshot file.
+     */
+    public static final String SNAPSHOT_FILE = "orders.snapshot";
+
+    /**
+     * The name of the archive holding the placed orders merged out of the segments.
+     */
+    public static final String ARCHIVE_FILE = "orders.archive";
+
+    private static final String JOURNAL_PREFIX = "orders.journal.";
+    private static final int MAGIC = 0x52555053; // "RUPS"
+    private static final int VERSION = 1;
+    private static final long JOURNAL_COMMIT_DELAY_MILLIS = 5;
+
+    /**
+     * The number of segments that triggers merging them into a new snapshot.
+     */
+    private static final int MAX_SEGMENTS = 16;
+
+    private final File directory;
+    private final OrderManager orderManager;
+    private final OrderSegments segments;
+    private ScheduledExecutorService compactor;
+
+    /**
+     * The journal generation currently appended to.
+     */
+    private int generation;
+    private OrderJournal journal;
+
+    /**
+     * Constructs a recovery manager keeping its files in the given directory.
+     *
+     * @param directory The directory holding the snapshot and journal files.
+     * @param orderManager The OrderManager to restore and journal.
+     */
+    public OrderRecovery(File directory, OrderManager orderManager) {
+        this.directory = directory;
+        this.orderManager = orderManager;
+        this.segments = new OrderSegments(directory);
+    }
+
+    /**
+     * Attaches the order archive and restores the OrderManager from the snapshot, segments and
+     * journal, then opens the journal so new orders are recorded. Afterwards only the orders
+     * replayed from the journal count as changes to be saved.
+     *
+     * @return Statistics about the recovery.
+     * @throws IOException if the snapshot is damaged or the journal cannot be opened.
+     */
+    public synchronized Result recover() throws IOException {
+        long start = System.nanoTime();
+        File archiveFile = new File(directory, ARCHIVE_FILE);
+        int archivedOrders = 0;
+        if (OrderArchive.exists(archiveFile)) {
+            OrderArchive archive = new OrderArchive(archiveFile);
+            orderManager.attachArchive(archive);
+            archivedOrders = archive.size();
+        }
+        File snapshot = new File(directory, SNAPSHOT_FILE);
+        int snapshotOrders = 0;
+        generation = 0;
+        if (snapshot.exists()) {
+            snapshotOrders = loadSnapshot(snapshot);
+        }
+        int segmentRecords = segments.load(generation, orderManager);
+        generation = segments.getGeneration();
+        orderManager.takeChanges(); // everything so far is already saved
+
+        int snapshotGeneration = generation;
+        int replayed = 0;
+        OrderJournal.Visitor visitor = new OrderJournal.Visitor() {
+            @Override
+            public void placed(Order order) {
+                orderManager.restorePlacedOrder(order);
+            }
+
+            @Override
+            public void cancelled(int orderNumber) {
+                orderManager.restoreCancelledOrder(orderNumber);
+            }
+        };
+        for (int journalGeneration : journalGenerations()) {
+            if (journalGeneration < snapshotGeneration) {
+                journalFile(journalGeneration).delete(); // left over from an interrupted compaction
+                continue;
+            }
+            replayed += OrderJournal.replay(journalFile(journalGeneration), visitor);
+            generation = journalGeneration;
+        }
+
+        journal = new OrderJournal(journalFile(generation), JOURNAL_COMMIT_DELAY_MILLIS);
+        orderManager.setJournal(journal);
+        return new Result(archivedOrders, snapshotOrders, segmentRecords, replayed,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Saves the orders placed and cancelled since the previous save as a new segment, and
+     * deletes the journal generations it replaces. When the segments have built up, or there
+     * is no snapshot yet, they are merged into a new snapshot instead.
+     *
+     * @return The number of placed and cancelled orders saved, or -1 if a full snapshot was
+     *         written.
+     * @throws IOException if the segment or snapshot cannot be written. The changes are kept
+     *                     and included in the next save.
+     */
+    public synchronized int saveChanges() throws IOException {
+        if (segments.getSegmentCount() >= MAX_SEGMENTS
+                || !new File(directory, SNAPSHOT_FILE).exists()) {
+            compact();
+            return -1;
+        }
+        rotateJournal();
+        OrderChanges changes = orderManager.takeChanges();
+        try {
+            segments.append(generation, changes, orderManager.getNextOrderNumber(),
+                    orderManager.getSessionOrders());
+        } catch (IOException | RuntimeException e) {
+            orderManager.restoreChanges(changes);
+            throw e;
+        }
+        deleteOlderJournals();
+        return changes.size();
+    }
+
+    /**
+     * Moves the placed orders into the order archive and writes a new snapshot, merging in
+     * every segment, then deletes the segments and journal generations they replace.
+     *
+     * @throws IOException if the archive or snapshot cannot be written.
+     */
+    public synchronized void compact() throws IOException {
+        rotateJournal();
+        // Changes from here on are in the new journal generation, which the snapshot precedes
+        OrderChanges changes = orderManager.takeChanges();
+        File snapshot = new File(directory, SNAPSHOT_FILE);
+        File tempFile = new File(directory, SNAPSHOT_FILE + ".tmp");
+        try {
+            // Orders already archived are skipped when an older snapshot is replayed over it
+            orderManager.archivePlacedOrders(new File(directory, ARCHIVE_FILE));
+            writeSnapshot(tempFile);
+            if (!tempFile.renameTo(snapshot)) {
+                tempFile.delete();
+                throw new IOException("Could not replace order snapshot " + snapshot);
+            }
+        } catch (IOException | RuntimeException e) {
+            orderManager.restoreChanges(changes);
+            throw e;
+        }
+        segments.reset(generation);
+        deleteOlderJournals();
+    }
+
+    /**
+     * Returns the number of segments saved on top of the snapshot.
+     *
+     * @return The number of segments.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.getSegmentCount();
+    }
+
+    /**
+     * Switches the journal to the next generation once the current one is synced.
+     */
+    private void rotateJournal() throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Recovery has not run yet");
+        }
+        int nextGeneration = generation + 1;
+        try {
+            journal.rotate(journalFile(nextGeneration)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rotating the order journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not rotate the order journal", e.getCause());
+        }
+        generation = nextGeneration;
+    }
+
+    private void deleteOlderJournals() {
+        for (int journalGeneration : journalGenerations()) {
+            if (journalGeneration < generation) {
+                journalFile(journalGeneration).delete();
+            }
+        }
+    }
+
+    /**
+     * Saves the changes on a background thread whenever the journal has grown by at least
+     * the given number of records since the last save.
+     *
+     * @param periodMillis How often to check the journal size.
+     * @param minRecords The number of journal records that triggers a save.
+     */
+    public synchronized void startPeriodicCompaction(long periodMillis, long minRecords) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "order-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                if (journal.getRecordCount() >= minRecords) {
+                    saveChanges();
+                }
+            } catch (IOException | RuntimeException e) {
+                Log.e("OrderRecovery", "Saving order changes failed", e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops background compaction and closes the journal.
+     *
+     * @throws IOException if the journal cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        if (journal != null) {
+            orderManager.setJournal(null);
+            journal.close();
+        }
+    }
+
+    /**
+     * Writes the snapshot: a header, the cancelled archived orders, the in-progress orders,
+     * and the placed orders kept on the heap, followed by a CRC32 of everything before it.
+     */
+    private void writeSnapshot(File file) throws IOException {
+        // Read the next number first so it can never be below a number in the captured orders
+        int nextOrderNumber = orderManager.getNextOrderNumber();
+        int[] cancelledArchived = orderManager.getCancelledArchivedOrderNumbers();
+        Map<String, Order> sessions = orderManager.getSessionOrders();
+        List<Order> orders = orderManager.getLiveOrders();
+
+        try (FileOutputStream fileOut = new FileOutputStream(file)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(fileOut);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(generation);
+            out.writeInt(nextOrderNumber);
+            out.writeInt(cancelledArchived.length);
+            for (int number : cancelledArchived) {
+                out.writeInt(number);
+            }
+            ByteBuffer record = ByteBuffer.allocate(256);
+            out.writeInt(sessions.size());
+            for (Map.Entry<String, Order> session : sessions.entrySet()) {
+                byte[] id = session.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(id.length);
+                out.write(id);
+                record = writeRecord(out, session.getValue(), record);
+            }
+            out.writeInt(orders.size());
+            for (Order order : orders) {
+                record = writeRecord(out, order, record);
+            }
+            out.flush();
+            // The checksum itself is written past the checked stream
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            fileOut.getFD().sync();
+        }
+    }
+
+    /**
+     * Writes one order in OrderCodec format, growing the scratch buffer when needed.
+     */
+    static ByteBuffer writeRecord(DataOutputStream out, Order order, ByteBuffer record)
+            throws IOException {
+        if (record.capacity() < OrderCodec.maxEncodedSize(order)) {
+            record = ByteBuffer.allocate(OrderCodec.maxEncodedSize(order));
+        }
+        record.clear();
+        OrderCodec.encode(order, record);
+        out.write(record.array(), 0, record.position());
+        return record;
+    }
+
+    /**
+     * Loads the snapshot into the OrderManager and sets the journal generation it names.
+     *
+     * @return The number of placed orders restored.
+     */
+    private int loadSnapshot(File file) throws IOException {
+        ByteBuffer buffer = readChecked(file);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new StreamCorruptedException("Not an order snapshot: " + file);
+            }
+            generation = buffer.getInt();
+            orderManager.restoreNextOrderNumber(buffer.getInt());
+            int cancelledCount = buffer.getInt();
+            for (int i = 0; i < cancelledCount; i++) {
+                orderManager.restoreCancelledOrder(buffer.getInt());
+            }
+            int sessionCount = buffer.getInt();
+            for (int i = 0; i < sessionCount; i++) {
+                byte[] id = new byte[buffer.getInt()];
+                buffer.get(id);
+                orderManager.restoreCurrentOrder(new String(id, StandardCharsets.UTF_8),
+                        OrderCodec.decode(buffer));
+            }
+            int orderCount = buffer.getInt();
+            for (int i = 0; i < orderCount; i++) {
+                orderManager.restorePlacedOrder(OrderCodec.decode(buffer));
+            }
+            return orderCount;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new StreamCorruptedException("Order snapshot malformed: " + file);
+        }
+    }
+
+    /**
+     * Reads a whole file ending in a CRC32 of everything before it, and checks the checksum.
+     *
+     * @return A buffer holding the file without its checksum.
+     */
+    static ByteBuffer readChecked(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel in = new RandomAccessFile(file, "r").getChannel()) {
+            buffer = ByteBuffer.allocate((int) in.size());
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+                // keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+        }
+        if (buffer.remaining() < Integer.BYTES) {
+            throw new EOFException("File truncated: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - Integer.BYTES);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - Integer.BYTES)) {
+            throw new StreamCorruptedException("Checksum mismatch: " + file);
+        }
+        buffer.limit(buffer.limit() - Integer.BYTES);
+        return buffer;
+    }
+
+    /**
+     * Returns the generations of the journal files in the directory in ascending order.
+     */
+    private int[] journalGenerations() {
+        String[] names = directory.list();
+        if (names == null) {
+            return new int[0];
+        }
+        int[] generations = new int[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(JOURNAL_PREFIX)) {
+                try {
+                    generations[count++] = Integer.parseInt(name.substring(JOURNAL_PREFIX.length()));
+                } catch (NumberFormatException e) {
+                    count--; // not a journal generation
+                }
+            }
+        }
+        generations = Arrays.copyOf(generations, count);
+        Arrays.sort(generations);
+        return generations;
+    }
+
+    private File journalFile(int journalGeneration) {
+        return new File(directory, JOURNAL_PREFIX + journalGeneration);
+    }
+
+    /**
+     * Statistics about a recovery run.
+     */
+    public static final class Result {
+        private final int archivedOrders;
+        private final int snapshotOrders;
+        private final int segmentRecords;
+        private final int journalRecords;
+        private final long elapsedNanos;
+
+        Result(int archivedOrders, int snapshotOrders, int segmentRecords, int journalRecords,
+               long elapsedNanos) {
+            this.archivedOrders = archivedOrders;
+            this.snapshotOrders = snapshotOrders;
+            this.segmentRecords = segmentRecords;
+            this.journalRecords = journalRecords;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the number of orders in the archive, none of which were decoded.
+         * @return The number of orders.
+         */
+        public int getArchivedOrders() {
+            return archivedOrders;
+        }
+
+        /**
+         * Returns the number of placed orders loaded from the snapshot.
+         * @return The number of orders.
+         */
+        public int getSnapshotOrders() {
+            return snapshotOrders;
+        }
+
+        /**
+         * Returns the number of placed and cancelled orders applied from the segments.
+         * @return The number of orders.
+         */
+        public int getSegmentRecords() {
+            return segmentRecords;
+        }
+
+        /**
+         * Returns the number of journal records replayed after the snapshot.
+         * @return The number of records.
+         */
+        public int getJournalRecords() {
+            return journalRecords;
+        }
+
+        /**
+         * Returns how long the recovery took.
+         * @return The elapsed time in milliseconds.
+         */
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.pizzeria;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Delta segments written on top of the order snapshot, so that saving costs in proportion to
+ * the orders placed and cancelled since the last save rather than to the whole history.
+ *
+ * Each segment holds the orders placed and the order numbers cancelled since the previous
+ * save, along with the next order number and the in-progress orders at the time. A manifest
+ * lists the segments in the order they were written, the snapshot generation they apply on
+ * top of, and the journal generation that follows the newest segment. A segment only counts
+ * once the manifest naming it has been renamed into place, and segments written on top of
+ * an older snapshot are ignored and deleted.
+ * @author Jorgeluis Done
+ */
+public final class OrderSegments {
+    /**
+     * The name of the segment manifest.
+     */
+    public static final String MANIFEST_FILE = "orders.segments";
+
+    private static final String SEGMENT_PREFIX = "orders.segment.";
+    private static final int MANIFEST_MAGIC = 0x5255504D; // "RUPM"
+    private static final int SEGMENT_MAGIC = 0x52555047; // "RUPG"
+    private static final int VERSION = 1;
+
+    private final File directory;
+    private int baseGeneration = -1;
+    private int generation;
+    private int[] segments = new int[0];
+    private long segmentBytes;
+
+    /**
+     * Constructs a segment set keeping its files in the given directory.
+     *
+     * @param directory The directory holding the manifest and the segment files.
+     */
+    public OrderSegments(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Applies the segments written on top of the given snapshot to the OrderManager, oldest
+     * first. Segments belonging to any other snapshot, and segment files the manifest does
+     * not name, are deleted.
+     *
+     * @param snapshotGeneration The journal generation named by the snapshot that was loaded.
+     * @param orderManager The OrderManager to restore.
+     * @return The number of placed and cancelled orders applied.
+     * @throws IOException if the manifest or a segment it names is damaged.
+     */
+    public int load(int snapshotGeneration, OrderManager orderManager) throws IOException {
+        baseGeneration = snapshotGeneration;
+        generation = snapshotGeneration;
+        segments = new int[0];
+        segmentBytes = 0;
+        File manifest = new File(directory, MANIFEST_FILE);
+        if (manifest.exists()) {
+            ByteBuffer buffer = OrderRecovery.readChecked(manifest);
+            try {
+                if (buffer.getInt() != MANIFEST_MAGIC || buffer.getInt() != VERSION) {
+                    throw new StreamCorruptedException("Not an order segment manifest: " + manifest);
+                }
+                int base = buffer.getInt();
+                int next = buffer.getInt();
+                int[] listed = new int[buffer.getInt()];
+                for (int i = 0; i < listed.length; i++) {
+                    listed[i] = buffer.getInt();
+                }
+                if (base == snapshotGeneration) {
+                    generation = next;
+                    segments = listed;
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                throw new StreamCorruptedException("Order segment manifest malformed: " + manifest);
+            }
+        }
+
+        int applied = 0;
+        for (int segment : segments) {
+            File file = segmentFile(segment);
+            segmentBytes += file.length();
+            applied += loadSegment(file, orderManager);
+        }
+        deleteUnlisted();
+        return applied;
+    }
+
+    /**
+     * Writes the changes as a new segment and adds it to the manifest.
+     *
+     * @param nextGeneration The journal generation holding everything after these changes.
+     * @param changes The orders placed and cancelled since the previous save.
+     * @param nextOrderNumber The number the next placed order will be given.
+     * @param sessions The in-progress order of every session.
+     * @return The size of the segment in bytes.
+     * @throws IOException if the segment or manifest cannot be written.
+     */
+    public long append(int nextGeneration, OrderChanges changes, int nextOrderNumber,
+                       Map<String, Order> sessions) throws IOException {
+        File file = segmentFile(nextGeneration);
+        try (FileOutputStream fileOut = new FileOutputStream(file)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(fileOut);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SEGMENT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nextOrderNumber);
+            ByteBuffer record = ByteBuffer.allocate(256);
+            out.writeInt(sessions.size());
+            for (Map.Entry<String, Order> session : sessions.entrySet()) {
+                byte[] id = session.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(id.length);
+                out.write(id);
+                record = OrderRecovery.writeRecord(out, session.getValue(), record);
+            }
+            out.writeInt(changes.getPlacedOrders().size());
+            for (Order order : changes.getPlacedOrders()) {
+                record = OrderRecovery.writeRecord(out, order, record);
+            }
+            int[] cancelled = changes.getCancelledOrderNumbers();
+            out.writeInt(cancelled.length);
+            for (int number : cancelled) {
+                out.writeInt(number);
+            }
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            fileOut.getFD().sync();
+        }
+
+        int[] listed = Arrays.copyOf(segments, segments.length + 1);
+        listed[segments.length] = nextGeneration;
+        try {
+            writeManifest(baseGeneration, nextGeneration, listed);
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+        segments = listed;
+        generation = nextGeneration;
+        segmentBytes += file.length();
+        return file.length();
+    }
+
+    /**
+     * Starts an empty segment list on top of a newly written snapshot and deletes the
+     * segments it replaces.
+     *
+     * @param snapshotGeneration The journal generation named by the new snapshot.
+     * @throws IOException if the manifest cannot be written.
+     */
+    public void reset(int snapshotGeneration) throws IOException {
+        writeManifest(snapshotGeneration, snapshotGeneration, new int[0]);
+        baseGeneration = snapshotGeneration;
+        generation = snapshotGeneration;
+        segments = new int[0];
+        segmentBytes = 0;
+        deleteUnlisted();
+    }
+
+    /**
+     * Returns the journal generation holding everything after the newest segment, or the
+     * snapshot's generation if there are no segments.
+     *
+     * @return The journal generation to replay from.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of segments written on top of the snapshot.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Returns the combined size of the segments written on top of the snapshot.
+     *
+     * @return The size in bytes.
+     */
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * Applies one segment: the placed orders first, then the cancellations, then the next
+     * order number and in-progress orders.
+     *
+     * @return The number of placed and cancelled orders in the segment.
+     */
+    private static int loadSegment(File file, OrderManager orderManager) throws IOException {
+        ByteBuffer buffer = OrderRecovery.readChecked(file);
+        try {
+            if (buffer.getInt() != SEGMENT_MAGIC || buffer.getInt() != VERSION) {
+                throw new StreamCorruptedException("Not an order segment: " + file);
+            }
+            orderManager.restoreNextOrderNumber(buffer.getInt());
+            int sessionCount = buffer.getInt();
+            for (int i = 0; i < sessionCount; i++) {
+                byte[] id = new byte[buffer.getInt()];
+                buffer.get(id);
+                orderManager.restoreCurrentOrder(new String(id, StandardCharsets.UTF_8),
+                        OrderCodec.decode(buffer));
+            }
+            int placedCount = buffer.getInt();
+            for (int i = 0; i < placedCount; i++) {
+                orderManager.restorePlacedOrder(OrderCodec.decode(buffer));
+            }
+            int cancelledCount = buffer.getInt();
+            for (int i = 0; i < cancelledCount; i++) {
+                orderManager.restoreCancelledOrder(buffer.getInt());
+            }
+            return placedCount + cancelledCount;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new StreamCorruptedException("Order segment malformed: " + file);
+        }
+    }
+
+    /**
+     * Writes the manifest next to its final name, syncs it, and renames it into place.
+     */
+    private void writeManifest(int base, int next, int[] listed) throws IOException {
+        File manifest = new File(directory, MANIFEST_FILE);
+        File tempFile = new File(directory, MANIFEST_FILE + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(fileOut);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(base);
+            out.writeInt(next);
+            out.writeInt(listed.length);
+            for (int segment : listed) {
+                out.writeInt(segment);
+            }
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            fileOut.getFD().sync();
+        }
+        if (!tempFile.renameTo(manifest)) {
+            tempFile.delete();
+            throw new IOException("Could not replace order segment manifest " + manifest);
+        }
+    }
+
+    /**
+     * Deletes segment files that are not in the current list, such as ones merged into a
+     * snapshot or left over from a save interrupted before its manifest was written.
+     */
+    private void deleteUnlisted() {
+        String[] names = directory.list();
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            if (!name.startsWith(SEGMENT_PREFIX)) {
+                continue;
+            }
+            try {
+                int segment = Integer.parseInt(name.substring(SEGMENT_PREFIX.length()));
+                boolean listed = false;
+                for (int current : segments) {
+                    listed |= current == segment;
+                }
+                if (!listed) {
+                    new File(directory, name).delete();
+                }
+            } catch (NumberFormatException e) {
+                // not a segment file
+            }
+        }
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, SEGMENT_PREFIX + segment);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.pizzeria;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage for the placed orders kept by an OrderManager. Implementations must be safe to use
+ * from several threads at once.
+ * @author Jorgeluis Done
+ */
+public interface OrderStore {
+    /**
+     * Stores an order, replacing any stored order with the same number.
+     * @param order The order to store.
+     */
+    void put(Order order);
+
+    /**
+     * Retrieves an order by its order number.
+     * @param orderNumber The order number to look up.
+     * @return The order with the specified number, or null if not found.
+     */
+    Order get(int orderNumber);
+
+    /**
+     * Removes an order by its order number.
+     * @param orderNumber The order number of the order to remove.
+     * @return The removed order, or null if not found.
+     */
+    Order remove(int orderNumber);
+
+    /**
+     * Returns the number of stored orders.
+     * @return The number of orders.
+     */
+    int size();
+
+    /**
+     * Returns the stored orders sorted by order number.
+     * @return A read-only list of the orders.
+     */
+    List<Order> snapshot();
+
+    /**
+     * Returns the numbers of the stored orders in ascending order.
+     * @return The array of order numbers.
+     */
+    int[] orderNumbers();
+
+    /**
+     * Passes every stored order to an action, in no particular order. Cheaper than snapshot
+     * for callers that do not need the orders sorted, such as totals.
+     * @param action The action to perform on each order.
+     */
+    default void forEach(Consumer<? super Order> action) {
+        snapshot().forEach(action);
+    }
+
+    /**
+     * Writes any orders the store is holding back to its backing storage. Stores that keep
+     * everything in memory have nothing to do.
+     */
+    default void flush() {
+    }
+}
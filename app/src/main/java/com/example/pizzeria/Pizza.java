@@ -10,47 +10,82 @@ import java.util.List;
  * This class provides a base for specific pizza types to define their unique price and toppings.
  *
  * The pizza price can vary based on the size and type, and toppings can be modified in "Build Your Own" pizzas.
- * Specific pizza types will have default toppings set by subclasses.
+ * Specific pizza types will have default toppings set by subclasses. Specialty pizzas cannot be
+ * changed, so one shared instance serves every order for each crust and size, and only
+ * "Build Your Own" pizzas are mutable.
+ *
+ * A pizza is a view over its PizzaCode, which packs its type, crust, size and toppings into a
+ * single long. Prices, labels, equality and hashing all work from the code.
  *
  * @author Jorgeluis Done
  * @author Frank Garcia
  */
 public abstract class Pizza {
     /**
-     * List of toppings selected for the pizza.
+     * The PizzaCode holding the pizza's type, crust, size and toppings.
      */
-    private List<Topping> toppings;
+    private long code;
 
     /**
-     * The crust type for the pizza.
+     * The display text of the pizza, taken from PizzaLabels the first time it is shown and
+     * cleared whenever the pizza changes.
      */
-    private Crust crust;
+    private String label;
 
     /**
-     * The size of the pizza.
+     * Constructs a pizza from its code.
+     *
+     * @param code The PizzaCode of the pizza, which must be valid.
      */
-    private Size size;
+    protected Pizza(long code) {
+        this.code = code;
+    }
 
     /**
-     * Constructs a pizza with the specified toppings, crust, and size.
+     * Returns the PizzaCode describing the pizza's current configuration.
      *
-     * @param toppings List of toppings on the pizza.
-     * @param crust The type of crust for the pizza.
-     * @param size The size of the pizza (small, medium, large).
+     * @return The code.
      */
-    public Pizza(List<Topping> toppings, Crust crust, Size size) {
-        this.toppings = toppings;
-        this.crust = crust;
-        this.size = size;
+    public long getCode() {
+        return code;
     }
 
     /**
-     * Returns the list of toppings currently on the pizza.
+     * Returns the toppings currently on the pizza. A specialty pizza lists its recipe in menu
+     * order, and other pizzas list their toppings in the order of the Topping enum.
      *
-     * @return List of toppings.
+     * @return Read-only list of toppings.
      */
     public List<Topping> getToppings() {
-        return toppings;
+        return PizzaCode.toppings(code);
+    }
+
+    /**
+     * Returns the bitmask of the toppings on the pizza.
+     *
+     * @return The topping bitmask, with bit n set for the topping with ordinal n.
+     */
+    public int getToppingMask() {
+        return PizzaCode.toppingMask(code);
+    }
+
+    /**
+     * Returns whether a topping is on the pizza.
+     *
+     * @param topping The topping to check.
+     * @return True if the topping is on the pizza, false otherwise.
+     */
+    public boolean hasTopping(Topping topping) {
+        return (PizzaCode.toppingMask(code) & topping.mask()) != 0;
+    }
+
+    /**
+     * Returns the number of toppings on the pizza.
+     *
+     * @return The number of toppings.
+     */
+    public int getToppingCount() {
+        return PizzaCode.toppingCount(code);
     }
 
     /**
@@ -59,25 +94,37 @@ public abstract class Pizza {
      * @return The crust type.
      */
     public Crust getCrust() {
-        return crust;
+        return PizzaCode.crust(code);
     }
 
     /**
-     * Adds a topping to the pizza.
+     * Adds a topping to the pizza. Only supported by pizzas whose toppings can be changed.
      *
      * @param topping The topping to be added.
+     * @throws UnsupportedOperationException if the pizza has a fixed recipe.
      */
     public void addTopping(Topping topping) {
-        toppings.add(topping);
+        throw new UnsupportedOperationException(getType() + " has fixed toppings");
     }
 
     /**
-     * Removes a topping from the pizza.
+     * Removes a topping from the pizza. Only supported by pizzas whose toppings can be changed.
      *
      * @param topping The topping to be removed.
+     * @throws UnsupportedOperationException if the pizza has a fixed recipe.
      */
     public void removeTopping(Topping topping) {
-        toppings.remove(topping);
+        throw new UnsupportedOperationException(getType() + " has fixed toppings");
+    }
+
+    /**
+     * Replaces the toppings on the pizza, for subclasses whose toppings can be changed.
+     *
+     * @param toppings Bitmask of the toppings on the pizza.
+     */
+    protected void setToppingMask(int toppings) {
+        code = PizzaCode.withToppings(code, toppings);
+        label = null;
     }
 
     /**
@@ -86,71 +133,117 @@ public abstract class Pizza {
      * @return The pizza size.
      */
     public Size getSize() {
-        return size;
+        return PizzaCode.size(code);
     }
 
     /**
-     * Sets the crust type for the pizza.
+     * Sets the crust type for the pizza, for subclasses whose pizzas can be changed.
      *
      * @param crust The crust type to be set.
      */
-    public void setCrust(Crust crust) {
-        this.crust = crust;
+    protected void setCrust(Crust crust) {
+        code = PizzaCode.withCrust(code, crust);
+        label = null;
     }
 
     /**
-     * Sets the size of the pizza.
+     * Sets the size of the pizza, for subclasses whose pizzas can be changed.
      *
      * @param size The size to be set.
      */
-    public void setSize(Size size) {
-        this.size = size;
+    protected void setSize(Size size) {
+        code = PizzaCode.withSize(code, size);
+        label = null;
+    }
+
+    /**
+     * Returns a pizza like this one with a different crust. This pizza is left unchanged.
+     *
+     * @param crust The crust type of the new pizza.
+     * @return A pizza with the same type, size and toppings and the given crust.
+     */
+    public abstract Pizza withCrust(Crust crust);
+
+    /**
+     * Returns a pizza like this one in a different size. This pizza is left unchanged.
+     *
+     * @param size The size of the new pizza.
+     * @return A pizza with the same type, crust and toppings and the given size.
+     */
+    public abstract Pizza withSize(Size size);
+
+    /**
+     * Returns a copy of the pizza that later changes to this pizza do not affect. Pizzas that
+     * cannot be changed return themselves.
+     *
+     * @return The copy of the pizza.
+     */
+    public Pizza copy() {
+        return this;
     }
 
     /**
-     * Calculates the price of the pizza. Must be implemented by subclasses to define specific pricing.
+     * Returns the type of the pizza on the menu.
      *
-     * @return The calculated price of the pizza.
+     * @return The pizza type.
      */
-    public abstract double price();
+    public PizzaType getType() {
+        return PizzaCode.type(code);
+    }
 
     /**
-     * Returns the base price of the pizza based on its size.
-     * This method can be used by subclasses to calculate the final price with any additional toppings.
+     * Calculates the price of the pizza by looking it up in the menu price table
+     * using its type, size, and number of toppings.
      *
-     * @return The base price depending on the pizza size.
+     * @return The calculated price of the pizza in cents.
      */
-    protected double basePrice() {
-//        System.out.println("Calculating base price for size: " + size);
-        switch (size) {
-            case SMALL:
-                return 8.99; // Start price for small size base
-            case MEDIUM:
-                return 10.99; // Start price for medium size base
-            case LARGE:
-                return 12.99; // Start price for large size base
-            default:
-                return 8.99; // Default to small if unknown
+    public long price() {
+        return PizzaCode.price(code);
+    }
+
+    /**
+     * Compares pizzas by value: two pizzas are equal if they have the same code, meaning the
+     * same type, crust, size and toppings, so identical pizzas can share an order line.
+     *
+     * @param o The object to compare with.
+     * @return True if the object is a pizza with the same configuration, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Pizza)) {
+            return false;
         }
+        return code == ((Pizza) o).code;
+    }
+
+    /**
+     * Returns a hash code computed from the pizza's code.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(code);
     }
 
     /**
      * Returns a string representation of the pizza, including its size, crust, and toppings.
+     * The text is shared by every pizza with the same configuration, so showing a pizza again
+     * does not build a new string.
      *
      * @return a formatted string with the pizza's size, crust, and toppings.
      */
     @NonNull
     @Override
     public String toString() {
-        StringBuilder toppingsStr = new StringBuilder();
-        if (toppings.isEmpty()) {
-            toppingsStr = new StringBuilder("No toppings");
-        } else {
-            for (Topping topping : toppings) {
-                toppingsStr.append(topping).append(", ");
-            }
-            toppingsStr.replace(toppingsStr.length()-2, toppingsStr.length(), "");
+        String text = label;
+        if (text == null) {
+            text = PizzaLabels.pizza(code);
+            label = text;
         }
-        return String.format("Size: %s\nCrust: %s\nToppings: %s", size, crust, toppingsStr);
+        return text;
     }
 }
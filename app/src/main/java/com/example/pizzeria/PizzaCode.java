@@ -0,0 +1,258 @@
+package com.example.pizzeria;
+
+import java.util.List;
+
+/**
+ * Packs a whole pizza configuration into a single long, so that comparing, hashing, storing
+ * and grouping pizzas are plain integer operations and no objects are needed to hold them.
+ *
+ * A code is laid out as:
+ * <pre>
+ *   bits  0-15  bitmask of the toppings, with bit n set for the topping with ordinal n
+ *   bits 16-19  ordinal of the size
+ *   bits 20-23  ordinal of the crust
+ *   bits 24-27  ordinal of the pizza type
+ *   bits 28-63  reserved, always zero
+ * </pre>
+ * Only valid codes are ever handed out: the type and crust exist, a specialty pizza has
+ * exactly its recipe's toppings, and a Build Your Own pizza has no more toppings than the
+ * topping limit. The order a Build Your Own pizza's toppings were picked in is only for
+ * display and stays on the BuildYourOwn object, so pizzas with the same toppings have the
+ * same code. Prices and labels are looked up from the code when they are needed.
+ * @author Jorgeluis Done
+ */
+public final class PizzaCode {
+    private static final int TOPPING_BITS = 16;
+    private static final long TOPPING_MASK = (1L << TOPPING_BITS) - 1;
+    private static final int SIZE_SHIFT = 16;
+    private static final int CRUST_SHIFT = 20;
+    private static final int TYPE_SHIFT = 24;
+    private static final long FIELD_MASK = 0xF;
+    private static final long RESERVED_MASK = -1L << 28;
+
+    private static final PizzaType[] TYPES = PizzaType.values();
+    private static final Crust[] CRUSTS = Crust.values();
+    private static final Size[] SIZES = Size.values();
+    private static final int TOPPING_COUNT = Topping.values().length;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private PizzaCode() {
+    }
+
+    /**
+     * Packs a pizza configuration into a code.
+     *
+     * @param type The pizza type.
+     * @param crust The crust type.
+     * @param size The size.
+     * @param toppings The bitmask of the toppings.
+     * @return The code.
+     * @throws IllegalArgumentException if the toppings are not allowed on the pizza type.
+     */
+    public static long of(PizzaType type, Crust crust, Size size, int toppings) {
+        return of(type.ordinal(), crust.ordinal(), size.ordinal(), toppings);
+    }
+
+    /**
+     * Packs a pizza configuration given as ordinals into a code.
+     *
+     * @param type The ordinal of the pizza type.
+     * @param crust The ordinal of the crust type.
+     * @param size The ordinal of the size.
+     * @param toppings The bitmask of the toppings.
+     * @return The code.
+     * @throws IllegalArgumentException if a value is outside the menu or the toppings are not
+     *                                  allowed on the pizza type.
+     */
+    public static long of(int type, int crust, int size, int toppings) {
+        long code = (long) type << TYPE_SHIFT | (long) crust << CRUST_SHIFT
+                | (long) size << SIZE_SHIFT | toppings & TOPPING_MASK;
+        if ((type | crust | size) >>> 4 != 0 || toppings >>> TOPPING_BITS != 0 || !isValid(code)) {
+            throw new IllegalArgumentException("Not a pizza on the menu: type " + type + ", crust "
+                    + crust + ", size " + size + ", toppings 0x" + Integer.toHexString(toppings));
+        }
+        return code;
+    }
+
+    /**
+     * Returns whether a code describes a pizza on the menu.
+     *
+     * @param code The code to check.
+     * @return True if the code is valid, false otherwise.
+     */
+    public static boolean isValid(long code) {
+        if ((code & RESERVED_MASK) != 0) {
+            return false;
+        }
+        int type = (int) (code >>> TYPE_SHIFT & FIELD_MASK);
+        int crust = (int) (code >>> CRUST_SHIFT & FIELD_MASK);
+        int size = (int) (code >>> SIZE_SHIFT & FIELD_MASK);
+        int toppings = (int) (code & TOPPING_MASK);
+        if (type >= TYPES.length || crust >= CRUSTS.length || size >= SIZES.length
+                || toppings >>> TOPPING_COUNT != 0) {
+            return false;
+        }
+        if (TYPES[type] == PizzaType.BUILD_YOUR_OWN) {
+            return Integer.bitCount(toppings) <= PriceTable.MAX_TOPPINGS;
+        }
+        return toppings == TYPES[type].recipeMask();
+    }
+
+    /**
+     * Returns the pizza type of a code.
+     *
+     * @param code The code.
+     * @return The pizza type.
+     */
+    public static PizzaType type(long code) {
+        return TYPES[(int) (code >>> TYPE_SHIFT & FIELD_MASK)];
+    }
+
+    /**
+     * Returns the crust type of a code.
+     *
+     * @param code The code.
+     * @return The crust type.
+     */
+    public static Crust crust(long code) {
+        return CRUSTS[(int) (code >>> CRUST_SHIFT & FIELD_MASK)];
+    }
+
+    /**
+     * Returns the size of a code.
+     *
+     * @param code The code.
+     * @return The size.
+     */
+    public static Size size(long code) {
+        return SIZES[(int) (code >>> SIZE_SHIFT & FIELD_MASK)];
+    }
+
+    /**
+     * Returns the topping bitmask of a code.
+     *
+     * @param code The code.
+     * @return The topping bitmask, with bit n set for the topping with ordinal n.
+     */
+    public static int toppingMask(long code) {
+        return (int) (code & TOPPING_MASK);
+    }
+
+    /**
+     * Returns the number of toppings in a code.
+     *
+     * @param code The code.
+     * @return The number of toppings.
+     */
+    public static int toppingCount(long code) {
+        return Integer.bitCount(toppingMask(code));
+    }
+
+    /**
+     * Returns the toppings of a code for display, in the order PizzaType.toppings gives them.
+     *
+     * @param code The code.
+     * @return The read-only list of toppings.
+     */
+    public static List<Topping> toppings(long code) {
+        return type(code).toppings(toppingMask(code));
+    }
+
+    /**
+     * Returns the code with a different crust.
+     *
+     * @param code The code.
+     * @param crust The new crust type.
+     * @return The new code.
+     */
+    public static long withCrust(long code, Crust crust) {
+        return code & ~(FIELD_MASK << CRUST_SHIFT) | (long) crust.ordinal() << CRUST_SHIFT;
+    }
+
+    /**
+     * Returns the code with a different size.
+     *
+     * @param code The code.
+     * @param size The new size.
+     * @return The new code.
+     */
+    public static long withSize(long code, Size size) {
+        return code & ~(FIELD_MASK << SIZE_SHIFT) | (long) size.ordinal() << SIZE_SHIFT;
+    }
+
+    /**
+     * Returns the code with different toppings.
+     *
+     * @param code The code.
+     * @param toppings The bitmask of the new toppings.
+     * @return The new code.
+     * @throws IllegalArgumentException if the toppings are not allowed on the pizza type.
+     */
+    public static long withToppings(long code, int toppings) {
+        long changed = code & ~TOPPING_MASK | toppings & TOPPING_MASK;
+        if (toppings >>> TOPPING_BITS != 0 || !isValid(changed)) {
+            throw new IllegalArgumentException(type(code) + " cannot have toppings 0x"
+                    + Integer.toHexString(toppings));
+        }
+        return changed;
+    }
+
+    /**
+     * Looks up the menu price of the pizza described by a code.
+     *
+     * @param code The code.
+     * @return The price in cents.
+     */
+    public static long price(long code) {
+        return PriceTable.MENU.price(type(code), size(code), toppingCount(code));
+    }
+
+    /**
+     * Returns the pizza described by a code. Specialty pizzas are the shared instances, and
+     * Build Your Own pizzas are new objects that may be changed freely.
+     *
+     * @param code The code.
+     * @return The pizza.
+     */
+    public static Pizza toPizza(long code) {
+        return PizzaRegistry.create((int) (code >>> TYPE_SHIFT & FIELD_MASK), crust(code),
+                size(code), toppingMask(code));
+    }
+
+    /**
+     * Returns the display text of the pizza described by a code: its size, crust and toppings.
+     *
+     * @param code The code.
+     * @return a formatted string with the pizza's size, crust, and toppings.
+     */
+    public static String toString(long code) {
+        return toString(code, toppings(code));
+    }
+
+    /**
+     * Returns the display text of the pizza described by a code with its toppings listed in
+     * the given order.
+     *
+     * @param code The code.
+     * @param toppings The code's toppings, in the order to show them.
+     * @return a formatted string with the pizza's size, crust, and toppings.
+     */
+    static String toString(long code, List<Topping> toppings) {
+        StringBuilder text = new StringBuilder(96);
+        text.append("Size: ").append(size(code)).append("\nCrust: ").append(crust(code))
+                .append("\nToppings: ");
+        if (toppingMask(code) == 0) {
+            return text.append("No toppings").toString();
+        }
+        int start = text.length();
+        for (Topping topping : toppings) {
+            if (text.length() > start) {
+                text.append(", ");
+            }
+            text.append(topping);
+        }
+        return text.toString();
+    }
+}
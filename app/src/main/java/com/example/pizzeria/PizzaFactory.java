@@ -2,10 +2,31 @@ package com.example.pizzeria;
 
 /**
  * Public interface containing methods to be implemented by the ChicagoPizza and NYPizza classes.
+ * Each style decides the crust of every pizza type, and creates pizzas by type id through the
+ * PizzaRegistry.
  *
  * @author Frank Garcia
  */
 public interface PizzaFactory {
+    /**
+     * Returns the crust this style uses for a pizza type.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @return The crust type.
+     */
+    Crust getCrust(int typeId);
+
+    /**
+     * Creates a pizza of a type in this style.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @param size The size of the pizza.
+     * @return The pizza.
+     */
+    default Pizza create(int typeId, Size size) {
+        return PizzaRegistry.create(typeId, getCrust(typeId), size);
+    }
+
     Pizza createDeluxe();
     Pizza createMeatzza();
     Pizza createBBQChicken();
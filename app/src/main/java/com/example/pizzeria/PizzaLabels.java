@@ -0,0 +1,79 @@
+package com.example.pizzeria;
+
+/**
+ * Caches the display text of pizzas and order lines by configuration, so lists that show the
+ * same pizzas over and over, such as the order screens while scrolling, reuse one string per
+ * configuration instead of building a new one on every bind.
+ *
+ * The text of a pizza depends only on its PizzaCode, and the text of an order line only on
+ * its code and quantity, so those are the keys. Each cache is a fixed-size direct-mapped
+ * table: a key has exactly one slot, and a newer key that lands in an occupied slot replaces
+ * the older one, so memory stays bounded however many configurations are seen. Entries are
+ * immutable and published through their final fields, so the tables can be read from any
+ * thread without locking; two threads racing on a miss both compute the same text.
+ * @author Jorgeluis Done
+ */
+public final class PizzaLabels {
+    private static final int SLOT_BITS = 8;
+
+    private static final Entry[] PIZZAS = new Entry[1 << SLOT_BITS];
+    private static final Entry[] LINES = new Entry[1 << SLOT_BITS];
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private PizzaLabels() {
+    }
+
+    /**
+     * Returns the display text of a pizza: its size, crust and toppings.
+     *
+     * @param code The PizzaCode of the pizza.
+     * @return The text, shared with every pizza of the same configuration.
+     */
+    public static String pizza(long code) {
+        int slot = slot(code);
+        Entry entry = PIZZAS[slot];
+        if (entry == null || entry.key != code) {
+            entry = new Entry(code, 0, PizzaCode.toString(code));
+            PIZZAS[slot] = entry;
+        }
+        return entry.text;
+    }
+
+    /**
+     * Returns the display text of an order line: the pizza's text followed by the quantity.
+     *
+     * @param code The PizzaCode of the pizza.
+     * @param quantity The number of units on the line.
+     * @return The text, shared with every line of the same configuration and quantity.
+     */
+    public static String line(long code, int quantity) {
+        int slot = slot(code * 31 + quantity);
+        Entry entry = LINES[slot];
+        if (entry == null || entry.key != code || entry.quantity != quantity) {
+            entry = new Entry(code, quantity, pizza(code) + "\nQuantity: " + quantity);
+            LINES[slot] = entry;
+        }
+        return entry.text;
+    }
+
+    private static int slot(long key) {
+        return (int) (key ^ key >>> 32) * 0x9E3779B9 >>> Integer.SIZE - SLOT_BITS;
+    }
+
+    /**
+     * A cached text and the code and quantity it was rendered for.
+     */
+    private static final class Entry {
+        final long key;
+        final int quantity;
+        final String text;
+
+        Entry(long key, int quantity, String text) {
+            this.key = key;
+            this.quantity = quantity;
+            this.text = text;
+        }
+    }
+}
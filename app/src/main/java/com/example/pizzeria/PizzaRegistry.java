@@ -0,0 +1,141 @@
+package com.example.pizzeria;
+
+/**
+ * Registry of how to make each pizza type on the menu, indexed by the type's MenuCatalog id,
+ * so that creating a pizza of any type is a single array lookup instead of a switch over the
+ * types. Adding a pizza type means registering its creator here; nothing that creates or
+ * copies pizzas has to change. Specialty pizzas cannot be changed, so the registry also holds
+ * the one shared instance of each specialty type in every crust and size.
+ * @author Jorgeluis Done
+ */
+public final class PizzaRegistry {
+    /**
+     * Makes pizzas of one type.
+     */
+    public interface Creator {
+        /**
+         * Returns a pizza of the creator's type.
+         *
+         * @param crust The crust type.
+         * @param size The size.
+         * @param toppingMask Bitmask of the toppings. Types with a fixed recipe ignore it.
+         * @return The pizza, which is a shared instance for types that cannot be changed.
+         */
+        Pizza create(Crust crust, Size size, int toppingMask);
+    }
+
+    /**
+     * Makes the shared pizza of a specialty type in one crust and size.
+     */
+    private interface SpecialtyMaker {
+        SpecialtyPizza make(Crust crust, Size size);
+    }
+
+    /**
+     * The creator of each pizza type, indexed by type id.
+     */
+    private static final Creator[] CREATORS = new Creator[MenuCatalog.typeCount()];
+
+    private static final int CRUST_COUNT = Crust.values().length;
+    private static final int SIZE_COUNT = Size.values().length;
+
+    /**
+     * The shared pizza of each specialty type in every crust and size, indexed by
+     * (type id * number of crusts + crust ordinal) * number of sizes + size ordinal. The
+     * entries of Build Your Own are null.
+     */
+    private static final SpecialtyPizza[] SPECIALTIES =
+            new SpecialtyPizza[CREATORS.length * CRUST_COUNT * SIZE_COUNT];
+
+    /**
+     * The simple name of the class each creator makes, indexed by type id.
+     */
+    private static final String[] CLASS_NAMES = new String[CREATORS.length];
+
+    static {
+        registerSpecialty(PizzaType.DELUXE, Deluxe::new);
+        registerSpecialty(PizzaType.MEATZZA, Meatzza::new);
+        registerSpecialty(PizzaType.BBQ_CHICKEN, BBQChicken::new);
+        register(PizzaType.BUILD_YOUR_OWN, BuildYourOwn::new);
+        for (int id = 0; id < CREATORS.length; id++) {
+            if (CREATORS[id] == null) {
+                throw new IllegalStateException("No creator registered for "
+                        + MenuCatalog.type(id));
+            }
+            CLASS_NAMES[id] = create(id, Crust.values()[0], Size.values()[0])
+                    .getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private PizzaRegistry() {
+    }
+
+    private static void register(PizzaType type, Creator creator) {
+        CREATORS[type.ordinal()] = creator;
+    }
+
+    private static void registerSpecialty(PizzaType type, SpecialtyMaker maker) {
+        for (Crust crust : Crust.values()) {
+            for (Size size : Size.values()) {
+                SPECIALTIES[index(type, crust, size)] = maker.make(crust, size);
+            }
+        }
+        register(type, (crust, size, toppings) -> specialty(type, crust, size));
+    }
+
+    private static int index(PizzaType type, Crust crust, Size size) {
+        return (type.ordinal() * CRUST_COUNT + crust.ordinal()) * SIZE_COUNT + size.ordinal();
+    }
+
+    /**
+     * Returns the shared pizza of a specialty type in a crust and size.
+     *
+     * @param type The specialty pizza type.
+     * @param crust The crust type.
+     * @param size The size.
+     * @return The shared pizza, or null if the type is not a specialty.
+     */
+    static SpecialtyPizza specialty(PizzaType type, Crust crust, Size size) {
+        return SPECIALTIES[index(type, crust, size)];
+    }
+
+    /**
+     * Creates a pizza of a type with its recipe, or with no toppings for Build Your Own.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @param crust The crust type.
+     * @param size The size.
+     * @return The pizza.
+     */
+    public static Pizza create(int typeId, Crust crust, Size size) {
+        return CREATORS[typeId].create(crust, size, 0);
+    }
+
+    /**
+     * Creates a pizza of a type with the given toppings.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @param crust The crust type.
+     * @param size The size.
+     * @param toppingMask Bitmask of the toppings, which types with a fixed recipe ignore.
+     * @return The pizza.
+     * @throws IllegalArgumentException if the toppings are not allowed on a Build Your Own pizza.
+     */
+    public static Pizza create(int typeId, Crust crust, Size size, int toppingMask) {
+        return CREATORS[typeId].create(crust, size, toppingMask);
+    }
+
+    /**
+     * Returns the simple name of the class that pizzas of a type are made as, such as
+     * "BuildYourOwn", which is how saved order files name them.
+     *
+     * @param typeId The MenuCatalog id of the pizza type.
+     * @return The class name.
+     */
+    public static String className(int typeId) {
+        return CLASS_NAMES[typeId];
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.pizzeria;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Enum representing the pizza types on the menu together with their menu prices in cents.
+ * Specialty pizzas have a fixed price per size and a fixed recipe of toppings, while Build
+ * Your Own pizzas start at a base price per size and charge extra for every topping added.
+ *
+ * @author Jorgeluis Done
+ */
+public enum PizzaType {
+    DELUXE("Deluxe", 1699, 1899, 2099, 0, Topping.SAUSAGE, Topping.PEPPERONI,
+            Topping.GREENPEPPER, Topping.ONION, Topping.MUSHROOM),
+    MEATZZA("Meatzza", 1799, 1999, 2199, 0, Topping.SAUSAGE, Topping.PEPPERONI,
+            Topping.BEEF, Topping.HAM),
+    BBQ_CHICKEN("BBQ Chicken", 1499, 1699, 1999, 0, Topping.BBQCHICKEN, Topping.GREENPEPPER,
+            Topping.PROVOLONE, Topping.CHEDDAR),
+    BUILD_YOUR_OWN("Build Your Own", 899, 1099, 1299, 169);
+
+    /**
+     * The display-friendly name of the pizza type.
+     */
+    private final String name;
+
+    /**
+     * The menu price of the pizza in cents for each size, indexed by Size ordinal.
+     */
+    private final long[] sizePrices;
+
+    /**
+     * The charge in cents added for every topping on the pizza.
+     */
+    private final long toppingPrice;
+
+    /**
+     * The toppings of the recipe in the order they are listed on the menu.
+     */
+    private final List<Topping> recipe;
+
+    /**
+     * The bitmask of the toppings of the recipe.
+     */
+    private final int recipeMask;
+
+    /**
+     * Initializes the enum with its display name, menu prices and recipe.
+     *
+     * @param name The display name of the pizza type.
+     * @param small The price of a small pizza in cents.
+     * @param medium The price of a medium pizza in cents.
+     * @param large The price of a large pizza in cents.
+     * @param toppingPrice The price charged for each topping in cents.
+     * @param recipe The toppings every pizza of this type comes with, in menu order.
+     */
+    PizzaType(String name, long small, long medium, long large, long toppingPrice,
+              Topping... recipe) {
+        this.name = name;
+        this.sizePrices = new long[]{small, medium, large};
+        this.toppingPrice = toppingPrice;
+        this.recipe = Collections.unmodifiableList(Arrays.asList(recipe));
+        this.recipeMask = Topping.maskOf(recipe);
+    }
+
+    /**
+     * Returns the bitmask of the toppings every pizza of this type comes with.
+     *
+     * @return The recipe's topping bitmask, which is 0 for Build Your Own.
+     */
+    public int recipeMask() {
+        return recipeMask;
+    }
+
+    /**
+     * Returns the toppings in a bitmask for display. A specialty pizza's own recipe is listed
+     * in the order the menu gives it, and any other set of toppings in menu order.
+     *
+     * @param mask The topping bitmask.
+     * @return The read-only list of toppings.
+     */
+    public List<Topping> toppings(int mask) {
+        return mask == recipeMask && !recipe.isEmpty() ? recipe : Topping.listOf(mask);
+    }
+
+    /**
+     * Returns the menu price of the pizza type for the given size, without toppings.
+     *
+     * @param size The size of the pizza.
+     * @return The menu price for the size in cents.
+     */
+    public long sizePrice(Size size) {
+        return sizePrices[size.ordinal()];
+    }
+
+    /**
+     * Returns the price charged for each topping on this pizza type.
+     *
+     * @return The price per topping in cents.
+     */
+    public long toppingPrice() {
+        return toppingPrice;
+    }
+
+    /**
+     * Returns the string form assigned to the enum.
+     *
+     * @return The String form of the enum.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.pizzeria;
+
+/**
+ * Precomputed price table holding the price of every pizza type, size and topping count
+ * combination on the menu in cents in one flat primitive array. The table is built once from
+ * the menu so that pricing a pizza is a single indexed load instead of a switch on its size
+ * every call.
+ *
+ * @author Jorgeluis Done
+ */
+public final class PriceTable {
+    /**
+     * The maximum number of toppings a pizza can hold.
+     */
+    public static final int MAX_TOPPINGS = 7;
+
+    private static final int SIZE_COUNT = Size.values().length;
+    private static final int TOPPING_STRIDE = MAX_TOPPINGS + 1;
+
+    /**
+     * The price table built from the current menu.
+     */
+    public static final PriceTable MENU = new PriceTable(PizzaType.values());
+
+    /**
+     * Prices in cents laid out as [type][size][topping count].
+     */
+    private final long[] prices;
+
+    /**
+     * Builds the price table for the given pizza types.
+     *
+     * @param types The pizza types on the menu, indexed by their ordinal.
+     */
+    private PriceTable(PizzaType[] types) {
+        prices = new long[types.length * SIZE_COUNT * TOPPING_STRIDE];
+        for (PizzaType type : types) {
+            for (Size size : Size.values()) {
+                int row = index(type, size, 0);
+                for (int count = 0; count <= MAX_TOPPINGS; count++) {
+                    prices[row + count] = type.sizePrice(size) + type.toppingPrice() * count;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the price of a pizza with the given type, size and number of toppings.
+     *
+     * @param type The pizza type.
+     * @param size The size of the pizza.
+     * @param toppingCount The number of toppings on the pizza.
+     * @return The price of the pizza in cents.
+     */
+    public long price(PizzaType type, Size size, int toppingCount) {
+        return prices[index(type, size, Math.min(toppingCount, MAX_TOPPINGS))];
+    }
+
+    /**
+     * Computes the position of a price in the flat table.
+     */
+    private static int index(PizzaType type, Size size, int toppingCount) {
+        return (type.ordinal() * SIZE_COUNT + size.ordinal()) * TOPPING_STRIDE + toppingCount;
+    }
+}
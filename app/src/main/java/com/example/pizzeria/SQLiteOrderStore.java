@@ -0,0 +1,360 @@
+package com.example.pizzeria;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Order store keeping the placed orders in a SQLite database, so they survive restarts and do
+ * not take heap space.
+ *
+ * Orders, their lines and the lines' toppings are kept in separate tables, with the type,
+ * crust, size and toppings stored as their enum ordinals. Each row of the pizzas table is one
+ * order line and holds its quantity. Newly placed orders are held in
+ * memory and written in batches: each flush inserts every pending order inside a single
+ * transaction using statements compiled once when the database is opened, so a batch costs one
+ * journal commit instead of one per row.
+ * @author Jorgeluis Done
+ */
+public class SQLiteOrderStore implements OrderStore {
+    /**
+     * The name of the database file in the app's internal storage.
+     */
+    public static final String DATABASE_NAME = "orders.db";
+
+    /**
+     * The number of pending orders that triggers a flush.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String SELECT_ORDERS = "SELECT o.order_number, p.id, p.type, p.crust, "
+            + "p.size, p.quantity, t.topping FROM orders o "
+            + "LEFT JOIN pizzas p ON p.order_number = o.order_number "
+            + "LEFT JOIN pizza_toppings t ON t.pizza_id = p.id ";
+    private static final String ORDER_BY = " ORDER BY o.order_number, p.position, t.topping";
+
+    private final SQLiteDatabase database;
+    private final SQLiteStatement insertOrder;
+    private final SQLiteStatement insertPizza;
+    private final SQLiteStatement insertTopping;
+    private final SQLiteStatement deleteOrder;
+    private final int batchSize;
+
+    /**
+     * The orders placed since the last flush, in placement order, and when each was placed.
+     * There are never more than a batch of them, so they are searched linearly.
+     */
+    private final List<Order> pending = new ArrayList<>();
+    private final long[] pendingPlacedAt;
+
+    /**
+     * Opens the order database in the app's internal storage, creating it if needed.
+     *
+     * @param context The context used to locate the database.
+     */
+    public SQLiteOrderStore(Context context) {
+        this(context, DATABASE_NAME, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Opens an order database, creating it if needed.
+     *
+     * @param context The context used to locate the database.
+     * @param name The name of the database file, or null for a database kept in memory.
+     * @param batchSize The number of pending orders that triggers a flush.
+     */
+    public SQLiteOrderStore(Context context, String name, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.pendingPlacedAt = new long[batchSize];
+        database = new OpenHelper(context.getApplicationContext(), name).getWritableDatabase();
+        insertOrder = database.compileStatement(
+                "INSERT INTO orders (order_number, placed_at, subtotal) VALUES (?, ?, ?)");
+        insertPizza = database.compileStatement(
+                "INSERT INTO pizzas (order_number, position, type, crust, size, quantity) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)");
+        insertTopping = database.compileStatement(
+                "INSERT INTO pizza_toppings (pizza_id, topping) VALUES (?, ?)");
+        deleteOrder = database.compileStatement("DELETE FROM orders WHERE order_number = ?");
+    }
+
+    /**
+     * Stores an order. The order is written with the next batch.
+     *
+     * @param order The order to store.
+     */
+    @Override
+    public synchronized void put(Order order) {
+        removePending(order.getOrderNumber());
+        pendingPlacedAt[pending.size()] = System.currentTimeMillis();
+        pending.add(order);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Retrieves an order by its order number, reading it from the database if it has been
+     * written already.
+     *
+     * @param orderNumber The order number to look up.
+     * @return The order with the specified number, or null if not found.
+     */
+    @Override
+    public synchronized Order get(int orderNumber) {
+        for (Order order : pending) {
+            if (order.getOrderNumber() == orderNumber) {
+                return order;
+            }
+        }
+        List<Order> orders = query("WHERE o.order_number = ?", String.valueOf(orderNumber));
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    /**
+     * Removes an order by its order number. Its lines and toppings are deleted with it. An
+     * order that was stored again after being written is removed from both the pending batch
+     * and the database, and the pending version is returned.
+     *
+     * @param orderNumber The order number of the order to remove.
+     * @return The removed order, or null if not found.
+     */
+    @Override
+    public synchronized Order remove(int orderNumber) {
+        Order order = removePending(orderNumber);
+        if (order == null) {
+            order = get(orderNumber);
+        }
+        if (order != null) {
+            deleteOrder.bindLong(1, orderNumber);
+            deleteOrder.executeUpdateDelete();
+        }
+        return order;
+    }
+
+    /**
+     * Returns the number of stored orders, writing any pending orders first so an order
+     * stored again after being written is counted once.
+     *
+     * @return The number of orders.
+     */
+    @Override
+    public synchronized int size() {
+        flush();
+        return (int) DatabaseUtils.queryNumEntries(database, "orders");
+    }
+
+    /**
+     * Returns the stored orders sorted by order number, writing any pending orders first.
+     *
+     * @return A read-only list of the orders.
+     */
+    @Override
+    public synchronized List<Order> snapshot() {
+        flush();
+        return Collections.unmodifiableList(query(""));
+    }
+
+    /**
+     * Returns the numbers of the stored orders in ascending order, read from the primary key
+     * index without loading any lines.
+     *
+     * @return The array of order numbers.
+     */
+    @Override
+    public synchronized int[] orderNumbers() {
+        flush();
+        try (Cursor cursor = database.rawQuery(
+                "SELECT order_number FROM orders ORDER BY order_number", null)) {
+            int[] numbers = new int[cursor.getCount()];
+            for (int i = 0; cursor.moveToNext(); i++) {
+                numbers[i] = cursor.getInt(0);
+            }
+            return numbers;
+        }
+    }
+
+    /**
+     * Writes every pending order, with its lines and toppings, in a single transaction.
+     */
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        database.beginTransaction();
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                insert(pending.get(i), pendingPlacedAt[i]);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        pending.clear();
+    }
+
+    /**
+     * Writes any pending orders and closes the database.
+     */
+    public synchronized void close() {
+        flush();
+        database.close();
+    }
+
+    /**
+     * Removes an order from the pending batch, keeping the placement times in step.
+     *
+     * @return The removed order, or null if it was not pending.
+     */
+    private Order removePending(int orderNumber) {
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).getOrderNumber() == orderNumber) {
+                System.arraycopy(pendingPlacedAt, i + 1, pendingPlacedAt, i, pending.size() - i - 1);
+                return pending.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts one order with the precompiled statements. Must be called inside a transaction.
+     */
+    private void insert(Order order, long placedAt) {
+        int orderNumber = order.getOrderNumber();
+        // Replacing an order also replaces its lines, which the foreign keys delete
+        deleteOrder.bindLong(1, orderNumber);
+        deleteOrder.executeUpdateDelete();
+        insertOrder.bindLong(1, orderNumber);
+        insertOrder.bindLong(2, placedAt);
+        insertOrder.bindLong(3, order.getSubtotal());
+        insertOrder.executeInsert();
+        for (int position = 0; position < order.getLineCount(); position++) {
+            long code = order.getLineCode(position);
+            insertPizza.bindLong(1, orderNumber);
+            insertPizza.bindLong(2, position);
+            insertPizza.bindLong(3, PizzaCode.type(code).ordinal());
+            insertPizza.bindLong(4, PizzaCode.crust(code).ordinal());
+            insertPizza.bindLong(5, PizzaCode.size(code).ordinal());
+            insertPizza.bindLong(6, order.getLineQuantity(position));
+            long pizzaId = insertPizza.executeInsert();
+            for (Topping topping : PizzaCode.toppings(code)) {
+                insertTopping.bindLong(1, pizzaId);
+                insertTopping.bindLong(2, topping.ordinal());
+                insertTopping.executeInsert();
+            }
+        }
+    }
+
+    /**
+     * Reads orders with their lines and toppings, one row per topping, and groups the rows
+     * back into orders.
+     */
+    private List<Order> query(String where, String... args) {
+        List<Order> orders = new ArrayList<>();
+        try (Cursor cursor = database.rawQuery(SELECT_ORDERS + where + ORDER_BY,
+                args.length == 0 ? null : args)) {
+            Order order = null;
+            long pizzaId = -1;
+            int type = 0;
+            int crust = 0;
+            int size = 0;
+            int quantity = 0;
+            int toppings = 0;
+            while (cursor.moveToNext()) {
+                int rowOrder = cursor.getInt(0);
+                long rowPizza = cursor.isNull(1) ? -1 : cursor.getLong(1);
+                if (order != null && (rowOrder != order.getOrderNumber() || rowPizza != pizzaId)) {
+                    if (pizzaId != -1) {
+                        order.addPizzaCode(pizzaCode(type, crust, size, toppings), quantity);
+                    }
+                    if (rowOrder != order.getOrderNumber()) {
+                        orders.add(order);
+                        order = null;
+                    }
+                }
+                if (order == null) {
+                    order = new Order(rowOrder, Collections.emptyList());
+                }
+                if (rowPizza != pizzaId) {
+                    pizzaId = rowPizza;
+                    type = cursor.isNull(2) ? 0 : cursor.getInt(2);
+                    crust = cursor.isNull(3) ? 0 : cursor.getInt(3);
+                    size = cursor.isNull(4) ? 0 : cursor.getInt(4);
+                    quantity = cursor.isNull(5) ? 1 : cursor.getInt(5);
+                    toppings = 0;
+                }
+                if (!cursor.isNull(6)) {
+                    toppings |= 1 << cursor.getInt(6);
+                }
+            }
+            if (order != null) {
+                if (pizzaId != -1) {
+                    order.addPizzaCode(pizzaCode(type, crust, size, toppings), quantity);
+                }
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private static long pizzaCode(int type, int crust, int size, int toppings) {
+        try {
+            return OrderCodec.pizzaCode(type, crust, size, toppings);
+        } catch (StreamCorruptedException e) {
+            throw new IllegalStateException("Order database holds an unknown pizza", e);
+        }
+    }
+
+    /**
+     * Creates the order tables and indexes and turns on foreign keys, so deleting an order
+     * deletes its lines and toppings.
+     */
+    private static final class OpenHelper extends SQLiteOpenHelper {
+        OpenHelper(Context context, String name) {
+            super(context, name, null, DATABASE_VERSION);
+        }
+
+        @Override
+        public void onConfigure(SQLiteDatabase db) {
+            db.setForeignKeyConstraintsEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            for (String statement : Arrays.asList(
+                    "CREATE TABLE orders (order_number INTEGER PRIMARY KEY, "
+                            + "placed_at INTEGER NOT NULL, subtotal INTEGER NOT NULL)",
+                    "CREATE TABLE pizzas (id INTEGER PRIMARY KEY, "
+                            + "order_number INTEGER NOT NULL REFERENCES orders(order_number) "
+                            + "ON DELETE CASCADE, position INTEGER NOT NULL, type INTEGER NOT NULL, "
+                            + "crust INTEGER NOT NULL, size INTEGER NOT NULL, "
+                            + "quantity INTEGER NOT NULL)",
+                    "CREATE TABLE pizza_toppings (pizza_id INTEGER NOT NULL REFERENCES pizzas(id) "
+                            + "ON DELETE CASCADE, topping INTEGER NOT NULL, "
+                            + "PRIMARY KEY (pizza_id, topping))",
+                    "CREATE INDEX orders_placed_at ON orders (placed_at)",
+                    "CREATE INDEX pizzas_order_number ON pizzas (order_number, position)")) {
+                db.execSQL(statement);
+            }
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Version 1 is the only schema so far, so there is nothing to upgrade from
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.pizzeria;
+
+/**
+ * Base class of the specialty pizzas, whose toppings are fixed by their recipe. They cannot be
+ * changed, so PizzaRegistry makes one instance per type, crust and size when it loads, and
+ * every order shares those instances.
+ * @author Jorgeluis Done
+ */
+public abstract class SpecialtyPizza extends Pizza {
+
+    /**
+     * Constructs a specialty pizza with its type's recipe. Only PizzaRegistry makes them.
+     *
+     * @param type The specialty pizza type.
+     * @param crust The crust type.
+     * @param size The size.
+     */
+    SpecialtyPizza(PizzaType type, Crust crust, Size size) {
+        super(PizzaCode.of(type, crust, size, type.recipeMask()));
+    }
+
+    /**
+     * Returns the shared pizza of this type with the specified crust and this pizza's size.
+     *
+     * @param crust The crust type of the new pizza.
+     * @return The shared pizza.
+     */
+    @Override
+    public Pizza withCrust(Crust crust) {
+        return PizzaRegistry.specialty(getType(), crust, getSize());
+    }
+
+    /**
+     * Returns the shared pizza of this type with this pizza's crust in the specified size.
+     *
+     * @param size The size of the new pizza.
+     * @return The shared pizza.
+     */
+    @Override
+    public Pizza withSize(Size size) {
+        return PizzaRegistry.specialty(getType(), getCrust(), size);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.pizzeria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe store of placed orders split into independently locked stripes, so terminals
+ * placing, looking up, or cancelling different orders rarely wait on each other.
+ * Each stripe is an OrderIndex and order numbers are spread across stripes by their low bits,
+ * which sends consecutively numbered orders to different stripes.
+ * @author Jorgeluis Done
+ */
+public final class StripedOrderStore implements OrderStore {
+    /**
+     * The stripes holding the orders. Each stripe is used as its own lock.
+     */
+    private final OrderIndex[] stripes;
+
+    /**
+     * Mask selecting the stripe for an order number.
+     */
+    private final int mask;
+
+    /**
+     * Constructs a store with at least the given number of stripes, rounded up to a power of two.
+     * @param concurrencyLevel The number of threads expected to use the store at the same time.
+     */
+    public StripedOrderStore(int concurrencyLevel) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level must be positive: " + concurrencyLevel);
+        }
+        int stripeCount = Integer.highestOneBit(concurrencyLevel);
+        if (stripeCount < concurrencyLevel) {
+            stripeCount <<= 1;
+        }
+        stripes = new OrderIndex[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new OrderIndex();
+        }
+        mask = stripeCount - 1;
+    }
+
+    /**
+     * Stores an order, replacing any stored order with the same number.
+     * @param order The order to store.
+     */
+    @Override
+    public void put(Order order) {
+        OrderIndex stripe = stripeFor(order.getOrderNumber());
+        synchronized (stripe) {
+            stripe.put(order);
+        }
+    }
+
+    /**
+     * Retrieves an order by its order number.
+     * @param orderNumber The order number to look up.
+     * @return The order with the specified number, or null if not found.
+     */
+    @Override
+    public Order get(int orderNumber) {
+        OrderIndex stripe = stripeFor(orderNumber);
+        synchronized (stripe) {
+            return stripe.get(orderNumber);
+        }
+    }
+
+    /**
+     * Removes an order by its order number.
+     * @param orderNumber The order number of the order to remove.
+     * @return The removed order, or null if no order had that number.
+     */
+    @Override
+    public Order remove(int orderNumber) {
+        OrderIndex stripe = stripeFor(orderNumber);
+        synchronized (stripe) {
+            return stripe.remove(orderNumber);
+        }
+    }
+
+    /**
+     * Returns the number of orders stored. Orders placed or cancelled while counting
+     * may or may not be included.
+     * @return The number of orders.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (OrderIndex stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the stored orders sorted by order number.
+     * @return A read-only list of the stored orders.
+     */
+    @Override
+    public List<Order> snapshot() {
+        List<Order> orders = new ArrayList<>();
+        for (OrderIndex stripe : stripes) {
+            synchronized (stripe) {
+                orders.addAll(stripe.values());
+            }
+        }
+        Collections.sort(orders, (a, b) -> Integer.compare(a.getOrderNumber(), b.getOrderNumber()));
+        return Collections.unmodifiableList(orders);
+    }
+
+    /**
+     * Passes every stored order to an action, one stripe at a time while holding that
+     * stripe's lock, without copying or sorting. Orders placed or cancelled meanwhile may or
+     * may not be included. The action must not use the store.
+     * @param action The action to perform on each order.
+     */
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        for (OrderIndex stripe : stripes) {
+            synchronized (stripe) {
+                stripe.values().forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted order numbers of the stored orders.
+     * @return The array of order numbers.
+     */
+    @Override
+    public int[] orderNumbers() {
+        int[][] perStripe = new int[stripes.length][];
+        int total = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                perStripe[i] = stripes[i].orderNumbers();
+            }
+            total += perStripe[i].length;
+        }
+        int[] numbers = new int[total];
+        int next = 0;
+        for (int[] stripeNumbers : perStripe) {
+            System.arraycopy(stripeNumbers, 0, numbers, next, stripeNumbers.length);
+            next += stripeNumbers.length;
+        }
+        Arrays.sort(numbers);
+        return numbers;
+    }
+
+    private OrderIndex stripeFor(int orderNumber) {
+        return stripes[orderNumber & mask];
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.pizzeria;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Enum representing available pizza toppings with display-friendly names.
  */
@@ -15,6 +19,16 @@ public enum Topping {
     BEEF("Beef"),
     HAM("Ham");
 
+    /**
+     * The toppings in menu order, shared instead of cloning values() on every call.
+     */
+    private static final Topping[] VALUES = values();
+
+    /**
+     * Read-only topping lists for every topping bitmask, each built the first time it is needed.
+     */
+    private static final List<?>[] LISTS = new List<?>[1 << VALUES.length];
+
     /**
      * The display-friendly name of the topping.
      */
@@ -40,18 +54,67 @@ public enum Topping {
     }
 
     /**
-     * Converts a string to a corresponding Topping enum, matching by display name.
+     * Returns the bit representing this topping in a topping bitmask, which is bit n for the
+     * topping with ordinal n.
+     *
+     * @return the bitmask holding only this topping.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the toppings in a topping bitmask in menu order. The same read-only list is
+     * returned every time for the same bitmask.
+     *
+     * @param mask the topping bitmask.
+     * @return the read-only list of toppings.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Topping> listOf(int mask) {
+        List<Topping> list = (List<Topping>) LISTS[mask];
+        if (list == null) {
+            Topping[] toppings = new Topping[Integer.bitCount(mask)];
+            int next = 0;
+            for (Topping topping : VALUES) {
+                if ((mask & topping.mask()) != 0) {
+                    toppings[next++] = topping;
+                }
+            }
+            // Racing threads build equal lists, and final fields make either one safe to share
+            list = Collections.unmodifiableList(Arrays.asList(toppings));
+            LISTS[mask] = list;
+        }
+        return list;
+    }
+
+    /**
+     * Returns the bitmask of the given toppings.
+     *
+     * @param toppings the toppings.
+     * @return the topping bitmask.
+     */
+    public static int maskOf(Topping... toppings) {
+        int mask = 0;
+        for (Topping topping : toppings) {
+            mask |= topping.mask();
+        }
+        return mask;
+    }
+
+    /**
+     * Converts a string to a corresponding Topping enum, matching by name through the
+     * MenuCatalog's name lookup, which ignores case, spaces and punctuation.
      *
      * @param text the display name to match.
      * @return the Topping enum corresponding to the given display name.
      * @throws IllegalArgumentException if no matching Topping is found.
      */
     public static Topping fromString(String text) {
-        for (Topping topping : Topping.values()) {
-            if (topping.displayIngredient.equalsIgnoreCase(text)) {
-                return topping;
-            }
+        int id = MenuCatalog.findTopping(text);
+        if (id < 0) {
+            throw new IllegalArgumentException("No enum constant for " + text);
         }
-        throw new IllegalArgumentException("No enum constant for " + text);
+        return MenuCatalog.topping(id);
     }
 }
\ No newline at end of file
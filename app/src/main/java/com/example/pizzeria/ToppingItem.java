@@ -7,19 +7,22 @@ package com.example.pizzeria;
  */
 public class ToppingItem {
     private String toppingName, toppingPrice;
+    private int toppingId;
     private int image;
     private String selectionStatus;
     private final String TOPPINGPRICE = "$1.69";
 
     /**
      * This constructor initializes the ToppingItem instance with the details of the topping, which
-     * include the name, the image id, and the selection status of the topping.
+     * include the name, the menu id, the image id, and the selection status of the topping.
      * @param toppingName The name of the topping.
+     * @param toppingId The MenuCatalog id of the topping.
      * @param image The image id of the topping.
      * @param selectionStatus The selection status of whether the topping is added to the order.
      */
-    public ToppingItem (String toppingName, int image, String selectionStatus) {
+    public ToppingItem (String toppingName, int toppingId, int image, String selectionStatus) {
         this.toppingName = toppingName;
+        this.toppingId = toppingId;
         this.toppingPrice = TOPPINGPRICE;
         this.image = image;
         this.selectionStatus = selectionStatus;
@@ -38,6 +41,12 @@ public class ToppingItem {
      */
     public String getToppingName() { return this.toppingName; }
 
+    /**
+     * Returns the MenuCatalog id of the topping.
+     * @return The id of the topping.
+     */
+    public int getToppingId() { return this.toppingId; }
+
     /**
      * Returns the topping price.
      * @return The price of the topping.
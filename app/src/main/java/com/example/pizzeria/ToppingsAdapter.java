@@ -21,16 +21,29 @@ import java.util.List;
 
 /**
  * Adapter class for instantiating the adapter for the RecyclerView.
+ *
+ * Toppings never move in the list, so each item has a stable id, its topping id, and changes
+ * to selections are found by comparing each item's old and new state in place. Only the cards
+ * whose state changed are rebound, with a payload that updates just the selection label, price
+ * text and button state, so the topping name and image are set only when a card is first bound.
+ * Images go through the shared ImageLoader, which decodes them off the main thread at the size
+ * of the card and reuses them across both style menus.
  * @author Frank Garcia
  */
 public class ToppingsAdapter extends RecyclerView.Adapter<ToppingsAdapter.ToppingsHolder> {
+    /**
+     * Payload for rebinding only the selection label, price text and button state of a card.
+     */
+    static final Object PAYLOAD_SELECTION = new Object();
+
     private Context context;
     private onToppingsInteractionsListener listener;
     private ArrayList<ToppingItem> toppings;
-    private Topping topping;
     private int toppingCount;
     private boolean buttonEnabled = true;
     private AppCompatActivity activityClass;
+    private final ImageLoader imageLoader;
+    private final int imageSize;
 
     /**
      * Constructor for the toppings adapter which takes in the context accessing the adapter
@@ -46,47 +59,111 @@ public class ToppingsAdapter extends RecyclerView.Adapter<ToppingsAdapter.Toppin
         this.listener = listener;
         this.activityClass = activityClass;
         toppingCount = 0;
+        imageLoader = GlobalDataManager.getInstance().getImageLoader(context);
+        imageSize = context.getResources().getDimensionPixelSize(R.dimen.topping_image_size);
+        setHasStableIds(true);
     }
 
     /**
      * Sets the buttonEnabled boolean value to true.
      */
     public void enableSelectButtons() {
-        buttonEnabled = true;
+        setButtonsEnabled(true);
     }
 
+    /**
+     * Sets the buttonEnabled boolean value to false.
+     */
     public void disableSelectButtons() {
-        buttonEnabled = false;
+        setButtonsEnabled(false);
     }
 
     /**
-     * Updates the strings of the addRemove buttons if its corresponding topping is in the list
-     * of toppings.
+     * Sets whether the select buttons respond to clicks, rebinding the button state of every
+     * card if it changed.
+     * @param enabled True if the buttons should respond to clicks.
      */
-    public void updateSelections(List<String> toppingsList) {
-        for (ToppingItem topping : toppings) {
-            if (toppingsList.contains(topping.getToppingName())) topping.setSelected(true);
-            else topping.setSelected(false);
-            topping.setToppingPrice("");
+    private void setButtonsEnabled(boolean enabled) {
+        if (buttonEnabled != enabled) {
+            buttonEnabled = enabled;
+            notifyItemRangeChanged(0, toppings.size(), PAYLOAD_SELECTION);
         }
-        notifyDataSetChanged();
     }
 
     /**
-     * Sets the buttonEnabled boolean value to false.
+     * Updates the strings of the addRemove buttons if its corresponding topping is in the
+     * bitmask of toppings.
+     * @param toppingMask The bitmask of the pizza's toppings, with bit n set for topping id n.
+     */
+    public void updateSelections(int toppingMask) {
+        for (int i = 0; i < toppings.size(); i++) {
+            ToppingItem topping = toppings.get(i);
+            boolean selected = (toppingMask & 1 << topping.getToppingId()) != 0;
+            if (topping.isSelected() != selected || !topping.getToppingPrice().isEmpty()) {
+                topping.setSelected(selected);
+                topping.setToppingPrice("");
+                notifyItemChanged(i, PAYLOAD_SELECTION);
+            }
+        }
+    }
+
+    /**
+     * Unselects every topping and restores the topping prices, rebinding only the cards that
+     * changed.
      */
     public void resetSelections() {
-        for (ToppingItem topping : toppings) {
-            topping.setSelected(false);
-            listener.unselectTopping(Topping.fromString(topping.getToppingName()));
+        for (int i = 0; i < toppings.size(); i++) {
+            ToppingItem topping = toppings.get(i);
+            boolean changed = topping.isSelected();
+            if (topping.isSelected()) {
+                topping.setSelected(false);
+                listener.unselectTopping(MenuCatalog.topping(topping.getToppingId()));
+            }
+            String price = topping.getToppingPrice();
             topping.resetPrice();
+            if (changed || !price.equals(topping.getToppingPrice())) {
+                notifyItemChanged(i, PAYLOAD_SELECTION);
+            }
         }
         toppingCount = 0;
-        notifyDataSetChanged();
     }
 
     /**
-     * Method that inflates the row layout for the items in the RecyclerView.
+     * Selects or unselects the topping at a position when its button is clicked.
+     * @param position The position of the topping in the list.
+     */
+    private void toggleSelection(int position) {
+        ToppingItem toppingItem = toppings.get(position);
+        if (toppingItem.isSelected()) {
+            toppingItem.setSelected(false);
+            listener.unselectTopping(MenuCatalog.topping(toppingItem.getToppingId()));
+            toppingCount--;
+        } else if (toppingCount >= PriceTable.MAX_TOPPINGS) {
+            Toast.makeText(context,
+                    "Cannot add anymore toppings. Maximum 7 toppings allowed.",
+                    Toast.LENGTH_SHORT).show();
+            return;
+        } else {
+            toppingItem.setSelected(true);
+            listener.selectTopping(MenuCatalog.topping(toppingItem.getToppingId()));
+            toppingCount++;
+        }
+        notifyItemChanged(position, PAYLOAD_SELECTION);
+    }
+
+    /**
+     * Returns the stable id of the item at a position, which is its topping id.
+     * @param position The position of the item within the adapter's data set.
+     * @return The topping id of the item.
+     */
+    @Override
+    public long getItemId(int position) {
+        return toppings.get(position).getToppingId();
+    }
+
+    /**
+     * Method that inflates the row layout for the items in the RecyclerView and attaches the
+     * holder's one click listener, which looks up the holder's current position when clicked.
      * @param parent The ViewGroup into which the new View will be added after it is bound to
      *               an adapter position.
      * @param viewType The view type of the new View.
@@ -98,12 +175,19 @@ public class ToppingsAdapter extends RecyclerView.Adapter<ToppingsAdapter.Toppin
     public ToppingsHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         LayoutInflater inflater = LayoutInflater.from(context);
         View view = inflater.inflate(R.layout.topping_card, parent, false);
-        return new ToppingsHolder(view);
+        ToppingsHolder holder = new ToppingsHolder(view);
+        holder.addRemove.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (buttonEnabled && position != RecyclerView.NO_POSITION) {
+                toggleSelection(position);
+            }
+        });
+        return holder;
     }
 
     /**
      * Assigns data values for each row according to their "position" when the item becomes
-     * visible on the screen and handles their behavior when clicked by the user.
+     * visible on the screen.
      * @param holder The ViewHolder which should be updated to represent the contents of the
      *        item at the given position in the data set.
      * @param position The position of the item within the adapter's data set.
@@ -111,34 +195,37 @@ public class ToppingsAdapter extends RecyclerView.Adapter<ToppingsAdapter.Toppin
     @Override
     public void onBindViewHolder(@NonNull ToppingsHolder holder, int position) {
         ToppingItem toppingItem = toppings.get(position);
-        holder.toppingName.setText(toppings.get(position).getToppingName());
-        holder.toppingPrice.setText(toppings.get(position).getToppingPrice());
-        holder.toppingImage.setImageResource(toppings.get(position).getImage());
+        holder.toppingName.setText(toppingItem.getToppingName());
+        imageLoader.load(holder.toppingImage, toppingItem.getImage(), imageSize, imageSize);
+        bindSelection(holder, toppingItem);
+    }
+
+    /**
+     * Updates only the selection label, price text and button state of a row when it is
+     * rebound with a selection payload, leaving its name and image alone.
+     * @param holder The ViewHolder which should be updated.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The payloads of the changes, empty for a full rebind.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ToppingsHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindSelection(holder, toppings.get(position));
+        }
+    }
 
+    /**
+     * Sets the selection label, price text and button state of a row.
+     * @param holder The ViewHolder to update.
+     * @param toppingItem The topping shown in the row.
+     */
+    private void bindSelection(ToppingsHolder holder, ToppingItem toppingItem) {
+        holder.toppingPrice.setText(toppingItem.getToppingPrice());
         holder.addRemove.setText(toppingItem.isSelected() ? "Selected" : "Unselected");
         holder.addRemove.setClickable(buttonEnabled);
-
-        if (buttonEnabled) {
-            holder.addRemove.setOnClickListener(v -> {
-                if (toppingItem.isSelected()) {
-                    toppingItem.setSelected(false);
-                    holder.addRemove.setText("Unselected");
-                    listener.unselectTopping(Topping.fromString(toppingItem.getToppingName()));
-                    toppingCount--;
-                } else {
-                    if (toppingCount >= 7) {
-                        Toast.makeText(context,
-                                "Cannot add anymore toppings. Maximum 7 toppings allowed.",
-                                Toast.LENGTH_SHORT).show();
-                    } else {
-                        toppingItem.setSelected(true);
-                        holder.addRemove.setText("Selected");
-                        listener.selectTopping(Topping.fromString(toppingItem.getToppingName()));
-                        toppingCount++;
-                    }
-                }
-            });
-        }
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for BuildYourOwn, mainly that the pizza lists its toppings in the order they were
+ * picked without that order changing its identity.
+ * @author Jorgeluis Done
+ */
+public class BuildYourOwnTest {
+    @Test
+    public void listsToppingsInTheOrderTheyWerePicked() {
+        BuildYourOwn pizza = picked(Topping.MUSHROOM, Topping.SAUSAGE, Topping.HAM);
+
+        assertEquals(Arrays.asList(Topping.MUSHROOM, Topping.SAUSAGE, Topping.HAM),
+                pizza.getToppings());
+        assertTrue(pizza.toString().endsWith("Toppings: Mushroom, Sausage, Ham"));
+        assertEquals(Topping.maskOf(Topping.HAM, Topping.SAUSAGE, Topping.MUSHROOM),
+                pizza.getToppingMask());
+    }
+
+    @Test
+    public void removingAToppingKeepsTheOrderOfTheOthers() {
+        BuildYourOwn pizza = picked(Topping.ONION, Topping.BEEF, Topping.SAUSAGE, Topping.CHEDDAR);
+
+        pizza.removeTopping(Topping.BEEF);
+        pizza.addTopping(Topping.BEEF);
+        pizza.removeTopping(Topping.ONION);
+
+        assertEquals(Arrays.asList(Topping.SAUSAGE, Topping.CHEDDAR, Topping.BEEF),
+                pizza.getToppings());
+        assertEquals(3, pizza.getToppingCount());
+    }
+
+    @Test
+    public void removingEveryToppingLeavesNone() {
+        BuildYourOwn pizza = picked(Topping.HAM);
+        pizza.removeTopping(Topping.HAM);
+
+        assertEquals(Collections.emptyList(), pizza.getToppings());
+        assertEquals(new BuildYourOwn(Crust.PAN, Size.SMALL), pizza);
+    }
+
+    @Test
+    public void toppingsSetByMaskAreListedInMenuOrderThenPicksFollow() {
+        BuildYourOwn pizza = new BuildYourOwn(Crust.PAN, Size.SMALL,
+                Topping.maskOf(Topping.HAM, Topping.SAUSAGE));
+        assertEquals(Arrays.asList(Topping.SAUSAGE, Topping.HAM), pizza.getToppings());
+
+        pizza.addTopping(Topping.ONION);
+
+        assertEquals(Arrays.asList(Topping.SAUSAGE, Topping.HAM, Topping.ONION),
+                pizza.getToppings());
+    }
+
+    @Test
+    public void changingCrustOrSizeKeepsThePickOrder() {
+        BuildYourOwn pizza = picked(Topping.HAM, Topping.ONION);
+
+        assertEquals(pizza.getToppings(), pizza.withCrust(Crust.THIN).getToppings());
+        assertEquals(pizza.getToppings(), pizza.withSize(Size.LARGE).getToppings());
+        assertEquals(pizza.getToppings(), pizza.copy().getToppings());
+        assertTrue(pizza.copy().toString().endsWith("Toppings: Ham, Onion"));
+    }
+
+    @Test
+    public void pickOrderIsNotPartOfThePizzasIdentity() {
+        BuildYourOwn first = picked(Topping.HAM, Topping.ONION);
+        BuildYourOwn second = picked(Topping.ONION, Topping.HAM);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.getCode(), second.getCode());
+        assertEquals(first.price(), second.price());
+        assertEquals(first, PizzaCode.toPizza(first.getCode()));
+    }
+
+    @Test
+    public void pizzasPickedInADifferentOrderShareAnOrderLineListedInMenuOrder() {
+        Order order = new Order(1, Arrays.asList(picked(Topping.BEEF, Topping.PROVOLONE),
+                picked(Topping.PROVOLONE, Topping.BEEF)));
+
+        assertEquals(1, order.getLineCount());
+        assertEquals(2, order.getLineQuantity(0));
+        assertTrue(order.getLines().get(0).toString().contains("Toppings: Provolone, Beef\n"));
+    }
+
+    @Test
+    public void toppingLimitStillApplies() {
+        BuildYourOwn pizza = new BuildYourOwn(Crust.PAN, Size.SMALL);
+        for (Topping topping : Topping.values()) {
+            pizza.addTopping(topping);
+        }
+
+        assertEquals(PriceTable.MAX_TOPPINGS, pizza.getToppingCount());
+        assertEquals(Arrays.asList(Topping.values()).subList(0, PriceTable.MAX_TOPPINGS),
+                pizza.getToppings());
+    }
+
+    private static BuildYourOwn picked(Topping... toppings) {
+        BuildYourOwn pizza = new BuildYourOwn(Crust.PAN, Size.SMALL);
+        for (Topping topping : toppings) {
+            pizza.addTopping(topping);
+        }
+        return pizza;
+    }
+}
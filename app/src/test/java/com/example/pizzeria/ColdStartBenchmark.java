@@ -0,0 +1,82 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Measures cold start, recovering the order history into a new OrderManager and reading the
+ * order count and sales total the main screen needs, with 10k, 100k and 1M stored orders.
+ * Each history has 100 cancellations saved in a segment and 200 orders left in the journal.
+ * For comparison it also times decoding every archived order, which is what loading the
+ * whole history eagerly costs.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class ColdStartBenchmark {
+    private static final int[] HISTORY_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void coldStartByHistorySize() throws Exception {
+        for (int history : HISTORY_SIZES) {
+            File directory = folder.newFolder("history-" + history);
+            writeHistory(directory, history);
+            int expected = history + 200 - 100;
+
+            long lazyNanos = Long.MAX_VALUE;
+            long eagerNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                OrderManager manager = new OrderManager();
+                try (OrderRecovery recovery = new OrderRecovery(directory, manager)) {
+                    recovery.recover();
+                    assertEquals(expected, manager.getOrderCount());
+                    manager.calculateTotalSales();
+                    lazyNanos = Math.min(lazyNanos, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    assertEquals(expected, manager.getAllOrders().size());
+                    eagerNanos = Math.min(eagerNanos, System.nanoTime() - start);
+                }
+            }
+            System.out.printf("%,9d orders: cold start %.1f ms, decoding every order %.1f ms%n",
+                    history, lazyNanos / 1e6, eagerNanos / 1e6);
+        }
+    }
+
+    private static void writeHistory(File directory, int history) throws Exception {
+        OrderManager manager = new OrderManager();
+        try (OrderRecovery recovery = new OrderRecovery(directory, manager)) {
+            recovery.recover();
+            place(manager, history);
+            recovery.saveChanges(); // merges the history into the archive
+            for (int number = 1; number <= 100; number++) {
+                manager.cancelOrder(number * (history / 100));
+            }
+            recovery.saveChanges();
+            place(manager, 200);
+        }
+    }
+
+    private static void place(OrderManager manager, int count) {
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(0, Collections.singletonList(
+                    Deluxe.of(Crust.DEEP_DISH, Size.values()[i % 3])));
+            order.addPizza(new BuildYourOwn(Crust.PAN, Size.SMALL,
+                    Topping.maskOf(Topping.HAM, Topping.ONION)), i % 4 + 1);
+            manager.placeOrder(order);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.widget.ImageView;
+
+import com.example.rupizzaria.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+
+/**
+ * Tests that the shared ImageLoader decodes each image once and serves it from the cache to
+ * every screen that shows it, run on Robolectric with the real style menu activities.
+ * @author Jorgeluis Done
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ImageLoaderTest {
+    @Test
+    public void toppingImagesAreReusedAcrossStyleMenus() throws InterruptedException {
+        ImageLoader loader = GlobalDataManager.getInstance()
+                .getImageLoader(RuntimeEnvironment.getApplication());
+
+        ActivityController<ChicagoStyleMenuActivity> chicago =
+                Robolectric.buildActivity(ChicagoStyleMenuActivity.class).setup();
+        awaitDecodes(loader);
+        long chicagoDecodes = loader.getDecodeCount();
+        int chicagoHits = loader.getHitCount();
+        assertTrue(chicagoDecodes > 1);
+        chicago.pause().stop().destroy();
+
+        Robolectric.buildActivity(NYPizzaStyleMenuActivity.class).setup();
+        awaitDecodes(loader);
+
+        // Only the NY header picture is new; every topping card comes from the cache
+        assertEquals(chicagoDecodes + 1, loader.getDecodeCount());
+        assertTrue(loader.getHitCount() > chicagoHits);
+    }
+
+    @Test
+    public void repeatedRequestsForAnImageDecodeItOnce() throws InterruptedException {
+        ImageLoader loader = new ImageLoader(RuntimeEnvironment.getApplication().getResources(),
+                Runnable::run, 1024);
+        ImageView first = new ImageView(RuntimeEnvironment.getApplication());
+        ImageView second = new ImageView(RuntimeEnvironment.getApplication());
+
+        loader.load(first, R.drawable.ny_pizza, 64, 64);
+        loader.load(second, R.drawable.ny_pizza, 64, 64);
+        awaitDecodes(loader);
+        loader.load(first, R.drawable.ny_pizza, 64, 64);
+
+        assertEquals(1, loader.getDecodeCount());
+        assertTrue(loader.getHitCount() >= 1);
+        assertEquals(0, loader.getPendingDecodeCount());
+    }
+
+    /**
+     * Waits for the background decodes to finish and delivers their results on the main
+     * looper.
+     */
+    private static void awaitDecodes(ImageLoader loader) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        do {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(10);
+        } while (loader.getPendingDecodeCount() > 0 && System.currentTimeMillis() < deadline);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(0, loader.getPendingDecodeCount());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+import java.util.Locale;
+
+/**
+ * Unit tests for MenuCatalog's name lookup.
+ * @author Jorgeluis Done
+ */
+public class MenuCatalogTest {
+    private static final Enum<?>[][] MENU = {Topping.values(), Crust.values(), Size.values(),
+            PizzaType.values()};
+
+    @Test
+    public void findsEveryItemByItsDisplayAndConstantNames() {
+        for (Enum<?>[] items : MENU) {
+            for (Enum<?> item : items) {
+                assertFound(item.ordinal(), find(items, item.toString()), item.toString());
+                assertFound(item.ordinal(), find(items, item.name()), item.name());
+            }
+        }
+    }
+
+    @Test
+    public void findsEveryItemByNormalizedVariantsOfItsNames() {
+        for (Enum<?>[] items : MENU) {
+            for (Enum<?> item : items) {
+                for (String name : new String[] {item.toString(), item.name()}) {
+                    for (String variant : new String[] {name.toLowerCase(Locale.ROOT),
+                            name.toUpperCase(Locale.ROOT), name.replace(' ', '_'),
+                            name.replace('_', ' '), " " + name + "!"}) {
+                        assertFound(item.ordinal(), find(items, variant), variant);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ignoresCaseSpacesAndPunctuation() {
+        int handTossed = Crust.HAND_TOSSED.ordinal();
+        for (String name : new String[] {"Hand-tossed", "HAND_TOSSED", "hand tossed", "Hand Tossed",
+                "handtossed", " hand--TOSSED. "}) {
+            assertFound(handTossed, MenuCatalog.findCrust(name), name);
+        }
+        assertEquals(Topping.GREENPEPPER.ordinal(), MenuCatalog.findTopping("green-pepper"));
+        assertEquals(PizzaType.BUILD_YOUR_OWN.ordinal(), MenuCatalog.findType("build_your_own"));
+        assertEquals(PizzaType.BBQ_CHICKEN.ordinal(), MenuCatalog.findType("bbq chicken"));
+        assertEquals(Topping.BBQCHICKEN.ordinal(), MenuCatalog.findTopping("bbq chicken"));
+    }
+
+    @Test
+    public void unknownNamesAreNotFound() {
+        for (String name : new String[] {"", " ", "-", "Garlic", "Hand", "Hand tossed crust",
+                "Smal", "Deluxe Deluxe", "Pan Pizza", "Sausage"}) {
+            assertEquals(name, -1, MenuCatalog.findCrust(name));
+        }
+        assertEquals(-1, MenuCatalog.findTopping("Pineapple"));
+        assertEquals(-1, MenuCatalog.findSize("Extra Large"));
+        assertEquals(-1, MenuCatalog.findType("Hawaiian"));
+        assertEquals(-1, MenuCatalog.findSize("Deep Dish"));
+    }
+
+    @Test
+    public void nullIsNotFound() {
+        assertEquals(-1, MenuCatalog.findTopping(null));
+        assertEquals(-1, MenuCatalog.findCrust(null));
+        assertEquals(-1, MenuCatalog.findSize(null));
+        assertEquals(-1, MenuCatalog.findType(null));
+    }
+
+    @Test
+    public void findsNamesGivenAsOtherCharSequences() {
+        assertEquals(Topping.GREENPEPPER.ordinal(),
+                MenuCatalog.findTopping(new StringBuilder("Green Pepper")));
+        assertEquals(Crust.DEEP_DISH.ordinal(),
+                MenuCatalog.findCrust(CharBuffer.wrap("deep dish")));
+        assertEquals(Size.LARGE.ordinal(), MenuCatalog.findSize(new StringBuilder("LARGE")));
+        assertEquals(PizzaType.BUILD_YOUR_OWN.ordinal(),
+                MenuCatalog.findType(CharBuffer.wrap("xBuild Your Ownx").subSequence(1, 15)));
+        assertEquals(-1, MenuCatalog.findTopping(new StringBuilder("Green")));
+        assertEquals(-1, MenuCatalog.findCrust(new StringBuilder()));
+    }
+
+    private static int find(Enum<?>[] items, CharSequence name) {
+        if (items instanceof Topping[]) {
+            return MenuCatalog.findTopping(name);
+        } else if (items instanceof Crust[]) {
+            return MenuCatalog.findCrust(name);
+        } else if (items instanceof Size[]) {
+            return MenuCatalog.findSize(name);
+        }
+        return MenuCatalog.findType(name);
+    }
+
+    private static void assertFound(int expected, int found, String name) {
+        assertEquals("Looked up \"" + name + "\"", expected, found);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for Money.
+ * @author Jorgeluis Done
+ */
+public class MoneyTest {
+    @Test
+    public void formatsTwoDecimalPlaces() {
+        assertEquals("12.34", Money.format(1234));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("0.00", Money.format(0));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("-12.30", Money.format(-1230));
+    }
+
+    @Test
+    public void appliesRatesRoundingHalfAwayFromZero() {
+        assertEquals(1, Money.applyRate(10, 50_000));   // 0.5 cents
+        assertEquals(-1, Money.applyRate(-10, 50_000));
+        assertEquals(0, Money.applyRate(9, 50_000));    // 0.45 cents
+        assertEquals(663, Money.applyRate(10_000, 66_250));
+    }
+
+    @Test
+    public void buildsAmountsFromDollarsAndCents() {
+        assertEquals(1699, Money.of(16, 99));
+        assertEquals(0.5, Money.toDollars(50), 0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void additionOverflowThrows() {
+        Money.add(Long.MAX_VALUE, 1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void multiplicationOverflowThrows() {
+        Money.times(Long.MAX_VALUE / 2, 3);
+    }
+}
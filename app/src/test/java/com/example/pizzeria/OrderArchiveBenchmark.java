@@ -0,0 +1,190 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures archive write throughput, single-order lookup latency and file size for 200k
+ * varied orders, for several numbers of orders per block, against the same records stored
+ * uncompressed with one offset per order. Lookups are of random order numbers, so nearly
+ * every one inflates a block; reading in sequence reuses the last inflated block.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class OrderArchiveBenchmark {
+    private static final int ORDERS = 200_000;
+    private static final int LOOKUPS = 200_000;
+    private static final int[] ORDERS_PER_BLOCK = {8, 16, 32, 64, 128, 256, 1024};
+    private static final int ROUNDS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndLookupByBlockSize() throws Exception {
+        List<Order> orders = generate(ORDERS);
+        int[] numbers = new int[LOOKUPS];
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            numbers[i] = 1 + random.nextInt(ORDERS);
+        }
+
+        File plain = folder.newFile("plain.records");
+        long writeNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            writeUncompressed(plain, orders);
+            writeNanos = Math.min(writeNanos, System.nanoTime() - start);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(plain, "r")) {
+            MappedByteBuffer mapping = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+                    file.length());
+            long lookupNanos = Long.MAX_VALUE;
+            long checksum = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                checksum = 0;
+                long start = System.nanoTime();
+                for (int number : numbers) {
+                    ByteBuffer record = mapping.duplicate();
+                    record.position((int) mapping.getLong(ORDERS * Integer.BYTES
+                            + (number - 1) * Long.BYTES));
+                    checksum += OrderCodec.decode(record).getTotalAmount();
+                }
+                lookupNanos = Math.min(lookupNanos, System.nanoTime() - start);
+            }
+            report("uncompressed", plain.length(), 1, writeNanos, lookupNanos, 0, checksum);
+        }
+
+        for (int perBlock : ORDERS_PER_BLOCK) {
+            File path = folder.newFile("orders-" + perBlock + ".archive");
+            writeNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                OrderArchive.write(path, orders, perBlock);
+                writeNanos = Math.min(writeNanos, System.nanoTime() - start);
+            }
+            try (OrderArchive archive = new OrderArchive(path)) {
+                long lookupNanos = Long.MAX_VALUE;
+                long checksum = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    checksum = 0;
+                    long start = System.nanoTime();
+                    for (int number : numbers) {
+                        checksum += archive.get(number).getTotalAmount();
+                    }
+                    lookupNanos = Math.min(lookupNanos, System.nanoTime() - start);
+                }
+                long start = System.nanoTime();
+                int read = 0;
+                for (Order order : archive) {
+                    read++;
+                }
+                long scanNanos = System.nanoTime() - start;
+                assertEquals(ORDERS, read);
+                report(perBlock + " per block", archive.getStoredBytes(),
+                        archive.getCompressionRatio(), writeNanos, lookupNanos, scanNanos, checksum);
+            }
+        }
+    }
+
+    private static void report(String name, long bytes, double ratio, long writeNanos,
+                               long lookupNanos, long scanNanos, long checksum) {
+        System.out.printf("%-16s %6.2f MB, ratio %.2f, write %,9.0f orders/s, "
+                        + "random lookup %6.2f us, sequential read %5.2f us (checksum %d)%n",
+                name, bytes / 1e6, ratio, ORDERS / (writeNanos / 1e9),
+                (double) lookupNanos / LOOKUPS / 1e3, (double) scanNanos / ORDERS / 1e3, checksum);
+    }
+
+    /**
+     * Writes the records one after another, followed by the offset of each, the way archives
+     * were stored before compression was added. The record count is written first.
+     */
+    private static void writeUncompressed(File path, List<Order> orders) throws Exception {
+        long[] offsets = new long[orders.size()];
+        try (FileOutputStream fileOut = new FileOutputStream(path)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            // Reserve the space the offsets are written over at the end
+            out.write(new byte[orders.size() * Integer.BYTES + orders.size() * Long.BYTES]);
+            long offset = orders.size() * (long) (Integer.BYTES + Long.BYTES);
+            ByteBuffer record = ByteBuffer.allocate(256);
+            for (int i = 0; i < orders.size(); i++) {
+                record.clear();
+                OrderCodec.encode(orders.get(i), record);
+                out.write(record.array(), 0, record.position());
+                offsets[i] = offset;
+                offset += record.position();
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        try (RandomAccessFile out = new RandomAccessFile(path, "rw")) {
+            ByteBuffer index = ByteBuffer.allocate(offsets.length * Long.BYTES);
+            for (long offset : offsets) {
+                index.putLong(offset);
+            }
+            index.flip();
+            out.getChannel().write(index, orders.size() * (long) Integer.BYTES);
+            out.getChannel().force(true);
+        }
+    }
+
+    /**
+     * Generates orders of one to four lines of random menu items, as a day of real orders
+     * would look.
+     */
+    private static List<Order> generate(int count) {
+        Random random = new Random(7);
+        Crust[] crusts = Crust.values();
+        Size[] sizes = Size.values();
+        Topping[] toppings = Topping.values();
+        List<Order> orders = new ArrayList<>(count);
+        for (int number = 1; number <= count; number++) {
+            Order order = new Order(number, Collections.emptyList());
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                Crust crust = crusts[random.nextInt(crusts.length)];
+                Size size = sizes[random.nextInt(sizes.length)];
+                Pizza pizza;
+                switch (random.nextInt(4)) {
+                    case 0:
+                        pizza = Deluxe.of(crust, size);
+                        break;
+                    case 1:
+                        pizza = Meatzza.of(crust, size);
+                        break;
+                    case 2:
+                        pizza = BBQChicken.of(crust, size);
+                        break;
+                    default:
+                        BuildYourOwn custom = new BuildYourOwn(crust, size, 0);
+                        for (int i = 1 + random.nextInt(5); i > 0; i--) {
+                            custom.addTopping(toppings[random.nextInt(toppings.length)]);
+                        }
+                        pizza = custom;
+                }
+                order.addPizza(pizza, 1 + random.nextInt(3));
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for OrderArchive, written to and read from real files in a temporary directory.
+ * @author Jorgeluis Done
+ */
+public class OrderArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsBackOrdersWithGapsInTheirNumbers() throws Exception {
+        List<Order> orders = orders(3, 4, 9, 10, 11, 40);
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, orders);
+
+        try (OrderArchive archive = new OrderArchive(file)) {
+            assertArchived(orders, archive);
+            assertEquals(3, archive.getFirstOrderNumber());
+            assertEquals(40, archive.getLastOrderNumber());
+            assertNull(archive.get(5));
+            assertFalse(archive.contains(39));
+            assertFalse(archive.contains(2));
+            assertFalse(archive.contains(41));
+            assertNull(archive.get(Integer.MIN_VALUE));
+            assertNull(archive.get(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void readsAnEmptyArchive() throws Exception {
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, Collections.emptyList());
+
+        try (OrderArchive archive = new OrderArchive(file)) {
+            assertEquals(0, archive.size());
+            assertEquals(0, archive.orderNumbers().length);
+            assertFalse(archive.iterator().hasNext());
+            assertNull(archive.get(0));
+            assertNull(archive.get(1));
+            assertEquals(0, archive.getTotalAmount());
+            assertEquals(archive.getFirstOrderNumber() - 1, archive.getLastOrderNumber());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ordersOutOfOrderAreRejected() throws Exception {
+        OrderArchive.write(folder.newFile("orders.archive"), orders(5, 3));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void filesThatAreNotArchivesAreRejected() throws Exception {
+        File file = folder.newFile("orders.archive");
+        Files.write(file.toPath(), new byte[64]);
+        Files.write(OrderArchive.indexFileOf(file).toPath(), new byte[64]);
+        new OrderArchive(file);
+    }
+
+    @Test
+    public void readsOrdersOnEitherSideOfBlockBoundaries() throws Exception {
+        int perBlock = 4;
+        for (int count : new int[]{perBlock - 1, perBlock, perBlock + 1, 3 * perBlock}) {
+            int[] numbers = new int[count];
+            for (int i = 0; i < count; i++) {
+                numbers[i] = 10 + i;
+            }
+            List<Order> orders = orders(numbers);
+            File file = folder.newFile("orders-" + count + ".archive");
+            OrderArchive.write(file, orders, perBlock);
+
+            try (OrderArchive archive = new OrderArchive(file)) {
+                assertArchived(orders, archive);
+                // Jump back and forth between blocks so the cached block keeps changing
+                for (int i = count - 1; i >= 0; i -= 3) {
+                    assertEquals(numbers[i], archive.get(numbers[i]).getOrderNumber());
+                    assertEquals(10, archive.get(10).getOrderNumber());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blockBoundariesFollowOrderCountsNotNumbers() throws Exception {
+        // Gaps make each block span more order numbers than it holds orders
+        List<Order> orders = orders(1, 2, 50, 51, 52, 200, 1000);
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, orders, 2);
+
+        try (OrderArchive archive = new OrderArchive(file)) {
+            assertArchived(orders, archive);
+            assertNull(archive.get(49));
+            assertNull(archive.get(53));
+            assertNull(archive.get(999));
+        }
+    }
+
+    @Test
+    public void listsOrderNumbersWhenTheSlotsAreNotAMultipleOfEight() throws Exception {
+        for (int slots = 1; slots <= 17; slots++) {
+            int[] numbers = slots == 1 ? new int[]{5} : new int[]{5, 5 + slots / 2, 5 + slots - 1};
+            numbers = Arrays.stream(numbers).distinct().toArray();
+            File file = folder.newFile("orders-" + slots + ".archive");
+            OrderArchive.write(file, orders(numbers));
+
+            try (OrderArchive archive = new OrderArchive(file)) {
+                assertEquals(5 + slots - 1, archive.getLastOrderNumber());
+                assertArrayEquals(numbers, archive.orderNumbers());
+                assertFalse(archive.contains(5 + slots));
+            }
+        }
+    }
+
+    @Test
+    public void compressesAndSummarizesTheArchivedOrders() throws Exception {
+        int[] numbers = new int[1000];
+        long total = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i + 1;
+        }
+        List<Order> orders = orders(numbers);
+        long raw = 0;
+        ByteBuffer record = ByteBuffer.allocate(256);
+        for (Order order : orders) {
+            total += order.getTotalAmount();
+            record.clear();
+            OrderCodec.encode(order, record);
+            raw += record.position();
+        }
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, orders);
+
+        try (OrderArchive archive = new OrderArchive(file)) {
+            assertEquals(raw, archive.getRawBytes());
+            assertTrue(archive.getCompressionRatio() > 2);
+            assertTrue(archive.getStoredBytes() < raw);
+            assertEquals(total, archive.getTotalAmount());
+        }
+    }
+
+    @Test
+    public void appendsOrdersWithoutChangingTheBlocksAlreadyWritten() throws Exception {
+        File file = folder.newFile("orders.archive");
+        List<Order> first = orders(1, 2, 3, 4, 5);
+        OrderArchive.write(file, first, 2);
+        byte[] before = Files.readAllBytes(file.toPath());
+
+        List<Order> added = orders(8, 9, 12);
+        try (OrderArchive archive = new OrderArchive(file);
+             OrderArchive appended = archive.append(added, new int[0])) {
+            List<Order> all = new ArrayList<>(first);
+            all.addAll(added);
+            assertArchived(all, appended);
+            assertEquals(12, appended.getLastOrderNumber());
+            assertEquals(archive.getTotalAmount() + total(added), appended.getTotalAmount());
+            // The archive appended to keeps reading what it held
+            assertArchived(first, archive);
+        }
+        byte[] after = Files.readAllBytes(file.toPath());
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+    }
+
+    @Test
+    public void droppedOrdersAreGoneFromLookupIterationAndTotals() throws Exception {
+        File file = folder.newFile("orders.archive");
+        List<Order> orders = orders(1, 2, 3, 4, 5, 6, 7);
+        OrderArchive.write(file, orders, 3);
+
+        try (OrderArchive archive = new OrderArchive(file);
+             OrderArchive appended = archive.append(Collections.emptyList(), new int[]{2, 4, 7, 99})) {
+            List<Order> kept = orders(1, 3, 5, 6);
+            assertArchived(kept, appended);
+            assertFalse(appended.contains(2));
+            assertNull(appended.get(7));
+            assertEquals(7, appended.getLastOrderNumber()); // numbers are never given out again
+            assertEquals(total(kept), appended.getTotalAmount());
+        }
+        try (OrderArchive reopened = new OrderArchive(file)) {
+            assertArrayEquals(new int[]{1, 3, 5, 6}, reopened.orderNumbers());
+        }
+    }
+
+    @Test
+    public void anInterruptedAppendIsCutOffByTheNextOne() throws Exception {
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, orders(1, 2));
+        try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+            data.seek(data.length());
+            data.write(new byte[100]); // blocks written before a crash, with no new index
+        }
+
+        try (OrderArchive archive = new OrderArchive(file)) {
+            assertArchived(orders(1, 2), archive);
+            try (OrderArchive appended = archive.append(orders(3), new int[0])) {
+                assertArchived(orders(1, 2, 3), appended);
+                assertEquals(file.length() + OrderArchive.indexFileOf(file).length(),
+                        appended.getStoredBytes());
+            }
+        }
+    }
+
+    @Test
+    public void anEmptyArchiveTakesItsFirstNumberFromItsFirstAppend() throws Exception {
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, Collections.emptyList());
+
+        try (OrderArchive archive = new OrderArchive(file);
+             OrderArchive appended = archive.append(orders(40, 41), new int[0])) {
+            assertEquals(40, appended.getFirstOrderNumber());
+            assertArchived(orders(40, 41), appended);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void appendedOrdersMustFollowTheArchivedOnes() throws Exception {
+        File file = folder.newFile("orders.archive");
+        OrderArchive.write(file, orders(1, 5));
+        try (OrderArchive archive = new OrderArchive(file)) {
+            archive.append(orders(4), new int[0]);
+        }
+    }
+
+    @Test
+    public void anArchiveWithoutItsIndexDoesNotExist() throws Exception {
+        File file = folder.newFile("orders.archive");
+        assertFalse(OrderArchive.exists(file));
+        OrderArchive.write(file, orders(1));
+        assertTrue(OrderArchive.exists(file));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blocksMustHoldAtLeastOneOrder() throws Exception {
+        OrderArchive.write(folder.newFile("orders.archive"), orders(1), 0);
+    }
+
+    /**
+     * Creates orders with the given numbers, each with a different pizza count.
+     */
+    static List<Order> orders(int... numbers) {
+        List<Order> orders = new ArrayList<>();
+        for (int number : numbers) {
+            Order order = new Order(number, Collections.singletonList(
+                    Meatzza.of(Crust.PAN, Size.MEDIUM)));
+            order.addPizza(new BuildYourOwn(Crust.THIN, Size.LARGE,
+                    Topping.maskOf(Topping.ONION, Topping.HAM)), number % 7 + 1);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static long total(List<Order> orders) {
+        long total = 0;
+        for (Order order : orders) {
+            total += order.getTotalAmount();
+        }
+        return total;
+    }
+
+    /**
+     * Checks that an archive holds exactly the given orders, by lookup, iteration and index.
+     */
+    static void assertArchived(List<Order> orders, OrderArchive archive) {
+        assertEquals(orders.size(), archive.size());
+        int[] numbers = new int[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            Order expected = orders.get(i);
+            numbers[i] = expected.getOrderNumber();
+            assertTrue(archive.contains(numbers[i]));
+            assertSameOrder(expected, archive.get(numbers[i]));
+        }
+        assertArrayEquals(numbers, archive.orderNumbers());
+        int i = 0;
+        for (Order order : archive) {
+            assertSameOrder(orders.get(i++), order);
+        }
+        assertEquals(orders.size(), i);
+    }
+
+    private static void assertSameOrder(Order expected, Order actual) {
+        assertEquals(expected.getOrderNumber(), actual.getOrderNumber());
+        assertEquals(expected.getSubtotal(), actual.getSubtotal());
+        assertEquals(expected.getLineCount(), actual.getLineCount());
+        for (int i = 0; i < expected.getLineCount(); i++) {
+            assertEquals(expected.getLineCode(i), actual.getLineCode(i));
+            assertEquals(expected.getLineQuantity(i), actual.getLineQuantity(i));
+        }
+    }
+}
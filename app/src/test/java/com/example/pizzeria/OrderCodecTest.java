@@ -0,0 +1,199 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+/**
+ * Unit tests for OrderCodec.
+ * @author Jorgeluis Done
+ */
+public class OrderCodecTest {
+    @Test
+    public void roundTripsOrders() throws IOException {
+        Order order = new Order(123_456, Arrays.asList(
+                Deluxe.of(Crust.DEEP_DISH, Size.LARGE),
+                new BuildYourOwn(Crust.HAND_TOSSED, Size.SMALL,
+                        Topping.maskOf(Topping.HAM, Topping.CHEDDAR, Topping.ONION))));
+        order.addPizza(BBQChicken.of(Crust.PAN, Size.MEDIUM), 1000);
+
+        Order decoded = OrderCodec.decode(ByteBuffer.wrap(OrderCodec.encode(order)));
+
+        assertSameOrder(order, decoded);
+    }
+
+    @Test
+    public void roundTripsAnEmptyOrder() throws IOException {
+        Order order = new Order(1, Collections.emptyList());
+
+        Order decoded = OrderCodec.decode(ByteBuffer.wrap(OrderCodec.encode(order)));
+
+        assertSameOrder(order, decoded);
+    }
+
+    @Test
+    public void decodesFromDirectBuffers() throws IOException {
+        Order order = new Order(9, Collections.singletonList(Meatzza.of(Crust.STUFFED, Size.SMALL)));
+        byte[] record = OrderCodec.encode(order);
+        ByteBuffer direct = ByteBuffer.allocateDirect(record.length);
+        direct.put(record).flip();
+
+        assertSameOrder(order, OrderCodec.decode(direct));
+        assertFalse(direct.hasRemaining());
+    }
+
+    @Test
+    public void negativeSubtotalsAreStoredButRecomputedFromTheLines() throws IOException {
+        long code = PizzaCode.of(PizzaType.MEATZZA, Crust.PAN, Size.SMALL,
+                PizzaType.MEATZZA.recipeMask());
+        ByteBuffer body = ByteBuffer.allocate(64);
+        OrderCodec.putVarint(body, 5);
+        OrderCodec.putVarint(body, -1234); // ten bytes as an unsigned varint
+        OrderCodec.putVarint(body, 1);
+        body.put(header(code));
+        OrderCodec.putVarint(body, PizzaCode.toppingMask(code));
+        OrderCodec.putVarint(body, 3);
+
+        Order decoded = OrderCodec.decode(ByteBuffer.wrap(record(OrderCodec.VERSION, body)));
+
+        assertEquals(3 * PizzaCode.price(code), decoded.getSubtotal());
+    }
+
+    @Test
+    public void roundTripsLargeVarints() throws IOException {
+        long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, 1L << 35,
+                Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 10);
+        for (long value : values) {
+            int before = buffer.position();
+            OrderCodec.putVarint(buffer, value);
+            assertEquals(OrderCodec.varintSize(value), buffer.position() - before);
+        }
+        buffer.flip();
+        for (long value : values) {
+            assertEquals(value, OrderCodec.getVarint(buffer));
+        }
+        assertEquals(1, OrderCodec.varintSize(127));
+        assertEquals(2, OrderCodec.varintSize(128));
+        assertEquals(10, OrderCodec.varintSize(-1));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void varintsLongerThanTenBytesAreRejected() throws IOException {
+        byte[] bytes = new byte[11];
+        Arrays.fill(bytes, (byte) 0x80);
+        OrderCodec.getVarint(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void checksumMismatchesAreRejected() throws IOException {
+        byte[] record = OrderCodec.encode(new Order(77,
+                Collections.singletonList(Deluxe.of(Crust.DEEP_DISH, Size.SMALL))));
+        record[3] ^= 0x01; // inside the body
+
+        try {
+            OrderCodec.decode(ByteBuffer.wrap(record));
+            fail("Expected a checksum mismatch");
+        } catch (StreamCorruptedException e) {
+            assertEquals("Order record checksum mismatch", e.getMessage());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedRecordsAreRejected() throws IOException {
+        byte[] record = OrderCodec.encode(new Order(77,
+                Collections.singletonList(Deluxe.of(Crust.DEEP_DISH, Size.SMALL))));
+        OrderCodec.decode(ByteBuffer.wrap(record, 0, record.length - 1));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void unknownVersionsAreRejected() throws IOException {
+        byte[] record = OrderCodec.encode(new Order(1, Collections.emptyList()));
+        record[0] = OrderCodec.VERSION + 1;
+        OrderCodec.decode(ByteBuffer.wrap(record));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void pizzasOffTheMenuAreRejected() throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(16);
+        OrderCodec.putVarint(body, 1);
+        OrderCodec.putVarint(body, 0);
+        OrderCodec.putVarint(body, 1);
+        body.put((byte) (7 << 5)); // no pizza type 7
+        OrderCodec.putVarint(body, 0);
+        OrderCodec.putVarint(body, 1);
+        OrderCodec.decode(ByteBuffer.wrap(record(OrderCodec.VERSION, body)));
+    }
+
+    @Test
+    public void peeksAndSkipsRecordsWithoutDecodingThem() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        int[] numbers = {1, 300, 70_000, Integer.MAX_VALUE};
+        for (int number : numbers) {
+            Order order = new Order(number, Collections.singletonList(
+                    BBQChicken.of(Crust.PAN, Size.LARGE)));
+            order.addPizza(new BuildYourOwn(Crust.THIN, Size.SMALL), number % 5 + 1);
+            OrderCodec.encode(order, buffer);
+        }
+        buffer.flip();
+
+        for (int number : numbers) {
+            int position = buffer.position();
+            assertEquals(number, OrderCodec.peekOrderNumber(buffer));
+            assertEquals(position, buffer.position());
+            OrderCodec.skip(buffer);
+        }
+        assertFalse(buffer.hasRemaining());
+
+        buffer.rewind();
+        OrderCodec.skip(buffer);
+        assertEquals(300, OrderCodec.decode(buffer).getOrderNumber());
+    }
+
+    @Test(expected = EOFException.class)
+    public void skippingATruncatedRecordFails() throws IOException {
+        byte[] record = OrderCodec.encode(new Order(5, Collections.emptyList()));
+        OrderCodec.skip(ByteBuffer.wrap(record, 0, record.length - 2));
+    }
+
+    private static void assertSameOrder(Order expected, Order actual) {
+        assertEquals(expected.getOrderNumber(), actual.getOrderNumber());
+        assertEquals(expected.getSubtotal(), actual.getSubtotal());
+        assertEquals(expected.getPizzaCount(), actual.getPizzaCount());
+        assertEquals(expected.getLineCount(), actual.getLineCount());
+        for (int i = 0; i < expected.getLineCount(); i++) {
+            assertEquals(expected.getLineCode(i), actual.getLineCode(i));
+            assertEquals(expected.getLineQuantity(i), actual.getLineQuantity(i));
+        }
+    }
+
+    private static byte header(long code) {
+        return (byte) (PizzaCode.type(code).ordinal() << 5 | PizzaCode.crust(code).ordinal() << 2
+                | PizzaCode.size(code).ordinal());
+    }
+
+    /**
+     * Frames a body the way OrderCodec does: version, body length, body and CRC32.
+     */
+    private static byte[] record(int version, ByteBuffer body) {
+        body.flip();
+        ByteBuffer record = ByteBuffer.allocate(1 + 10 + body.remaining() + 4);
+        record.put((byte) version);
+        OrderCodec.putVarint(record, body.remaining());
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 0, body.limit());
+        record.put(body);
+        record.putInt((int) crc.getValue());
+        return Arrays.copyOf(record.array(), record.position());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Measures exporting 1M orders to CSV and JSON Lines. The orders are generated as they are
+ * iterated and the output is counted and discarded, so the heap used afterwards shows
+ * whether the export itself keeps anything per order.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class OrderExportBenchmark {
+    private static final int ORDERS = 1_000_000;
+
+    @Test
+    public void exportOneMillionOrders() throws IOException {
+        for (OrderExporter.Format format : OrderExporter.Format.values()) {
+            export(format, ORDERS / 10); // warm up
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            CountingWriter out = export(format, ORDERS);
+            long nanos = System.nanoTime() - start;
+            long heapAfter = usedHeap();
+
+            double seconds = nanos / 1e9;
+            System.out.printf("%s: %,.0f orders/s, %.1f MB/s, %,d chars, heap change %,d KB%n",
+                    format, ORDERS / seconds, out.chars / seconds / 1e6, out.chars,
+                    (heapAfter - heapBefore) / 1024);
+        }
+    }
+
+    private static CountingWriter export(OrderExporter.Format format, int orders)
+            throws IOException {
+        CountingWriter out = new CountingWriter();
+        try (Writer writer = new BufferedWriter(out, 64 * 1024)) {
+            long written = new OrderExporter(writer, format).writeAll(() -> generate(orders));
+            assertEquals(orders, written);
+        }
+        return out;
+    }
+
+    /**
+     * Generates orders as they are iterated, so none of them are kept.
+     */
+    private static Iterator<Order> generate(int count) {
+        Pizza[] pizzas = {
+                Deluxe.of(Crust.DEEP_DISH, Size.LARGE),
+                Meatzza.of(Crust.BROOKLYN, Size.SMALL),
+                new BuildYourOwn(Crust.PAN, Size.MEDIUM,
+                        Topping.maskOf(Topping.HAM, Topping.ONION, Topping.CHEDDAR)),
+        };
+        return new Iterator<Order>() {
+            private int next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next <= count;
+            }
+
+            @Override
+            public Order next() {
+                Order order = new Order(next, Collections.singletonList(pizzas[next % 3]));
+                order.addPizza(pizzas[(next + 1) % 3], next % 4 + 1);
+                next++;
+                return order;
+            }
+        };
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Counts the characters written and discards them.
+     */
+    private static final class CountingWriter extends Writer {
+        long chars;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            chars += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
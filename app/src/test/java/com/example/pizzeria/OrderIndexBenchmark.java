@@ -0,0 +1,90 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares looking up and cancelling orders by number in an OrderIndex of 1M orders with the
+ * linear scan over a list that OrderManager used to do.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class OrderIndexBenchmark {
+    private static final int ORDERS = 1_000_000;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int SCANS = 1_000;
+
+    @Test
+    public void lookupAndCancelAtOneMillionOrders() {
+        OrderIndex index = new OrderIndex();
+        List<Order> list = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int number = 1; number <= ORDERS; number++) {
+            Order order = new Order(number, Collections.emptyList());
+            index.put(order);
+            list.add(order);
+        }
+        long putNanos = System.nanoTime() - start;
+
+        int[] numbers = new int[LOOKUPS];
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            numbers[i] = 1 + random.nextInt(ORDERS);
+        }
+
+        start = System.nanoTime();
+        long found = 0;
+        for (int number : numbers) {
+            found += index.get(number).getOrderNumber();
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long scanned = 0;
+        for (int i = 0; i < SCANS; i++) {
+            scanned += scan(list, numbers[i]).getOrderNumber();
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        long expected = 0;
+        for (int i = 0; i < SCANS; i++) {
+            expected += numbers[i];
+        }
+        assertEquals(expected, scanned);
+
+        start = System.nanoTime();
+        int cancelled = 0;
+        for (int number : numbers) {
+            if (index.remove(number) != null) {
+                cancelled++;
+            }
+        }
+        long cancelNanos = System.nanoTime() - start;
+        assertNull(index.get(numbers[0]));
+        assertEquals(ORDERS - cancelled, index.size());
+
+        System.out.printf("put: %.1f ns/order, index get: %.1f ns, list scan: %.0f ns, "
+                        + "index cancel: %.1f ns (checksum %d)%n",
+                (double) putNanos / ORDERS, (double) indexNanos / LOOKUPS,
+                (double) scanNanos / SCANS, (double) cancelNanos / LOOKUPS, found);
+    }
+
+    private static Order scan(List<Order> orders, int number) {
+        for (Order order : orders) {
+            if (order.getOrderNumber() == number) {
+                return order;
+            }
+        }
+        return null;
+    }
+}
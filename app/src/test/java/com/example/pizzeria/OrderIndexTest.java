@@ -0,0 +1,63 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Unit tests for OrderIndex.
+ * @author Jorgeluis Done
+ */
+public class OrderIndexTest {
+    @Test
+    public void keepsPlacementOrderAcrossRemovalsAndCompaction() {
+        OrderIndex index = new OrderIndex();
+        for (int number = 1; number <= 1000; number++) {
+            index.put(new Order(number, Collections.emptyList()));
+        }
+        for (int number = 1; number <= 1000; number++) {
+            if (number % 4 != 0) {
+                assertEquals(number, index.remove(number).getOrderNumber());
+            }
+        }
+
+        assertEquals(250, index.size());
+        int[] numbers = index.orderNumbers();
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(4 * (i + 1), numbers[i]);
+            assertEquals(numbers[i], index.values().get(i).getOrderNumber());
+        }
+        assertNull(index.get(3));
+        assertFalse(index.contains(5));
+        assertEquals(1000, index.get(1000).getOrderNumber());
+    }
+
+    @Test
+    public void replacingAnOrderKeepsItsPosition() {
+        OrderIndex index = new OrderIndex();
+        index.put(new Order(7, Collections.emptyList()));
+        index.put(new Order(3, Collections.emptyList()));
+        Order replacement = new Order(7, Collections.emptyList());
+
+        index.put(replacement);
+
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[]{7, 3}, index.orderNumbers());
+        assertSame(replacement, index.get(7));
+    }
+
+    @Test
+    public void removingAMissingNumberReturnsNull() {
+        OrderIndex index = new OrderIndex();
+        index.put(new Order(1, Collections.emptyList()));
+
+        assertNull(index.remove(2));
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Unit tests for OrderJournal, run against real files in a temporary directory.
+ * @author Jorgeluis Done
+ */
+public class OrderJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysPlacedAndCancelledOrdersInOrder() throws Exception {
+        File file = folder.newFile("journal");
+        try (OrderJournal journal = new OrderJournal(file, 0)) {
+            journal.appendPlaced(order(1));
+            journal.appendPlaced(order(2));
+            journal.appendCancelled(1);
+            journal.appendPlaced(order(300));
+            journal.sync().get();
+            assertEquals(4, journal.getRecordCount());
+        }
+
+        Recorder recorder = new Recorder();
+        assertEquals(4, OrderJournal.replay(file, recorder));
+        assertEquals(Arrays.asList("placed 1", "placed 2", "cancelled 1", "placed 300"),
+                recorder.events);
+        assertEquals(order(300).getSubtotal(), recorder.orders.get(2).getSubtotal());
+        assertEquals(order(300).getLineCode(0), recorder.orders.get(2).getLineCode(0));
+    }
+
+    @Test
+    public void replayStopsAtATornTailRecord() throws Exception {
+        File file = folder.newFile("journal");
+        try (OrderJournal journal = new OrderJournal(file, 0)) {
+            for (int number = 1; number <= 3; number++) {
+                journal.appendPlaced(order(number));
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2); // crash part way through the last record
+        }
+
+        Recorder recorder = new Recorder();
+        assertEquals(2, OrderJournal.replay(file, recorder));
+        assertEquals(Arrays.asList("placed 1", "placed 2"), recorder.events);
+    }
+
+    @Test
+    public void appendsAfterATornRecordAreReplayed() throws Exception {
+        File file = folder.newFile("journal");
+        try (OrderJournal journal = new OrderJournal(file, 0)) {
+            journal.appendPlaced(order(1));
+            journal.appendPlaced(order(2));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+            raf.seek(raf.length());
+            raf.write(new byte[] {7, 7, 7}); // garbage left behind by the crash
+        }
+
+        // Recovery replays, then reopens the same file and keeps appending to it
+        assertEquals(1, OrderJournal.replay(file, new Recorder()));
+        try (OrderJournal journal = new OrderJournal(file, 0)) {
+            journal.appendCancelled(1);
+            journal.appendPlaced(order(3));
+        }
+
+        Recorder recorder = new Recorder();
+        assertEquals(3, OrderJournal.replay(file, recorder));
+        assertEquals(Arrays.asList("placed 1", "cancelled 1", "placed 3"), recorder.events);
+    }
+
+    @Test
+    public void replayStopsAtALengthPastTheEndOfTheFile() throws Exception {
+        File file = folder.newFile("journal");
+        try (OrderJournal journal = new OrderJournal(file, 0)) {
+            journal.appendCancelled(7);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.writeInt(1000); // a length written before the crash, with no payload
+            raf.writeByte(OrderJournal.RECORD_PLACED);
+        }
+
+        Recorder recorder = new Recorder();
+        assertEquals(1, OrderJournal.replay(file, recorder));
+        assertEquals(Arrays.asList("cancelled 7"), recorder.events);
+    }
+
+    @Test
+    public void recordsAfterARotateGoToTheNewFile() throws Exception {
+        File first = folder.newFile("journal.0");
+        File second = new File(folder.getRoot(), "journal.1");
+        try (OrderJournal journal = new OrderJournal(first, 0)) {
+            journal.appendPlaced(order(1));
+            journal.appendPlaced(order(2));
+            journal.rotate(second).get();
+            assertEquals(0, journal.getRecordCount());
+            journal.appendCancelled(2);
+            journal.appendPlaced(order(3));
+            journal.sync().get();
+            assertEquals(2, journal.getRecordCount());
+        }
+
+        Recorder before = new Recorder();
+        OrderJournal.replay(first, before);
+        assertEquals(Arrays.asList("placed 1", "placed 2"), before.events);
+        Recorder after = new Recorder();
+        OrderJournal.replay(second, after);
+        assertEquals(Arrays.asList("cancelled 2", "placed 3"), after.events);
+    }
+
+    @Test
+    public void recordCountOnlyCountsTheCurrentFile() throws Exception {
+        File first = folder.newFile("journal.0");
+        try (OrderJournal journal = new OrderJournal(first, 50)) {
+            // Queued behind the long commit delay, so the rotation is handled with them
+            for (int number = 1; number <= 100; number++) {
+                journal.appendPlaced(order(number));
+            }
+            CompletableFuture<Void> rotated = journal.rotate(new File(folder.getRoot(), "journal.1"));
+            journal.appendCancelled(5);
+            rotated.get();
+            journal.sync().get();
+            assertEquals(1, journal.getRecordCount());
+        }
+    }
+
+    @Test
+    public void closeWritesTheAppendsStillPending() throws Exception {
+        File file = folder.newFile("journal");
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        OrderJournal journal = new OrderJournal(file, 10_000);
+        for (int number = 1; number <= 1000; number++) {
+            futures.add(journal.appendPlaced(order(number)));
+        }
+        journal.close();
+
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone());
+            future.get(); // throws if the record was failed
+        }
+        assertEquals(1000, OrderJournal.replay(file, new Recorder()));
+    }
+
+    @Test
+    public void closeDoesNotCountItsStopMarker() throws Exception {
+        OrderJournal journal = new OrderJournal(folder.newFile("journal"), 10_000);
+        for (int number = 1; number <= 3; number++) {
+            journal.appendPlaced(order(number));
+        }
+        journal.close(); // the stop marker lands in the same batch as the records
+
+        assertEquals(3, journal.getRecordCount());
+    }
+
+    @Test
+    public void appendsAfterCloseFail() throws Exception {
+        OrderJournal journal = new OrderJournal(folder.newFile("journal"), 0);
+        journal.close();
+        try {
+            journal.appendCancelled(1).get();
+            fail("Expected the append to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void cancelsRacingWithPlacementAreJournaledAfterTheirOrders() throws Exception {
+        File file = folder.newFile("journal");
+        OrderManager manager = new OrderManager(4);
+        int orders = 20_000;
+        try (OrderJournal journal = new OrderJournal(file, 0)) {
+            manager.setJournal(journal);
+            Thread canceller = new Thread(() -> {
+                // Cancels each order as soon as it can be found
+                for (int number = 1; number <= orders; ) {
+                    if (manager.getOrderFromNumber(number) != null) {
+                        manager.cancelOrder(number++);
+                    }
+                }
+            });
+            canceller.start();
+            for (int i = 0; i < orders; i++) {
+                manager.placeOrder(order(1));
+            }
+            canceller.join();
+            manager.setJournal(null);
+        }
+
+        BitSet placed = new java.util.BitSet();
+        OrderJournal.replay(file, new OrderJournal.Visitor() {
+            @Override
+            public void placed(Order order) {
+                placed.set(order.getOrderNumber());
+            }
+
+            @Override
+            public void cancelled(int orderNumber) {
+                assertTrue("Order " + orderNumber + " cancelled before it was placed",
+                        placed.get(orderNumber));
+            }
+        });
+        assertEquals(orders, placed.cardinality());
+    }
+
+    private static Order order(int number) {
+        Order order = new Order(number, Arrays.asList(Deluxe.of(Crust.DEEP_DISH, Size.SMALL),
+                new BuildYourOwn(Crust.PAN, Size.LARGE, Topping.maskOf(Topping.HAM, Topping.BEEF))));
+        order.addPizza(Meatzza.of(Crust.STUFFED, Size.MEDIUM), number);
+        return order;
+    }
+
+    /**
+     * Records the replayed records as text.
+     */
+    private static final class Recorder implements OrderJournal.Visitor {
+        final List<String> events = new ArrayList<>();
+        final List<Order> orders = new ArrayList<>();
+
+        @Override
+        public void placed(Order order) {
+            events.add("placed " + order.getOrderNumber());
+            orders.add(order);
+        }
+
+        @Override
+        public void cancelled(int orderNumber) {
+            events.add("cancelled " + orderNumber);
+        }
+    }
+}
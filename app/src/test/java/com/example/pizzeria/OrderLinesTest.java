@@ -0,0 +1,72 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for OrderLines.
+ * @author Jorgeluis Done
+ */
+public class OrderLinesTest {
+    @Test
+    public void keepsLinesInTheOrderTheyWereFirstAdded() {
+        OrderLines lines = new OrderLines();
+        for (long code = 10; code > 0; code--) {
+            lines.add(code, 1);
+        }
+        lines.add(5, 2);
+
+        assertEquals(10, lines.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(10 - i, lines.code(i));
+        }
+        assertEquals(3, lines.quantity(lines.indexOf(5)));
+    }
+
+    @Test
+    public void removingTheLastUnitShiftsTheLaterLines() {
+        OrderLines lines = new OrderLines();
+        lines.add(1, 1);
+        lines.add(2, 2);
+        lines.add(3, 3);
+
+        assertEquals(1, lines.remove(2, 1));
+        assertEquals(1, lines.remove(2, 4));
+
+        assertEquals(2, lines.size());
+        assertEquals(1, lines.code(0));
+        assertEquals(3, lines.code(1));
+        assertEquals(3, lines.quantity(1));
+        assertEquals(-1, lines.indexOf(2));
+    }
+
+    @Test
+    public void removingAMissingCodeRemovesNothing() {
+        OrderLines lines = new OrderLines();
+        lines.add(1, 1);
+
+        assertEquals(0, lines.remove(2, 1));
+        assertEquals(0, lines.remove(1, 0));
+        assertEquals(1, lines.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addingNoUnitsIsRejected() {
+        new OrderLines().add(1, 0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void quantityOverflowThrows() {
+        OrderLines lines = new OrderLines();
+        lines.add(1, Integer.MAX_VALUE);
+        lines.add(1, 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readingPastTheLastLineThrows() {
+        OrderLines lines = new OrderLines();
+        lines.add(1, 1);
+        lines.code(1);
+    }
+}
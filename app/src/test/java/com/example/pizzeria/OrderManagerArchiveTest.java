@@ -0,0 +1,131 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for OrderManager with placed orders moved into an OrderArchive.
+ * @author Jorgeluis Done
+ */
+public class OrderManagerArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void looksUpNumbersBelowInsideAndAboveTheArchive() throws Exception {
+        OrderManager manager = new OrderManager();
+        for (int i = 0; i < 10; i++) {
+            manager.placeOrder(order());
+        }
+        for (int number = 1; number <= 4; number++) {
+            manager.cancelOrder(number); // the archive starts at order 5
+        }
+        manager.cancelOrder(7);
+        manager.archivePlacedOrders(folder.newFile("orders.archive"));
+        manager.placeOrder(order());
+
+        assertNull(manager.getOrderFromNumber(Integer.MIN_VALUE));
+        assertNull(manager.getOrderFromNumber(0));
+        assertNull(manager.getOrderFromNumber(1));
+        assertNull(manager.getOrderFromNumber(4));
+        assertEquals(5, manager.getOrderFromNumber(5).getOrderNumber());
+        assertNull(manager.getOrderFromNumber(7));
+        assertEquals(10, manager.getOrderFromNumber(10).getOrderNumber());
+        assertEquals(11, manager.getOrderFromNumber(11).getOrderNumber());
+        assertNull(manager.getOrderFromNumber(12));
+        assertNull(manager.getOrderFromNumber(Integer.MAX_VALUE));
+
+        manager.cancelOrder(0);
+        manager.cancelOrder(2);
+        manager.cancelOrder(Integer.MAX_VALUE);
+        assertEquals(6, manager.getOrderCount());
+    }
+
+    @Test
+    public void cancelledArchivedOrdersStayCancelledInTheNextArchive() throws Exception {
+        File file = folder.newFile("orders.archive");
+        OrderManager manager = new OrderManager();
+        for (int i = 0; i < 100; i++) {
+            manager.placeOrder(order());
+        }
+        manager.archivePlacedOrders(file);
+        manager.cancelOrder(50);
+        manager.placeOrder(order());
+        manager.archivePlacedOrders(file);
+
+        OrderManager reopened = new OrderManager();
+        reopened.attachArchive(new OrderArchive(file));
+        assertNull(reopened.getOrderFromNumber(50));
+        assertNotNull(reopened.getOrderFromNumber(101));
+        assertEquals(100, reopened.getAllOrderNumbers().length);
+        assertEquals(102, reopened.getNextOrderNumber());
+    }
+
+    @Test
+    public void archivingAgainAppendsOnlyTheNewOrders() throws Exception {
+        File file = folder.newFile("orders.archive");
+        OrderManager manager = new OrderManager();
+        for (int i = 0; i < 1000; i++) {
+            manager.placeOrder(order());
+        }
+        manager.archivePlacedOrders(file);
+        byte[] before = Files.readAllBytes(file.toPath());
+        manager.cancelOrder(10);
+        manager.placeOrder(order());
+        manager.archivePlacedOrders(file);
+
+        byte[] after = Files.readAllBytes(file.toPath());
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+        assertTrue(after.length - before.length < before.length / 100);
+        assertNull(manager.getOrderFromNumber(10));
+        assertEquals(1001, manager.getOrderFromNumber(1001).getOrderNumber());
+        assertEquals(1000, manager.getOrderCount());
+        assertEquals(0, manager.getCancelledArchivedOrderNumbers().length); // dropped from the archive
+    }
+
+    @Test
+    public void cancelsRacingWithArchivingAreNotLost() throws Exception {
+        File file = folder.newFile("orders.archive");
+        int orders = 20_000;
+        for (int round = 0; round < 5; round++) {
+            OrderManager manager = new OrderManager(4);
+            for (int i = 0; i < orders; i++) {
+                manager.placeOrder(order());
+            }
+            Thread canceller = new Thread(() -> {
+                for (int number = 1; number <= orders; number += 2) {
+                    manager.cancelOrder(number);
+                }
+            });
+            canceller.start();
+            manager.archivePlacedOrders(file);
+            canceller.join();
+            manager.archivePlacedOrders(file);
+
+            assertEquals(orders / 2, manager.getAllOrderNumbers().length);
+            OrderManager reopened = new OrderManager();
+            reopened.attachArchive(new OrderArchive(file));
+            int[] numbers = reopened.getAllOrderNumbers();
+            assertEquals(orders / 2, numbers.length);
+            for (int i = 0; i < numbers.length; i++) {
+                assertEquals(2 * (i + 1), numbers[i]);
+            }
+        }
+    }
+
+    private static Order order() {
+        return new Order(0, Collections.singletonList(Deluxe.of(Crust.DEEP_DISH, Size.SMALL)));
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stress tests for OrderManager and StripedOrderStore with several terminals placing,
+ * looking up and cancelling orders at the same time. Orders must be numbered 1 to N with no
+ * number lost or given out twice.
+ * @author Jorgeluis Done
+ */
+public class OrderManagerConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 20_000;
+
+    @Test
+    public void concurrentPlacementLosesAndDuplicatesNoOrder() throws Exception {
+        OrderManager manager = new OrderManager(THREADS);
+        List<int[]> placed = runOnThreads(thread -> {
+            int[] numbers = new int[ORDERS_PER_THREAD];
+            String session = "terminal-" + thread;
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                if (i % 2 == 0) {
+                    manager.addToCurrentOrder(session, Deluxe.of(Crust.DEEP_DISH, Size.SMALL));
+                    numbers[i] = manager.placeCurrentOrder(session);
+                } else {
+                    numbers[i] = manager.placeOrder(new Order(0,
+                            Collections.singletonList(Meatzza.of(Crust.PAN, Size.LARGE))));
+                }
+                assertNotNull(manager.getOrderFromNumber(numbers[i]));
+            }
+            return numbers;
+        });
+
+        int total = THREADS * ORDERS_PER_THREAD;
+        BitSet seen = new BitSet();
+        for (int[] numbers : placed) {
+            for (int number : numbers) {
+                assertTrue("Order number " + number + " out of range", number >= 1 && number <= total);
+                assertTrue("Order number " + number + " given out twice", !seen.get(number));
+                seen.set(number);
+            }
+        }
+        assertEquals(total, seen.cardinality());
+        assertEquals(total, manager.getOrderCount());
+        assertEquals(total + 1, manager.getNextOrderNumber());
+        int[] stored = manager.getAllOrderNumbers();
+        assertEquals(total, stored.length);
+        for (int i = 0; i < stored.length; i++) {
+            assertEquals(i + 1, stored[i]);
+            assertEquals(i + 1, manager.getOrderFromNumber(i + 1).getOrderNumber());
+        }
+        assertEquals(0, manager.getSessionCount());
+    }
+
+    @Test
+    public void concurrentCancelsRemoveEachOrderOnce() throws Exception {
+        OrderManager manager = new OrderManager(THREADS);
+        int total = THREADS * ORDERS_PER_THREAD;
+        for (int i = 0; i < total; i++) {
+            manager.placeOrder(new Order(0, Collections.singletonList(
+                    BBQChicken.of(Crust.BROOKLYN, Size.MEDIUM))));
+        }
+
+        // Every thread tries to cancel every odd order, so each is raced by all of them
+        runOnThreads(thread -> {
+            for (int number = 1; number <= total; number += 2) {
+                manager.cancelOrder(number);
+            }
+            return null;
+        });
+
+        assertEquals(total / 2, manager.getOrderCount());
+        for (int number = 1; number <= total; number++) {
+            if (number % 2 == 1) {
+                assertNull(manager.getOrderFromNumber(number));
+            } else {
+                assertEquals(number, manager.getOrderFromNumber(number).getOrderNumber());
+            }
+        }
+        // A cancel of an unsaved order drops it from the changes; a repeated cancel would add one
+        assertEquals(total / 2, manager.getChangeCount());
+    }
+
+    @Test
+    public void cancelRacingPlacementIsNeverSavedBeforeIt() throws Exception {
+        OrderManager manager = new OrderManager(THREADS);
+        int placers = THREADS / 2 - 1;
+        int cancellers = THREADS / 2;
+        int total = placers * ORDERS_PER_THREAD;
+        AtomicIntegerArray placed = new AtomicIntegerArray(total + 1);
+        List<OrderChanges> saved = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger placing = new AtomicInteger(placers);
+
+        // Cancellers cancel every odd order as soon as it can be found, while the saver keeps
+        // taking the changes, so cancels land in the window between publishing and recording
+        runOnThreads(thread -> {
+            if (thread == 0) {
+                while (placing.get() > 0) {
+                    saved.add(manager.takeChanges());
+                }
+            } else if (thread <= placers) {
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    int number = manager.placeOrder(new Order(0, Collections.singletonList(
+                            Deluxe.of(Crust.DEEP_DISH, Size.SMALL))));
+                    placed.set(number, 1);
+                }
+                placing.decrementAndGet();
+            } else {
+                for (int number = 2 * (thread - placers) - 1; number <= total;
+                        number += 2 * cancellers) {
+                    do {
+                        manager.cancelOrder(number);
+                    } while (placed.get(number) == 0 || manager.getOrderFromNumber(number) != null);
+                }
+            }
+            return null;
+        });
+        saved.add(manager.takeChanges());
+
+        // Replays the saved changes the way recovery does, one save after another
+        BitSet replayed = new BitSet();
+        for (OrderChanges changes : saved) {
+            for (Order order : changes.getPlacedOrders()) {
+                replayed.set(order.getOrderNumber());
+            }
+            for (int number : changes.getCancelledOrderNumbers()) {
+                replayed.clear(number);
+            }
+        }
+        for (int number = 1; number <= total; number++) {
+            assertEquals("Order " + number, number % 2 == 0, replayed.get(number));
+        }
+    }
+
+    @Test
+    public void stripedStoreKeepsEveryOrderPutConcurrently() throws Exception {
+        StripedOrderStore store = new StripedOrderStore(THREADS);
+        runOnThreads(thread -> {
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                int number = i * THREADS + thread + 1;
+                store.put(new Order(number, Collections.emptyList()));
+                if (number % 3 == 0) {
+                    assertEquals(number, store.remove(number).getOrderNumber());
+                }
+            }
+            return null;
+        });
+
+        int total = THREADS * ORDERS_PER_THREAD;
+        assertEquals(total - total / 3, store.size());
+        int[] numbers = store.orderNumbers();
+        int expected = 1;
+        for (int number : numbers) {
+            if (expected % 3 == 0) {
+                expected++;
+            }
+            assertEquals(expected++, number);
+        }
+        List<Order> snapshot = store.snapshot();
+        assertEquals(numbers.length, snapshot.size());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(numbers[i], snapshot.get(i).getOrderNumber());
+        }
+    }
+
+    /**
+     * Runs a task on every thread at once and returns what each returned, in thread order.
+     */
+    private static <T> List<T> runOnThreads(ThreadTask<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                Callable<T> callable = () -> {
+                    start.await();
+                    return task.run(id);
+                };
+                futures.add(pool.submit(callable));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask<T> {
+        T run(int thread) throws Exception;
+    }
+}
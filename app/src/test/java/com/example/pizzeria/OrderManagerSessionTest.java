@@ -0,0 +1,69 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the per-session current orders of OrderManager.
+ * @author Jorgeluis Done
+ */
+public class OrderManagerSessionTest {
+    @Test
+    public void sessionsBuildTheirOwnOrders() {
+        OrderManager manager = new OrderManager();
+        manager.addToCurrentOrder("a", Deluxe.of(Crust.DEEP_DISH, Size.SMALL), 2);
+        manager.addToCurrentOrder("b", Meatzza.of(Crust.PAN, Size.LARGE));
+
+        assertEquals(2, manager.getCurrentOrder("a").getPizzaCount());
+        assertEquals(1, manager.getCurrentOrder("b").getPizzaCount());
+        assertEquals(2, manager.getSessionCount());
+
+        int number = manager.placeCurrentOrder("b");
+
+        assertEquals(1, manager.getOrderFromNumber(number).getPizzaCount());
+        assertEquals(0, manager.getCurrentOrder("b").getPizzaCount());
+        assertEquals(2, manager.getCurrentOrder("a").getPizzaCount());
+    }
+
+    @Test
+    public void currentOrderIsACopy() {
+        OrderManager manager = new OrderManager();
+        Pizza pizza = BBQChicken.of(Crust.THIN, Size.MEDIUM);
+        manager.addToCurrentOrder(pizza);
+
+        Order copy = manager.getCurrentOrder();
+        copy.addPizza(pizza, 5);
+        manager.addToCurrentOrder(pizza);
+
+        assertEquals(6, copy.getPizzaCount());
+        assertEquals(2, manager.getCurrentOrder().getPizzaCount());
+        assertEquals(2 * pizza.price(), manager.getCurrentOrder().getSubtotal());
+    }
+
+    @Test
+    public void removingOnePizzaLeavesTheRestOfTheLine() {
+        OrderManager manager = new OrderManager();
+        Pizza pizza = Deluxe.of(Crust.BROOKLYN, Size.LARGE);
+        manager.addToCurrentOrder(pizza, 3);
+
+        manager.removeFromCurrentOrder(pizza, 1);
+
+        assertEquals(1, manager.getCurrentOrder().getLineCount());
+        assertEquals(2, manager.getCurrentOrder().getLineQuantity(0));
+
+        manager.removeFromCurrentOrder(pizza, 1);
+        manager.removeFromCurrentOrder(pizza, 1);
+
+        assertEquals(0, manager.getCurrentOrder().getLineCount());
+    }
+
+    @Test
+    public void placingAnEmptySessionPlacesNothing() {
+        OrderManager manager = new OrderManager();
+
+        assertEquals(-1, manager.placeCurrentOrder("nobody"));
+        assertNull(manager.getOrderFromNumber(1));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for OrderPersistenceService, checking that saves are written on the writer
+ * thread and never on the thread asking for them.
+ * @author Jorgeluis Done
+ */
+public class OrderPersistenceServiceTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService statusThread = Executors.newSingleThreadExecutor(
+            task -> new Thread(task, "status"));
+
+    @After
+    public void tearDown() {
+        statusThread.shutdownNow();
+    }
+
+    @Test
+    public void savesAreWrittenOffTheCallingThread() throws Exception {
+        OrderManager manager = managerWithOrders(3);
+        RecordingContext context = new RecordingContext();
+        OrderPersistenceService service = new OrderPersistenceService(manager, statusThread);
+        CompletableFuture<String> status = new CompletableFuture<>();
+        List<Thread> listenerThreads = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> save = service.saveOrdersAsync(context, "orders.txt", message -> {
+            listenerThreads.add(Thread.currentThread());
+            status.complete(message);
+        });
+
+        // The writer is held inside openFileOutput, so the call must already have returned
+        assertFalse(save.isDone());
+        context.release.countDown();
+        assertEquals("Orders saved to the file.\n", save.get(5, TimeUnit.SECONDS));
+        assertEquals("Orders saved to the file.\n", status.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, context.writerThreads.size());
+        assertNotSame(Thread.currentThread(), context.writerThreads.get(0));
+        assertEquals("order-persistence", context.writerThreads.get(0).getName());
+        assertEquals("status", listenerThreads.get(0).getName());
+        String saved = new String(Files.readAllBytes(
+                new File(folder.getRoot(), "orders.txt").toPath()), StandardCharsets.UTF_8);
+        assertTrue(saved.startsWith("Order Number: 1\n"));
+        service.shutdown();
+    }
+
+    @Test
+    public void requestsWaitingToRunAreCoalesced() throws Exception {
+        OrderManager manager = managerWithOrders(1);
+        RecordingContext context = new RecordingContext();
+        OrderPersistenceService service = new OrderPersistenceService(manager, statusThread);
+
+        CompletableFuture<String> running = service.saveOrdersAsync(context, "first.txt");
+        CompletableFuture<String> waiting = service.saveOrdersAsync(context, "second.txt");
+        CompletableFuture<String> joined = service.saveOrdersAsync(context, "second.txt");
+        context.release.countDown();
+
+        assertSame(waiting, joined);
+        running.get(5, TimeUnit.SECONDS);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(2, context.writerThreads.size()); // one write per file
+        service.shutdown();
+    }
+
+    @Test
+    public void changesAreSavedOnTheWriterThread() throws Exception {
+        OrderManager manager = new OrderManager();
+        OrderRecovery recovery = new OrderRecovery(folder.getRoot(), manager);
+        recovery.recover();
+        manager.placeOrder(new Order(0, Collections.singletonList(Deluxe.of(Crust.PAN, Size.LARGE))));
+        OrderPersistenceService service = new OrderPersistenceService(manager, statusThread);
+        CompletableFuture<String> status = new CompletableFuture<>();
+
+        CompletableFuture<String> save = service.saveChangesAsync(recovery, status::complete);
+
+        assertEquals("Orders saved to a new snapshot.\n", save.get(5, TimeUnit.SECONDS));
+        assertEquals("Orders saved to a new snapshot.\n", status.get(5, TimeUnit.SECONDS));
+        assertTrue(new File(folder.getRoot(), OrderRecovery.SNAPSHOT_FILE).exists());
+        service.shutdown();
+        recovery.close();
+    }
+
+    @Test
+    public void savesAfterShutdownFailInsteadOfHanging() throws Exception {
+        RecordingContext context = new RecordingContext();
+        context.release.countDown();
+        OrderPersistenceService service = new OrderPersistenceService(managerWithOrders(1),
+                statusThread);
+        service.shutdown();
+        CompletableFuture<String> status = new CompletableFuture<>();
+
+        CompletableFuture<String> first = service.saveOrdersAsync(context, "orders.txt",
+                status::complete);
+        CompletableFuture<String> second = service.saveOrdersAsync(context, "orders.txt");
+
+        assertNotSame(first, second); // the rejected save is not left for others to join
+        for (CompletableFuture<String> save : Arrays.asList(first, second)) {
+            try {
+                save.get(5, TimeUnit.SECONDS);
+                fail("Expected the save to be rejected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertTrue(status.get(5, TimeUnit.SECONDS).startsWith("Error saving orders to file"));
+        assertTrue(context.writerThreads.isEmpty());
+    }
+
+    private static OrderManager managerWithOrders(int count) {
+        OrderManager manager = new OrderManager();
+        for (int i = 0; i < count; i++) {
+            manager.placeOrder(new Order(0, Collections.singletonList(
+                    Meatzza.of(Crust.STUFFED, Size.SMALL))));
+        }
+        return manager;
+    }
+
+    /**
+     * Opens files in the temporary folder, recording which thread opened them and holding
+     * the writer until released.
+     */
+    private final class RecordingContext extends ContextWrapper {
+        final List<Thread> writerThreads = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        RecordingContext() {
+            super(null);
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public FileOutputStream openFileOutput(String name, int mode) throws FileNotFoundException {
+            writerThreads.add(Thread.currentThread());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new FileOutputStream(new File(folder.getRoot(), name));
+        }
+    }
+}
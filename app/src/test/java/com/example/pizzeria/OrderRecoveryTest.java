@@ -0,0 +1,201 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for OrderRecovery. Crashes are simulated by copying the directory as it was at
+ * the moment of the crash, taken from a run of saves that was allowed to finish, and then
+ * recovering from the copy.
+ * @author Jorgeluis Done
+ */
+public class OrderRecoveryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private OrderManager manager;
+    private OrderRecovery recovery;
+    private final List<OrderRecovery> opened = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("orders");
+        manager = new OrderManager();
+        recovery = open(directory, manager);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (OrderRecovery open : opened) {
+            open.close();
+        }
+    }
+
+    @Test
+    public void recoversFromSnapshotSegmentsAndJournal() throws Exception {
+        place(10);
+        assertEquals(-1, recovery.saveChanges()); // the first save merges into the archive
+        place(5);
+        manager.cancelOrder(3);
+        manager.cancelOrder(12);
+        manager.addToCurrentOrder("terminal", Deluxe.of(Crust.PAN, Size.LARGE), 2);
+        assertEquals(5, recovery.saveChanges());
+        assertEquals(1, recovery.getSegmentCount());
+        place(3);
+        manager.cancelOrder(14);
+        recovery.close();
+
+        OrderManager recovered = new OrderManager();
+        OrderRecovery.Result result = open(directory, recovered).recover();
+
+        assertSameOrders(manager, recovered);
+        assertEquals(10, result.getArchivedOrders());
+        assertEquals(0, result.getSnapshotOrders());
+        assertEquals(5, result.getSegmentRecords());
+        assertEquals(4, result.getJournalRecords());
+        assertEquals(2, recovered.getCurrentOrder("terminal").getPizzaCount());
+        assertEquals(19, recovered.getNextOrderNumber());
+    }
+
+    @Test
+    public void recoversAfterCompactingIntoTheArchive() throws Exception {
+        place(20);
+        recovery.saveChanges();
+        manager.cancelOrder(4);
+        recovery.compact();
+        manager.cancelOrder(5); // an archived order, cancelled after the merge
+        place(2);
+        recovery.close();
+
+        OrderManager recovered = new OrderManager();
+        OrderRecovery.Result result = open(directory, recovered).recover();
+
+        assertSameOrders(manager, recovered);
+        assertEquals(19, result.getArchivedOrders());
+        assertNull(recovered.getOrderFromNumber(4));
+        assertNull(recovered.getOrderFromNumber(5));
+    }
+
+    @Test
+    public void crashAfterTheArchiveRenameBeforeTheSnapshotRename() throws Exception {
+        place(30);
+        recovery.saveChanges();
+        place(10);
+        manager.cancelOrder(2);
+        manager.cancelOrder(35);
+        recovery.saveChanges();
+        place(5);
+        manager.cancelOrder(7);
+        File beforeMerge = copyOf(directory, "before-merge");
+
+        recovery.compact();
+        place(4);
+        manager.cancelOrder(9);
+        manager.getJournal().sync().get();
+
+        // The new archive and journal generation are in place, the old snapshot, segments
+        // and journal generations are not yet replaced
+        File crashed = copyOf(beforeMerge, "crashed");
+        File archive = new File(directory, OrderRecovery.ARCHIVE_FILE);
+        copy(archive, crashed);
+        copy(OrderArchive.indexFileOf(archive), crashed);
+        for (File journal : journals(directory)) {
+            if (!new File(crashed, journal.getName()).exists()) {
+                copy(journal, crashed);
+            }
+        }
+
+        OrderManager recovered = new OrderManager();
+        open(crashed, recovered).recover();
+
+        assertSameOrders(manager, recovered);
+    }
+
+    @Test
+    public void aTornJournalTailOnlyLosesTheLastRecord() throws Exception {
+        place(3);
+        recovery.saveChanges();
+        place(2);
+        manager.getJournal().sync().get();
+        File[] journals = journals(directory);
+        File newest = journals[journals.length - 1];
+        try (RandomAccessFile file = new RandomAccessFile(newest, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        OrderManager recovered = new OrderManager();
+        OrderRecovery.Result result = open(copyOf(directory, "crashed"), recovered).recover();
+
+        assertEquals(1, result.getJournalRecords());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, recovered.getAllOrderNumbers());
+    }
+
+    private OrderRecovery open(File dir, OrderManager orderManager) throws IOException {
+        OrderRecovery opening = new OrderRecovery(dir, orderManager);
+        opened.add(opening);
+        if (orderManager == manager) {
+            opening.recover();
+        }
+        return opening;
+    }
+
+    private void place(int count) {
+        for (int i = 0; i < count; i++) {
+            manager.placeOrder(new Order(0, Collections.singletonList(
+                    BBQChicken.of(Crust.BROOKLYN, Size.values()[i % 3]))));
+        }
+    }
+
+    static void assertSameOrders(OrderManager expected, OrderManager actual) {
+        int[] numbers = expected.getAllOrderNumbers();
+        assertArrayEquals(numbers, actual.getAllOrderNumbers());
+        for (int number : numbers) {
+            assertEquals(expected.getOrderFromNumber(number).getSubtotal(),
+                    actual.getOrderFromNumber(number).getSubtotal());
+        }
+        assertTrue(actual.getNextOrderNumber() >= expected.getNextOrderNumber());
+        assertEquals(expected.calculateTotalSales(), actual.calculateTotalSales());
+    }
+
+    static File[] journals(File dir) {
+        File[] journals = dir.listFiles((parent, name) -> name.startsWith("orders.journal."));
+        Arrays.sort(journals, (a, b) -> Integer.compare(generation(a), generation(b)));
+        return journals;
+    }
+
+    private static int generation(File journal) {
+        return Integer.parseInt(journal.getName().substring("orders.journal.".length()));
+    }
+
+    File copyOf(File dir, String name) throws IOException {
+        File copy = folder.newFolder(name);
+        for (File file : dir.listFiles()) {
+            copy(file, copy);
+        }
+        return copy;
+    }
+
+    static void copy(File file, File dir) throws IOException {
+        Files.copy(file.toPath(), new File(dir, file.getName()).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.pizzeria;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Compares the cost of saving the same 100 new orders as a delta segment with merging them
+ * into the archive and a new snapshot, as the order history grows from 10k to 1M orders.
+ * Segment saves should stay flat, and merges should only grow with the archive's index since
+ * they append the new orders rather than rewriting the history.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class OrderSaveBenchmark {
+    private static final int[] HISTORY_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int NEW_ORDERS = 100;
+    private static final int ROUNDS = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saveCostByHistorySize() throws Exception {
+        for (int history : HISTORY_SIZES) {
+            File directory = folder.newFolder("history-" + history);
+            OrderManager manager = new OrderManager();
+            try (OrderRecovery recovery = new OrderRecovery(directory, manager)) {
+                recovery.recover();
+                place(manager, history);
+                recovery.saveChanges(); // merges the history into the archive and snapshot
+
+                long segmentNanos = Long.MAX_VALUE;
+                long mergeNanos = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    place(manager, NEW_ORDERS);
+                    long start = System.nanoTime();
+                    recovery.saveChanges();
+                    segmentNanos = Math.min(segmentNanos, System.nanoTime() - start);
+
+                    place(manager, NEW_ORDERS);
+                    start = System.nanoTime();
+                    recovery.compact();
+                    mergeNanos = Math.min(mergeNanos, System.nanoTime() - start);
+                }
+                System.out.printf("%,9d orders: segment save %.2f ms, full merge %.2f ms%n",
+                        history, segmentNanos / 1e6, mergeNanos / 1e6);
+            }
+        }
+    }
+
+    private static void place(OrderManager manager, int count) {
+        for (int i = 0; i < count; i++) {
+            manager.placeOrder(new Order(0, Collections.singletonList(
+                    Deluxe.of(Crust.DEEP_DISH, Size.values()[i % 3]))));
+        }
+    }
+}
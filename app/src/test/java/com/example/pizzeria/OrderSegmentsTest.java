@@ -0,0 +1,178 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the delta segments saved by OrderRecovery, including recovery from a crash
+ * part way through a save. Crashes are simulated by assembling the files that would be on
+ * disk at the moment of the crash from copies taken before and after a save that finished.
+ * @author Jorgeluis Done
+ */
+public class OrderSegmentsTest {
+    private static final String SEGMENT_PREFIX = "orders.segment.";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private OrderManager manager;
+    private OrderRecovery recovery;
+    private final List<OrderRecovery> opened = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("orders");
+        manager = new OrderManager();
+        recovery = new OrderRecovery(directory, manager);
+        opened.add(recovery);
+        recovery.recover();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (OrderRecovery open : opened) {
+            open.close();
+        }
+    }
+
+    @Test
+    public void savesOnlyTheChangesSinceTheLastSave() throws Exception {
+        place(100);
+        recovery.saveChanges();
+        place(3);
+        manager.cancelOrder(50);
+        manager.cancelOrder(102);
+
+        // Order 102 was placed and cancelled since the last save, so it is not saved at all
+        assertEquals(3, recovery.saveChanges());
+        assertEquals(0, recovery.saveChanges());
+        assertEquals(2, recovery.getSegmentCount());
+        assertEquals(0, manager.getChangeCount());
+    }
+
+    @Test
+    public void segmentsAreMergedOnceEnoughHaveBuiltUp() throws Exception {
+        place(1);
+        recovery.saveChanges();
+        int saves = 0;
+        while (recovery.getSegmentCount() > 0 || saves == 0) {
+            place(1);
+            recovery.saveChanges();
+            saves++;
+        }
+        assertEquals(17, saves); // 16 segments, then a merge
+        assertEquals(0, segmentFiles(directory).length);
+    }
+
+    @Test
+    public void crashAfterTheSegmentIsWrittenBeforeTheManifest() throws Exception {
+        place(20);
+        recovery.saveChanges();
+        place(5);
+        manager.cancelOrder(3);
+        manager.getJournal().sync().get();
+        File beforeSave = copyOf(directory, "before-save");
+
+        recovery.saveChanges();
+        place(2);
+        manager.cancelOrder(21);
+        manager.getJournal().sync().get();
+
+        // The segment and the new journal generation exist, the manifest does not name it yet
+        File crashed = copyOf(beforeSave, "crashed");
+        File[] segments = segmentFiles(directory);
+        assertEquals(1, segments.length);
+        OrderRecoveryTest.copy(segments[0], crashed);
+        for (File journal : OrderRecoveryTest.journals(directory)) {
+            OrderRecoveryTest.copy(journal, crashed);
+        }
+
+        OrderManager recovered = new OrderManager();
+        OrderRecovery reopened = new OrderRecovery(crashed, recovered);
+        opened.add(reopened);
+        reopened.recover();
+
+        OrderRecoveryTest.assertSameOrders(manager, recovered);
+        assertEquals(0, reopened.getSegmentCount());
+        assertFalse(new File(crashed, segments[0].getName()).exists());
+    }
+
+    @Test
+    public void segmentsOnAStaleSnapshotAreIgnored() throws Exception {
+        place(10);
+        recovery.saveChanges();
+        place(1); // order 11, saved in a segment and cancelled before the merge
+        recovery.saveChanges();
+        manager.cancelOrder(11);
+        manager.getJournal().sync().get();
+        File beforeMerge = copyOf(directory, "before-merge");
+
+        recovery.compact();
+        place(1);
+        manager.getJournal().sync().get();
+
+        // The new archive and snapshot are in place, the manifest still names the old
+        // snapshot and its segments, and the old journal generations are not yet deleted
+        File crashed = copyOf(directory, "crashed");
+        File manifest = new File(beforeMerge, OrderSegments.MANIFEST_FILE);
+        OrderRecoveryTest.copy(manifest, crashed);
+        File[] staleSegments = segmentFiles(beforeMerge);
+        assertEquals(1, staleSegments.length);
+        for (File segment : staleSegments) {
+            OrderRecoveryTest.copy(segment, crashed);
+        }
+        for (File journal : OrderRecoveryTest.journals(beforeMerge)) {
+            if (!new File(crashed, journal.getName()).exists()) {
+                OrderRecoveryTest.copy(journal, crashed);
+            }
+        }
+
+        OrderManager recovered = new OrderManager();
+        OrderRecovery reopened = new OrderRecovery(crashed, recovered);
+        opened.add(reopened);
+        OrderRecovery.Result result = reopened.recover();
+
+        assertEquals(0, result.getSegmentRecords());
+        assertNull(recovered.getOrderFromNumber(11));
+        OrderRecoveryTest.assertSameOrders(manager, recovered);
+        assertEquals(0, segmentFiles(crashed).length);
+        assertTrue(OrderRecoveryTest.journals(crashed).length >= 1);
+    }
+
+    private void place(int count) {
+        for (int i = 0; i < count; i++) {
+            manager.placeOrder(new Order(0, Collections.singletonList(
+                    Meatzza.of(Crust.HAND_TOSSED, Size.values()[i % 3]))));
+        }
+    }
+
+    private static File[] segmentFiles(File dir) {
+        return dir.listFiles((parent, name) -> name.startsWith(SEGMENT_PREFIX));
+    }
+
+    private File copyOf(File dir, String name) throws IOException {
+        File copy = folder.newFolder(name);
+        for (File file : dir.listFiles()) {
+            Files.copy(file.toPath(), new File(copy, file.getName()).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Compares insert and lookup throughput of the SQLite order store, on Robolectric's SQLite,
+ * with the in-memory StripedOrderStore. Inserts include the final flush, and lookups are by
+ * random order number once everything has been written.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+@RunWith(RobolectricTestRunner.class)
+public class OrderStoreBenchmark {
+    private static final int ORDERS = 20_000;
+    private static final int LOOKUPS = 5_000;
+
+    @Test
+    public void sqliteAgainstMemory() {
+        SQLiteOrderStore sqlite = new SQLiteOrderStore(RuntimeEnvironment.getApplication(), null,
+                SQLiteOrderStore.DEFAULT_BATCH_SIZE);
+        try {
+            measure("sqlite", sqlite);
+        } finally {
+            sqlite.close();
+        }
+        measure("memory", new StripedOrderStore(4));
+    }
+
+    private static void measure(String name, OrderStore store) {
+        long start = System.nanoTime();
+        for (int number = 1; number <= ORDERS; number++) {
+            Order order = new Order(number, Collections.singletonList(
+                    Deluxe.of(Crust.DEEP_DISH, Size.values()[number % 3])));
+            order.addPizza(new BuildYourOwn(Crust.PAN, Size.SMALL,
+                    Topping.maskOf(Topping.HAM, Topping.ONION)), number % 4 + 1);
+            store.put(order);
+        }
+        store.flush();
+        long insertNanos = System.nanoTime() - start;
+        assertEquals(ORDERS, store.size());
+
+        Random random = new Random(42);
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            int number = 1 + random.nextInt(ORDERS);
+            assertEquals(number, store.get(number).getOrderNumber());
+        }
+        long lookupNanos = System.nanoTime() - start;
+
+        System.out.printf("%s: %,.0f inserts/s, %,.0f lookups/s%n", name,
+                ORDERS * 1e9 / insertNanos, LOOKUPS * 1e9 / lookupNanos);
+    }
+}
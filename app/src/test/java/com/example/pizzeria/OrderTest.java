@@ -0,0 +1,121 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Unit tests for Order, checking that the running subtotal and pizza count always match the
+ * lines of the order however pizzas are added and removed.
+ * @author Jorgeluis Done
+ */
+public class OrderTest {
+    @Test
+    public void equalPizzasShareALine() {
+        Order order = new Order(1, Arrays.asList(
+                Deluxe.of(Crust.DEEP_DISH, Size.SMALL),
+                new BuildYourOwn(Crust.PAN, Size.LARGE, Topping.maskOf(Topping.HAM)),
+                Deluxe.of(Crust.DEEP_DISH, Size.SMALL)));
+
+        assertEquals(2, order.getLineCount());
+        assertEquals(2, order.getLineQuantity(0));
+        assertEquals(1, order.getLineQuantity(1));
+        assertEquals(3, order.getPizzaCount());
+        assertEquals(1699 * 2 + 1299 + 169, order.getSubtotal());
+    }
+
+    @Test
+    public void removingMoreThanTheLineHoldsRemovesTheLine() {
+        Pizza pizza = Meatzza.of(Crust.STUFFED, Size.MEDIUM);
+        Order order = new Order(1, Collections.emptyList());
+        order.addPizza(pizza, 3);
+
+        order.removePizza(pizza, 5);
+
+        assertEquals(0, order.getLineCount());
+        assertEquals(0, order.getPizzaCount());
+        assertEquals(0, order.getSubtotal());
+    }
+
+    @Test
+    public void removingAPizzaNotInTheOrderChangesNothing() {
+        Order order = new Order(1, Collections.singletonList(BBQChicken.of(Crust.PAN, Size.LARGE)));
+
+        order.removePizza(BBQChicken.of(Crust.PAN, Size.SMALL));
+
+        assertEquals(1, order.getPizzaCount());
+        assertEquals(1999, order.getSubtotal());
+    }
+
+    @Test
+    public void laterChangesToAPizzaDoNotAffectTheOrder() {
+        BuildYourOwn pizza = new BuildYourOwn(Crust.THIN, Size.SMALL);
+        Order order = new Order(1, Collections.singletonList(pizza));
+
+        pizza.addTopping(Topping.ONION);
+
+        assertEquals(899, order.getSubtotal());
+        assertEquals(0, PizzaCode.toppingCount(order.getLineCode(0)));
+    }
+
+    @Test
+    public void invalidCodesAreRejected() {
+        Order order = new Order(1, Collections.emptyList());
+        try {
+            order.addPizzaCode(-1L, 1);
+            fail("Expected an invalid code to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, order.getSubtotal());
+            assertEquals(0, order.getLineCount());
+        }
+    }
+
+    @Test
+    public void totalsMatchTheLinesAfterRandomChanges() {
+        Random random = new Random(7);
+        Pizza[] menu = {
+                Deluxe.of(Crust.DEEP_DISH, Size.LARGE),
+                Meatzza.of(Crust.BROOKLYN, Size.SMALL),
+                BBQChicken.of(Crust.HAND_TOSSED, Size.MEDIUM),
+                new BuildYourOwn(Crust.PAN, Size.MEDIUM),
+                new BuildYourOwn(Crust.THIN, Size.LARGE,
+                        Topping.maskOf(Topping.BEEF, Topping.CHEDDAR, Topping.ONION)),
+        };
+        Order order = new Order(1, Collections.emptyList());
+        for (int step = 0; step < 10_000; step++) {
+            Pizza pizza = menu[random.nextInt(menu.length)];
+            if (random.nextInt(3) == 0) {
+                order.removePizza(pizza, 1 + random.nextInt(3));
+            } else {
+                order.addPizza(pizza, 1 + random.nextInt(3));
+            }
+
+            long subtotal = 0;
+            int pizzaCount = 0;
+            for (int i = 0; i < order.getLineCount(); i++) {
+                assertTrue(order.getLineQuantity(i) > 0);
+                subtotal += PizzaCode.price(order.getLineCode(i)) * order.getLineQuantity(i);
+                pizzaCount += order.getLineQuantity(i);
+            }
+            assertEquals(subtotal, order.getSubtotal());
+            assertEquals(subtotal, OrderManager.calculateSubtotal(order));
+            assertEquals(pizzaCount, order.getPizzaCount());
+            assertEquals(order.getSubtotal() + order.getSalesTax(), order.getTotalAmount());
+        }
+    }
+
+    @Test
+    public void salesTaxRoundsToTheNearestCent() {
+        Order order = new Order(1, Collections.singletonList(Deluxe.of(Crust.DEEP_DISH, Size.SMALL)));
+
+        // 16.99 * 6.625% = 1.1255875
+        assertEquals(113, order.getSalesTax());
+        assertEquals(1812, order.getTotalAmount());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures what packing pizzas into PizzaCodes saves, decoding 1M three-line orders into
+ * Orders that keep their lines as codes, and into the object model orders used before, a
+ * list of line objects each holding a pizza with its own list of toppings. Reports the bytes
+ * allocated per decode and the bytes retained per order held.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class PizzaCodeBenchmark {
+    private static final int ORDERS = 1_000_000;
+
+    @Test
+    public void codesAgainstObjects() throws Exception {
+        Order sample = new Order(1, Arrays.asList(Deluxe.of(Crust.DEEP_DISH, Size.LARGE),
+                new BuildYourOwn(Crust.PAN, Size.SMALL,
+                        Topping.maskOf(Topping.HAM, Topping.ONION, Topping.BEEF))));
+        sample.addPizza(Meatzza.of(Crust.STUFFED, Size.MEDIUM), 2);
+        byte[] record = OrderCodec.encode(sample);
+
+        long before = usedHeap();
+        long allocated = allocatedBytes();
+        Order[] coded = new Order[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            coded[i] = OrderCodec.decode(ByteBuffer.wrap(record));
+        }
+        long codedAllocated = allocatedBytes() - allocated;
+        long codedRetained = usedHeap() - before;
+        assertEquals(3, coded[ORDERS - 1].getLineCount());
+        coded = null;
+
+        before = usedHeap();
+        allocated = allocatedBytes();
+        ObjectOrder[] objects = new ObjectOrder[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            objects[i] = ObjectOrder.decode(OrderCodec.decode(ByteBuffer.wrap(record)));
+        }
+        long objectAllocated = allocatedBytes() - allocated;
+        long objectRetained = usedHeap() - before;
+        assertEquals(3, objects[ORDERS - 1].lines.size());
+
+        System.out.printf("codes: %.0f bytes allocated per decode, %.0f retained per order%n",
+                (double) codedAllocated / ORDERS, (double) codedRetained / ORDERS);
+        System.out.printf("objects: %.0f bytes allocated per decode, %.0f retained per order%n",
+                (double) (objectAllocated - codedAllocated) / ORDERS, (double) objectRetained / ORDERS);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * An order laid out the way orders were before PizzaCodes, with an object per line and per
+     * pizza. Built from a decoded Order, so its allocations are those of the decode plus the
+     * objects; the decode's share is subtracted when reporting.
+     */
+    private static final class ObjectOrder {
+        final int orderNumber;
+        final List<ObjectLine> lines = new ArrayList<>();
+
+        ObjectOrder(int orderNumber) {
+            this.orderNumber = orderNumber;
+        }
+
+        static ObjectOrder decode(Order order) {
+            ObjectOrder objects = new ObjectOrder(order.getOrderNumber());
+            for (int i = 0; i < order.getLineCount(); i++) {
+                long code = order.getLineCode(i);
+                ObjectPizza pizza = new ObjectPizza(PizzaCode.type(code), PizzaCode.crust(code),
+                        PizzaCode.size(code), new ArrayList<>(PizzaCode.toppings(code)));
+                objects.lines.add(new ObjectLine(pizza, order.getLineQuantity(i)));
+            }
+            return objects;
+        }
+    }
+
+    private static final class ObjectLine {
+        final ObjectPizza pizza;
+        final int quantity;
+
+        ObjectLine(ObjectPizza pizza, int quantity) {
+            this.pizza = pizza;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class ObjectPizza {
+        final PizzaType type;
+        final Crust crust;
+        final Size size;
+        final List<Topping> toppings;
+
+        ObjectPizza(PizzaType type, Crust crust, Size size, List<Topping> toppings) {
+            this.type = type;
+            this.crust = crust;
+            this.size = size;
+            this.toppings = toppings;
+        }
+    }
+}
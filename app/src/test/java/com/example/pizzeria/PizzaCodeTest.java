@@ -0,0 +1,139 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Unit tests for PizzaCode.
+ * @author Jorgeluis Done
+ */
+public class PizzaCodeTest {
+    @Test
+    public void unpacksWhatWasPacked() {
+        for (PizzaType type : PizzaType.values()) {
+            for (Crust crust : Crust.values()) {
+                for (Size size : Size.values()) {
+                    int toppings = type == PizzaType.BUILD_YOUR_OWN
+                            ? Topping.maskOf(Topping.HAM, Topping.ONION) : type.recipeMask();
+                    long code = PizzaCode.of(type, crust, size, toppings);
+
+                    assertTrue(PizzaCode.isValid(code));
+                    assertSame(type, PizzaCode.type(code));
+                    assertSame(crust, PizzaCode.crust(code));
+                    assertSame(size, PizzaCode.size(code));
+                    assertEquals(toppings, PizzaCode.toppingMask(code));
+                    assertEquals(Integer.bitCount(toppings), PizzaCode.toppingCount(code));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void specialtyPizzasMustHaveExactlyTheirRecipe() {
+        assertRejected(PizzaType.DELUXE.ordinal(), 0, 0, 0);
+        assertRejected(PizzaType.MEATZZA.ordinal(), 0, 0,
+                PizzaType.MEATZZA.recipeMask() | Topping.ONION.mask());
+        assertRejected(PizzaType.BBQ_CHICKEN.ordinal(), 0, 0, PizzaType.DELUXE.recipeMask());
+    }
+
+    @Test
+    public void buildYourOwnIsLimitedToTheToppingLimit() {
+        int limit = (1 << PriceTable.MAX_TOPPINGS) - 1;
+        PizzaCode.of(PizzaType.BUILD_YOUR_OWN.ordinal(), 0, 0, limit);
+        assertRejected(PizzaType.BUILD_YOUR_OWN.ordinal(), 0, 0, limit << 1 | 1);
+    }
+
+    @Test
+    public void valuesOffTheMenuAreRejected() {
+        assertRejected(PizzaType.values().length, 0, 0, 0);
+        assertRejected(PizzaType.BUILD_YOUR_OWN.ordinal(), Crust.values().length, 0, 0);
+        assertRejected(PizzaType.BUILD_YOUR_OWN.ordinal(), 0, Size.values().length, 0);
+        assertRejected(PizzaType.BUILD_YOUR_OWN.ordinal(), 0, 0, 1 << Topping.values().length);
+        assertRejected(-1, 0, 0, 0);
+        assertFalse(PizzaCode.isValid(-1L));
+        assertFalse(PizzaCode.isValid(1L << 62));
+    }
+
+    @Test
+    public void withChangesOnlyTheOneField() {
+        long code = PizzaCode.of(PizzaType.BUILD_YOUR_OWN, Crust.PAN, Size.SMALL,
+                Topping.maskOf(Topping.BEEF));
+
+        long changed = PizzaCode.withSize(PizzaCode.withCrust(code, Crust.THIN), Size.LARGE);
+
+        assertEquals(PizzaCode.of(PizzaType.BUILD_YOUR_OWN, Crust.THIN, Size.LARGE,
+                Topping.maskOf(Topping.BEEF)), changed);
+        assertEquals(Topping.maskOf(Topping.HAM, Topping.BEEF),
+                PizzaCode.toppingMask(PizzaCode.withToppings(code, Topping.maskOf(Topping.HAM, Topping.BEEF))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void specialtyToppingsCannotBeChanged() {
+        long code = PizzaCode.of(PizzaType.DELUXE, Crust.DEEP_DISH, Size.SMALL,
+                PizzaType.DELUXE.recipeMask());
+        PizzaCode.withToppings(code, 0);
+    }
+
+    @Test
+    public void pricesAndLabelsComeFromTheCode() {
+        long code = PizzaCode.of(PizzaType.BUILD_YOUR_OWN, Crust.PAN, Size.MEDIUM,
+                Topping.maskOf(Topping.HAM, Topping.ONION));
+
+        assertEquals(PriceTable.MENU.price(PizzaType.BUILD_YOUR_OWN, Size.MEDIUM, 2),
+                PizzaCode.price(code));
+        assertEquals("Size: " + Size.MEDIUM + "\nCrust: " + Crust.PAN + "\nToppings: "
+                + Topping.ONION + ", " + Topping.HAM, PizzaCode.toString(code));
+        assertTrue(PizzaCode.toString(PizzaCode.of(PizzaType.BUILD_YOUR_OWN, Crust.PAN,
+                Size.SMALL, 0)).endsWith("No toppings"));
+    }
+
+    @Test
+    public void pizzasAreEqualWhenTheirCodesAre() {
+        Pizza first = new BuildYourOwn(Crust.PAN, Size.SMALL, Topping.maskOf(Topping.HAM));
+        Pizza second = new BuildYourOwn(Crust.PAN, Size.SMALL);
+        second.addTopping(Topping.HAM);
+        Pizza third = new BuildYourOwn(Crust.PAN, Size.SMALL);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, third);
+        assertEquals(first, PizzaCode.toPizza(first.getCode()));
+        assertEquals(first.hashCode(), PizzaCode.toPizza(first.getCode()).hashCode());
+    }
+
+    @Test
+    public void specialtyPizzasComeBackShared() {
+        Pizza deluxe = Deluxe.of(Crust.DEEP_DISH, Size.LARGE);
+
+        assertSame(deluxe, PizzaCode.toPizza(deluxe.getCode()));
+        assertSame(deluxe, deluxe.copy());
+    }
+
+    @Test
+    public void equalPizzasShareAnOrderLine() {
+        Order order = new Order(1, Collections.emptyList());
+        order.addPizza(new BuildYourOwn(Crust.PAN, Size.SMALL, Topping.maskOf(Topping.HAM)), 1);
+        order.addPizza(new BuildYourOwn(Crust.PAN, Size.SMALL, Topping.maskOf(Topping.HAM)), 2);
+
+        assertEquals(1, order.getLineCount());
+        assertEquals(3, order.getLineQuantity(0));
+    }
+
+    private static void assertRejected(int type, int crust, int size, int toppings) {
+        try {
+            PizzaCode.of(type, crust, size, toppings);
+            fail("Accepted type " + type + ", crust " + crust + ", size " + size
+                    + ", toppings 0x" + Integer.toHexString(toppings));
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
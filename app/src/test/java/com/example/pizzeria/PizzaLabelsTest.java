@@ -0,0 +1,84 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for PizzaLabels and the labels pizzas take from it.
+ * @author Jorgeluis Done
+ */
+public class PizzaLabelsTest {
+    @Test
+    public void repeatedLookupsReturnTheSameText() {
+        long code = Deluxe.of(Crust.BROOKLYN, Size.LARGE).getCode();
+
+        String pizza = PizzaLabels.pizza(code);
+        String line = PizzaLabels.line(code, 3);
+
+        assertEquals(PizzaCode.toString(code), pizza);
+        assertEquals(PizzaCode.toString(code) + "\nQuantity: 3", line);
+        assertSame(pizza, PizzaLabels.pizza(code));
+        assertSame(line, PizzaLabels.line(code, 3));
+    }
+
+    @Test
+    public void codesSharingASlotAreRenderedForTheirOwnConfiguration() {
+        // More configurations than the tables have slots, so some of them must share a slot
+        List<Long> codes = new ArrayList<>();
+        for (Crust crust : Crust.values()) {
+            for (Size size : Size.values()) {
+                for (int mask = 0; mask < 1 << 6; mask++) {
+                    codes.add(PizzaCode.of(PizzaType.BUILD_YOUR_OWN, crust, size, mask));
+                }
+            }
+        }
+        for (int round = 0; round < 2; round++) {
+            for (long code : codes) {
+                assertEquals(PizzaCode.toString(code), PizzaLabels.pizza(code));
+                assertEquals(PizzaCode.toString(code) + "\nQuantity: " + (round + 1),
+                        PizzaLabels.line(code, round + 1));
+            }
+        }
+    }
+
+    @Test
+    public void linesOfTheSamePizzaDifferByQuantity() {
+        long code = Meatzza.of(Crust.PAN, Size.SMALL).getCode();
+
+        for (int quantity = 1; quantity <= 300; quantity++) {
+            assertEquals(PizzaCode.toString(code) + "\nQuantity: " + quantity,
+                    PizzaLabels.line(code, quantity));
+        }
+    }
+
+    @Test
+    public void aChangedBuildYourOwnNeverShowsAStaleLabel() {
+        BuildYourOwn pizza = new BuildYourOwn(Crust.PAN, Size.SMALL);
+        assertTrue(pizza.toString().endsWith("No toppings"));
+
+        pizza.addTopping(Topping.SAUSAGE);
+        assertEquals(PizzaCode.toString(pizza.getCode()), pizza.toString());
+
+        pizza.addTopping(Topping.HAM);
+        pizza.addTopping(Topping.ONION);
+        assertTrue(pizza.toString().endsWith("Toppings: Sausage, Ham, Onion"));
+
+        pizza.setSize(Size.LARGE);
+        pizza.setCrust(Crust.THIN);
+        assertEquals("Size: " + Size.LARGE + "\nCrust: " + Crust.THIN
+                + "\nToppings: Sausage, Ham, Onion", pizza.toString());
+
+        pizza.removeTopping(Topping.HAM);
+        assertEquals(PizzaCode.toString(pizza.getCode()), pizza.toString());
+
+        pizza.removeTopping(Topping.SAUSAGE);
+        pizza.removeTopping(Topping.ONION);
+        assertTrue(pizza.toString().endsWith("No toppings"));
+    }
+}
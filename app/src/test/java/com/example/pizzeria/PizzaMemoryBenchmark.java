@@ -0,0 +1,120 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap taken per pizza by 1M pizzas, half Build Your Own with 3 toppings picked
+ * and half Deluxe, held the way Pizza holds them now, toppings packed into the PizzaCode and
+ * the pick order in an int on BuildYourOwn, and the way it held them before, with its own list
+ * of toppings in the order they were added. Also measures the heap per order line of 1M
+ * specialty pizzas when each line gets its own pizza and when the lines share the instances
+ * PizzaRegistry holds.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class PizzaMemoryBenchmark {
+    private static final int PIZZAS = 1_000_000;
+    private static final Topping[] PICKS = {Topping.MUSHROOM, Topping.SAUSAGE, Topping.HAM};
+
+    @Test
+    public void bytesPerPizza() {
+        long before = usedHeap();
+        Object[] listed = new Object[PIZZAS];
+        for (int i = 0; i < PIZZAS; i++) {
+            listed[i] = i % 2 == 0 ? ListedPizza.buildYourOwn(PICKS)
+                    : ListedPizza.of(Crust.DEEP_DISH, Size.SMALL, PizzaType.DELUXE.toppings(PizzaType.DELUXE.recipeMask()));
+        }
+        long listedBytes = usedHeap() - before;
+        assertEquals(PIZZAS, listed.length);
+        listed = null;
+
+        before = usedHeap();
+        Pizza[] coded = new Pizza[PIZZAS];
+        for (int i = 0; i < PIZZAS; i++) {
+            if (i % 2 == 0) {
+                BuildYourOwn pizza = new BuildYourOwn(Crust.PAN, Size.SMALL);
+                for (Topping topping : PICKS) {
+                    pizza.addTopping(topping);
+                }
+                coded[i] = pizza;
+            } else {
+                coded[i] = Deluxe.of(Crust.DEEP_DISH, Size.SMALL);
+            }
+        }
+        long codedBytes = usedHeap() - before;
+        assertEquals(coded[0].getToppings(), ListedPizza.buildYourOwn(PICKS).toppings);
+
+        System.out.printf("topping lists: %.1f bytes/pizza, pizza codes: %.1f bytes/pizza%n",
+                (double) listedBytes / PIZZAS, (double) codedBytes / PIZZAS);
+    }
+
+    @Test
+    public void bytesPerSpecialtyOrderLine() {
+        Crust[] crusts = Crust.values();
+        Size[] sizes = Size.values();
+        long before = usedHeap();
+        Pizza[] owned = new Pizza[PIZZAS];
+        for (int i = 0; i < PIZZAS; i++) {
+            owned[i] = new Deluxe(crusts[i % crusts.length], sizes[i % sizes.length]);
+        }
+        long ownedBytes = usedHeap() - before;
+        assertEquals(PIZZAS, owned.length);
+        owned = null;
+
+        before = usedHeap();
+        Pizza[] shared = new Pizza[PIZZAS];
+        for (int i = 0; i < PIZZAS; i++) {
+            shared[i] = Deluxe.of(crusts[i % crusts.length], sizes[i % sizes.length]);
+        }
+        long sharedBytes = usedHeap() - before;
+        assertSame(shared[0], shared[crusts.length * sizes.length]);
+
+        System.out.printf("pizza per line: %.1f bytes/line, shared pizzas: %.1f bytes/line%n",
+                (double) ownedBytes / PIZZAS, (double) sharedBytes / PIZZAS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * A pizza laid out the way Pizza was before toppings were packed into a bitmask.
+     */
+    private static final class ListedPizza {
+        final Crust crust;
+        final Size size;
+        final List<Topping> toppings = new ArrayList<>();
+
+        ListedPizza(Crust crust, Size size) {
+            this.crust = crust;
+            this.size = size;
+        }
+
+        static ListedPizza of(Crust crust, Size size, List<Topping> recipe) {
+            ListedPizza pizza = new ListedPizza(crust, size);
+            pizza.toppings.addAll(recipe);
+            return pizza;
+        }
+
+        static ListedPizza buildYourOwn(Topping... picks) {
+            ListedPizza pizza = new ListedPizza(Crust.PAN, Size.SMALL);
+            for (Topping topping : picks) {
+                pizza.toppings.add(topping);
+            }
+            return pizza;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares creating pizzas through a style's PizzaFactory, which looks up the type's crust and
+ * creator by id, with the switch on display names selectPizza used, and copying a Build Your
+ * Own pizza with copy() with the clonePizza approach of switching on the class's simple name
+ * and adding the toppings back one by one.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class PizzaRegistryBenchmark {
+    private static final int ITERATIONS = 20_000_000;
+    private static final int ROUNDS = 5;
+    private static final String[] NAMES = {"Deluxe", "Meatzza", "BBQ Chicken", "Build Your Own"};
+
+    @Test
+    public void creation() {
+        PizzaFactory factory = new ChicagoPizza(Size.SMALL);
+        long registryNanos = Long.MAX_VALUE;
+        long switchNanos = Long.MAX_VALUE;
+        long registryCheck = 0;
+        long switchCheck = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long check = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                check += factory.create(i & 3, Size.MEDIUM).getCode();
+            }
+            registryNanos = Math.min(registryNanos, System.nanoTime() - start);
+            registryCheck = check;
+
+            start = System.nanoTime();
+            check = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                check += createByName(NAMES[i & 3], Size.MEDIUM).getCode();
+            }
+            switchNanos = Math.min(switchNanos, System.nanoTime() - start);
+            switchCheck = check;
+        }
+        assertEquals(switchCheck, registryCheck);
+        System.out.printf("create: registry %.1f ns, name switch %.1f ns%n",
+                (double) registryNanos / ITERATIONS, (double) switchNanos / ITERATIONS);
+    }
+
+    @Test
+    public void copying() {
+        Pizza original = new BuildYourOwn(Crust.PAN, Size.LARGE);
+        for (Topping topping : new Topping[] {Topping.HAM, Topping.ONION, Topping.BEEF}) {
+            original.addTopping(topping);
+        }
+        long copyNanos = Long.MAX_VALUE;
+        long cloneNanos = Long.MAX_VALUE;
+        long copyCheck = 0;
+        long cloneCheck = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long check = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                check += original.copy().getCode();
+            }
+            copyNanos = Math.min(copyNanos, System.nanoTime() - start);
+            copyCheck = check;
+
+            start = System.nanoTime();
+            check = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                check += cloneByClassName(original).getCode();
+            }
+            cloneNanos = Math.min(cloneNanos, System.nanoTime() - start);
+            cloneCheck = check;
+        }
+        assertEquals(cloneCheck, copyCheck);
+        System.out.printf("copy: copy() %.1f ns, class name switch %.1f ns%n",
+                (double) copyNanos / ITERATIONS, (double) cloneNanos / ITERATIONS);
+    }
+
+    /**
+     * Creates a pizza the way selectPizza did, switching on the display name for the
+     * constructor and on the type for the Chicago crust.
+     */
+    private static Pizza createByName(String name, Size size) {
+        switch (name) {
+            case "Deluxe":
+                return Deluxe.of(Crust.DEEP_DISH, size);
+            case "Meatzza":
+                return Meatzza.of(Crust.STUFFED, size);
+            case "BBQ Chicken":
+                return BBQChicken.of(Crust.PAN, size);
+            default:
+                return new BuildYourOwn(Crust.PAN, size);
+        }
+    }
+
+    /**
+     * Copies a pizza the way clonePizza did, switching on the class's simple name and adding
+     * the toppings of a Build Your Own pizza back one at a time.
+     */
+    private static Pizza cloneByClassName(Pizza original) {
+        switch (original.getClass().getSimpleName()) {
+            case "Deluxe":
+                return Deluxe.of(original.getCrust(), original.getSize());
+            case "Meatzza":
+                return Meatzza.of(original.getCrust(), original.getSize());
+            case "BBQChicken":
+                return BBQChicken.of(original.getCrust(), original.getSize());
+            default:
+                BuildYourOwn copy = new BuildYourOwn(original.getCrust(), original.getSize());
+                for (Topping topping : original.getToppings()) {
+                    copy.addTopping(topping);
+                }
+                return copy;
+        }
+    }
+}
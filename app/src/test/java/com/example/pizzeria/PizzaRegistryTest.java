@@ -0,0 +1,137 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContextWrapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Unit tests for PizzaRegistry and the style factories that create pizzas through it.
+ * @author Jorgeluis Done
+ */
+public class PizzaRegistryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void createsEveryTypeByItsId() {
+        for (PizzaType type : PizzaType.values()) {
+            Pizza pizza = PizzaRegistry.create(type.ordinal(), Crust.PAN, Size.MEDIUM);
+
+            assertSame(type, pizza.getType());
+            assertSame(Crust.PAN, pizza.getCrust());
+            assertSame(Size.MEDIUM, pizza.getSize());
+            assertEquals(type.recipeMask(), pizza.getToppingMask());
+        }
+    }
+
+    @Test
+    public void specialtyPizzasAreSharedAndBuildYourOwnIsNew() {
+        int deluxe = PizzaType.DELUXE.ordinal();
+        int byo = PizzaType.BUILD_YOUR_OWN.ordinal();
+
+        assertSame(PizzaRegistry.create(deluxe, Crust.THIN, Size.SMALL),
+                PizzaRegistry.create(deluxe, Crust.THIN, Size.SMALL));
+        assertNotSame(PizzaRegistry.create(byo, Crust.THIN, Size.SMALL),
+                PizzaRegistry.create(byo, Crust.THIN, Size.SMALL));
+        assertEquals(Topping.maskOf(Topping.HAM), PizzaRegistry.create(byo, Crust.THIN, Size.SMALL,
+                Topping.maskOf(Topping.HAM)).getToppingMask());
+    }
+
+    @Test
+    public void everySpecialtyCrustAndSizeIsOneSharedInstance() {
+        for (Crust crust : Crust.values()) {
+            for (Size size : Size.values()) {
+                assertSame(Deluxe.of(crust, size), Deluxe.of(crust, size));
+                assertSame(Meatzza.of(crust, size), Meatzza.of(crust, size));
+                assertSame(BBQChicken.of(crust, size), BBQChicken.of(crust, size));
+                for (Pizza pizza : Arrays.asList(Deluxe.of(crust, size), Meatzza.of(crust, size),
+                        BBQChicken.of(crust, size))) {
+                    assertSame(crust, pizza.getCrust());
+                    assertSame(size, pizza.getSize());
+                    assertSame(pizza, pizza.copy());
+                    assertSame(pizza, PizzaRegistry.create(pizza.getType().ordinal(), crust, size));
+                    assertSame(pizza, PizzaCode.toPizza(pizza.getCode()));
+                    assertSame(pizza, pizza.withCrust(Crust.PAN).withCrust(crust));
+                    assertSame(pizza, pizza.withSize(Size.SMALL).withSize(size));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void classNamesAreThoseOfThePizzasMade() {
+        assertEquals("Deluxe", PizzaRegistry.className(PizzaType.DELUXE.ordinal()));
+        assertEquals("Meatzza", PizzaRegistry.className(PizzaType.MEATZZA.ordinal()));
+        assertEquals("BBQChicken", PizzaRegistry.className(PizzaType.BBQ_CHICKEN.ordinal()));
+        assertEquals("BuildYourOwn", PizzaRegistry.className(PizzaType.BUILD_YOUR_OWN.ordinal()));
+    }
+
+    @Test
+    public void stylesCreatePizzasOnTheirOwnCrusts() {
+        for (PizzaFactory factory : Arrays.asList(new ChicagoPizza(Size.SMALL), new NYPizza(Size.SMALL))) {
+            for (PizzaType type : PizzaType.values()) {
+                Pizza pizza = factory.create(type.ordinal(), Size.LARGE);
+
+                assertSame(type, pizza.getType());
+                assertSame(factory.getCrust(type.ordinal()), pizza.getCrust());
+            }
+        }
+    }
+
+    @Test
+    public void copiesAreIndependentOnlyForBuildYourOwn() {
+        Pizza deluxe = Deluxe.of(Crust.DEEP_DISH, Size.SMALL);
+        Pizza byo = new BuildYourOwn(Crust.PAN, Size.SMALL);
+        Pizza copy = byo.copy();
+        copy.addTopping(Topping.HAM);
+
+        assertSame(deluxe, deluxe.copy());
+        assertEquals(0, byo.getToppingCount());
+        assertEquals(1, copy.getToppingCount());
+    }
+
+    @Test
+    public void savedOrderFilesNamePizzasByClassWithQuantities() throws Exception {
+        OrderManager manager = new OrderManager();
+        Order order = new Order(0, Arrays.asList(BBQChicken.of(Crust.PAN, Size.SMALL),
+                new BuildYourOwn(Crust.THIN, Size.LARGE, Topping.maskOf(Topping.HAM))));
+        order.addPizza(BBQChicken.of(Crust.PAN, Size.SMALL), 2);
+        int number = manager.placeOrder(order);
+
+        assertEquals("Orders saved to the file.\n",
+                manager.saveOrdersToFile(new FolderContext(), "orders.txt"));
+
+        String saved = new String(Files.readAllBytes(new File(folder.getRoot(), "orders.txt").toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(saved, saved.startsWith("Order Number: " + number + "\nPizzas:\n"
+                + "- BBQChicken x3\n- BuildYourOwn x1\nTotal Amount: $"));
+    }
+
+    /**
+     * A context whose internal storage is the temporary folder.
+     */
+    private final class FolderContext extends ContextWrapper {
+        FolderContext() {
+            super(null);
+        }
+
+        @Override
+        public FileOutputStream openFileOutput(String name, int mode) throws FileNotFoundException {
+            return new FileOutputStream(new File(folder.getRoot(), name));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Compares pricing a large order history through the PriceTable with the switch on the size
+ * that every Pizza subclass used to do, and checks that both give the same prices.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class PriceTableBenchmark {
+    private static final int PIZZAS = 1_000_000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void priceTableAgainstSwitch() {
+        PizzaType[] types = new PizzaType[PIZZAS];
+        Size[] sizes = new Size[PIZZAS];
+        int[] toppingCounts = new int[PIZZAS];
+        Random random = new Random(42);
+        for (int i = 0; i < PIZZAS; i++) {
+            types[i] = PizzaType.values()[random.nextInt(PizzaType.values().length)];
+            sizes[i] = Size.values()[random.nextInt(Size.values().length)];
+            toppingCounts[i] = types[i] == PizzaType.BUILD_YOUR_OWN
+                    ? random.nextInt(PriceTable.MAX_TOPPINGS + 1) : 0;
+        }
+
+        long tableTotal = 0;
+        long switchTotal = 0;
+        long tableNanos = Long.MAX_VALUE;
+        long switchNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long total = 0;
+            for (int i = 0; i < PIZZAS; i++) {
+                total += PriceTable.MENU.price(types[i], sizes[i], toppingCounts[i]);
+            }
+            tableNanos = Math.min(tableNanos, System.nanoTime() - start);
+            tableTotal = total;
+
+            start = System.nanoTime();
+            total = 0;
+            for (int i = 0; i < PIZZAS; i++) {
+                total += switchPrice(types[i], sizes[i], toppingCounts[i]);
+            }
+            switchNanos = Math.min(switchNanos, System.nanoTime() - start);
+            switchTotal = total;
+        }
+
+        assertEquals(switchTotal, tableTotal);
+        System.out.printf("price table: %.2f ns/pizza, switch: %.2f ns/pizza%n",
+                (double) tableNanos / PIZZAS, (double) switchNanos / PIZZAS);
+    }
+
+    /**
+     * Prices a pizza the way the Pizza subclasses did before the price table, in cents.
+     */
+    private static long switchPrice(PizzaType type, Size size, int toppingCount) {
+        switch (type) {
+            case DELUXE:
+                switch (size) {
+                    case SMALL: return 1699;
+                    case MEDIUM: return 1899;
+                    case LARGE: return 2099;
+                    default: return 1699;
+                }
+            case MEATZZA:
+                switch (size) {
+                    case SMALL: return 1799;
+                    case MEDIUM: return 1999;
+                    case LARGE: return 2199;
+                    default: return 1799;
+                }
+            case BBQ_CHICKEN:
+                switch (size) {
+                    case SMALL: return 1499;
+                    case MEDIUM: return 1699;
+                    case LARGE: return 1999;
+                    default: return 1499;
+                }
+            default:
+                long base;
+                switch (size) {
+                    case MEDIUM: base = 1099; break;
+                    case LARGE: base = 1299; break;
+                    default: base = 899; break;
+                }
+                return base + 169L * toppingCount;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for PriceTable, checking every entry against the menu prices it is built from.
+ * @author Jorgeluis Done
+ */
+public class PriceTableTest {
+    @Test
+    public void everyEntryMatchesTheMenu() {
+        for (PizzaType type : PizzaType.values()) {
+            for (Size size : Size.values()) {
+                for (int count = 0; count <= PriceTable.MAX_TOPPINGS; count++) {
+                    assertEquals(type.sizePrice(size) + type.toppingPrice() * count,
+                            PriceTable.MENU.price(type, size, count));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void buildYourOwnChargesPerTopping() {
+        assertEquals(899, PriceTable.MENU.price(PizzaType.BUILD_YOUR_OWN, Size.SMALL, 0));
+        assertEquals(1099 + 3 * 169, PriceTable.MENU.price(PizzaType.BUILD_YOUR_OWN, Size.MEDIUM, 3));
+        assertEquals(2099, PriceTable.MENU.price(PizzaType.DELUXE, Size.LARGE, 0));
+    }
+
+    @Test
+    public void toppingCountsPastTheLimitAreClamped() {
+        assertEquals(PriceTable.MENU.price(PizzaType.BUILD_YOUR_OWN, Size.LARGE, PriceTable.MAX_TOPPINGS),
+                PriceTable.MENU.price(PizzaType.BUILD_YOUR_OWN, Size.LARGE, PriceTable.MAX_TOPPINGS + 3));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for SQLiteOrderStore, run on Robolectric's SQLite: orders must read back the same
+ * whether they are still pending or have been written, and an order stored again after being
+ * written must be counted and removed once.
+ * @author Jorgeluis Done
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SQLiteOrderStoreTest {
+    private static final int BATCH_SIZE = 4;
+
+    private SQLiteOrderStore store;
+
+    @Before
+    public void setUp() {
+        store = new SQLiteOrderStore(RuntimeEnvironment.getApplication(), null, BATCH_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void pendingOrderIsReturnedAsStored() {
+        Order order = order(1);
+        store.put(order);
+        assertSame(order, store.get(1));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void writtenOrderReadsBackLineForLine() {
+        Order order = order(1);
+        order.addPizza(new BuildYourOwn(Crust.HAND_TOSSED, Size.MEDIUM,
+                Topping.maskOf(Topping.HAM, Topping.ONION, Topping.PEPPERONI)), 3);
+        store.put(order);
+        store.flush();
+
+        Order read = store.get(1);
+        assertEquals(order.getLineCount(), read.getLineCount());
+        for (int i = 0; i < order.getLineCount(); i++) {
+            assertEquals(order.getLineCode(i), read.getLineCode(i));
+            assertEquals(order.getLineQuantity(i), read.getLineQuantity(i));
+        }
+        assertEquals(order.getSubtotal(), read.getSubtotal());
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithoutFlush() {
+        for (int number = 1; number <= BATCH_SIZE + 1; number++) {
+            store.put(order(number));
+        }
+        assertEquals(BATCH_SIZE + 1, store.size());
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, store.orderNumbers());
+    }
+
+    @Test
+    public void orderStoredAgainAfterWriteIsCountedOnce() {
+        store.put(order(1));
+        store.flush();
+        store.put(order(1));
+        assertEquals(1, store.size());
+        assertEquals(1, store.snapshot().size());
+    }
+
+    @Test
+    public void removingOrderStoredAgainAfterWriteDeletesWrittenRow() {
+        store.put(order(1));
+        store.flush();
+        Order again = order(1);
+        again.addPizza(Meatzza.of(Crust.PAN, Size.LARGE), 1);
+        store.put(again);
+
+        assertSame(again, store.remove(1));
+        assertNull(store.get(1));
+        assertEquals(0, store.size());
+        store.flush();
+        assertNull(store.get(1));
+    }
+
+    @Test
+    public void removeDeletesWrittenOrderAndItsLines() {
+        store.put(order(1));
+        store.put(order(2));
+        store.flush();
+
+        assertEquals(1, store.remove(1).getOrderNumber());
+        assertNull(store.remove(1));
+        assertNull(store.get(1));
+        List<Order> orders = store.snapshot();
+        assertEquals(1, orders.size());
+        assertEquals(2, orders.get(0).getOrderNumber());
+    }
+
+    @Test
+    public void snapshotIsSortedByOrderNumber() {
+        store.put(order(3));
+        store.put(order(1));
+        store.flush();
+        store.put(order(2));
+
+        List<Order> orders = store.snapshot();
+        assertEquals(3, orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(i + 1, orders.get(i).getOrderNumber());
+        }
+    }
+
+    @Test
+    public void orderWithoutLinesReadsBackEmpty() {
+        store.put(new Order(1, Collections.emptyList()));
+        store.flush();
+        assertEquals(0, store.get(1).getLineCount());
+    }
+
+    private static Order order(int number) {
+        return new Order(number, Collections.singletonList(Deluxe.of(Crust.DEEP_DISH, Size.SMALL)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.pizzeria;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many orders per second sessions can build and place as the number of
+ * concurrent sessions grows, each session on its own thread.
+ *
+ * Ignored by default since it only measures; remove the annotation to run it.
+ * @author Jorgeluis Done
+ */
+@Ignore("Benchmark; run by hand")
+public class SessionThroughputBenchmark {
+    private static final int ORDERS_PER_SESSION = 200_000;
+    private static final int[] SESSION_COUNTS = {1, 2, 4, 8, 16};
+
+    @Test
+    public void throughputBySessionCount() throws Exception {
+        run(SESSION_COUNTS[SESSION_COUNTS.length - 1]); // warm up
+        for (int sessions : SESSION_COUNTS) {
+            long nanos = run(sessions);
+            double ordersPerSecond = (double) sessions * ORDERS_PER_SESSION
+                    / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+            System.out.printf("%2d sessions: %,.0f orders/s%n", sessions, ordersPerSecond);
+        }
+    }
+
+    /**
+     * Has every session add three pizzas and place its order repeatedly.
+     * @return The time taken in nanoseconds.
+     */
+    private static long run(int sessions) throws Exception {
+        OrderManager manager = new OrderManager(sessions);
+        Pizza deluxe = Deluxe.of(Crust.DEEP_DISH, Size.LARGE);
+        Pizza byo = new BuildYourOwn(Crust.PAN, Size.SMALL, Topping.maskOf(Topping.HAM));
+        ExecutorService pool = Executors.newFixedThreadPool(sessions);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                String sessionId = "terminal-" + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int order = 0; order < ORDERS_PER_SESSION; order++) {
+                        manager.addToCurrentOrder(sessionId, deluxe, 2);
+                        manager.addToCurrentOrder(sessionId, byo);
+                        manager.placeCurrentOrder(sessionId);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
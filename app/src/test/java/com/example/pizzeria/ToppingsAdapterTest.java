@@ -0,0 +1,200 @@
+package com.example.pizzeria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.view.View;
+import android.widget.Button;
+import android.widget.ImageView;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.rupizzaria.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests that ToppingsAdapter rebinds only the cards whose selection changed, with the selection
+ * payload, and that those rebinds leave the topping images alone. Run on Robolectric with a
+ * real RecyclerView laid out tall enough to bind every card.
+ * @author Jorgeluis Done
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ToppingsAdapterTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 100_000;
+
+    private final Drawable placeholder = new ColorDrawable(Color.MAGENTA);
+    private final List<Integer> changed = new ArrayList<>();
+    private final List<Topping> unselected = new ArrayList<>();
+    private ImageLoader imageLoader;
+    private ToppingsAdapter adapter;
+    private RecyclerView list;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        ChicagoStyleMenuActivity activity =
+                Robolectric.buildActivity(ChicagoStyleMenuActivity.class).setup().get();
+        ArrayList<ToppingItem> toppings = new ArrayList<>();
+        for (Topping topping : Topping.values()) {
+            toppings.add(new ToppingItem(topping.toString(), topping.ordinal(), R.drawable.ham,
+                    "Unselected"));
+        }
+        adapter = new ToppingsAdapter(activity, toppings,
+                new ToppingsAdapter.onToppingsInteractionsListener() {
+                    @Override
+                    public void selectTopping(Topping topping) {
+                    }
+
+                    @Override
+                    public void unselectTopping(Topping topping) {
+                        unselected.add(topping);
+                    }
+                }, activity);
+        list = new RecyclerView(activity);
+        list.setLayoutManager(new LinearLayoutManager(activity));
+        list.setAdapter(adapter);
+        layOut();
+        imageLoader = GlobalDataManager.getInstance().getImageLoader(activity);
+        awaitDecodes();
+
+        // ImageLoader.load always tags the view, and setting any image replaces the placeholder
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            ImageView image = card(position).findViewById(R.id.tv_image);
+            image.setTag(null);
+            image.setImageDrawable(placeholder);
+        }
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                throw new AssertionError("Every card was rebound");
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                throw new AssertionError("Cards rebound without a payload");
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                assertSame(ToppingsAdapter.PAYLOAD_SELECTION, payload);
+                for (int i = 0; i < itemCount; i++) {
+                    changed.add(positionStart + i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void updateSelectionsRebindsOnlyTheToppingsThatChanged() {
+        adapter.updateSelections(Topping.maskOf(Topping.HAM));
+        layOut();
+        // The first update also clears every card's price text
+        assertEquals(adapter.getItemCount(), changed.size());
+        changed.clear();
+
+        adapter.updateSelections(Topping.maskOf(Topping.HAM, Topping.ONION));
+        layOut();
+        assertChanged(Topping.ONION);
+        assertEquals("Selected", button(Topping.ONION).getText().toString());
+
+        adapter.updateSelections(Topping.maskOf(Topping.ONION));
+        layOut();
+        assertChanged(Topping.HAM);
+        assertEquals("Unselected", button(Topping.HAM).getText().toString());
+
+        adapter.updateSelections(Topping.maskOf(Topping.ONION));
+        layOut();
+        assertChanged();
+        assertImagesUntouched();
+    }
+
+    @Test
+    public void resetSelectionsRebindsOnlyTheSelectedToppings() {
+        button(Topping.HAM).performClick();
+        layOut();
+        button(Topping.BEEF).performClick();
+        layOut();
+        assertChanged(Topping.HAM, Topping.BEEF);
+        assertEquals("Selected", button(Topping.BEEF).getText().toString());
+
+        adapter.resetSelections();
+        layOut();
+
+        assertChanged(Topping.HAM, Topping.BEEF);
+        assertEquals(Arrays.asList(Topping.BEEF, Topping.HAM), unselected);
+        assertEquals("Unselected", button(Topping.HAM).getText().toString());
+        assertEquals("Unselected", button(Topping.BEEF).getText().toString());
+        assertImagesUntouched();
+    }
+
+    /**
+     * Runs a layout pass, which applies the pending adapter changes and rebinds their cards.
+     */
+    private void layOut() {
+        list.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        list.layout(0, 0, WIDTH, HEIGHT);
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private View card(int position) {
+        return list.findViewHolderForAdapterPosition(position).itemView;
+    }
+
+    private Button button(Topping topping) {
+        return card(topping.ordinal()).findViewById(R.id.tv_add_remove);
+    }
+
+    /**
+     * Checks that exactly the cards of the given toppings were rebound since the last check.
+     */
+    private void assertChanged(Topping... toppings) {
+        List<Integer> positions = new ArrayList<>();
+        for (Topping topping : toppings) {
+            positions.add(topping.ordinal());
+        }
+        Collections.sort(changed);
+        Collections.sort(positions);
+        assertEquals(positions, changed);
+        changed.clear();
+    }
+
+    private void assertImagesUntouched() {
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            ImageView image = card(position).findViewById(R.id.tv_image);
+            assertNull(image.getTag());
+            assertSame(placeholder, image.getDrawable());
+        }
+    }
+
+    /**
+     * Waits for the background decodes to finish and delivers their results on the main
+     * looper, so no image arrives after the placeholders are set.
+     */
+    private void awaitDecodes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        do {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(10);
+        } while (imageLoader.getPendingDecodeCount() > 0 && System.currentTimeMillis() < deadline);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(0, imageLoader.getPendingDecodeCount());
+    }
+}